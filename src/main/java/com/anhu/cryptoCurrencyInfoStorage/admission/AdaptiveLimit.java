@@ -0,0 +1,96 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An AdaptiveLimit bounds the number of requests in flight and adapts the bound to the observed latency, additive
+ * increase multiplicative decrease (AIMD): every request answered within the target latency raises the limit by
+ * 1 / limit, so a full limit of fast responses raises it by one; a slower response, or a server error, multiplies it by
+ * the backoff ratio. The responses in flight were admitted under the old limit and tend to be slow together, so the
+ * limit is decreased at most once per target latency, which lets them drain before the next decrease.
+ * A limit that is less than half in use is not raised, an idle limit says nothing about the capacity.
+ */
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** The limit with its fraction; guarded by this. */
+    private double limit;
+    /** The time of the latest decrease in nanoseconds; guarded by this. */
+    private long decreasedAt;
+    private volatile int currentLimit;
+
+    /**
+     * @param initialLimit The limit at the start
+     * @param minLimit The lowest limit
+     * @param maxLimit The highest limit
+     * @param targetLatencyNanos The latency above which the limit is decreased
+     * @param backoffRatio The factor of a decrease, between 0 and 1
+     */
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("invalid limit " + minLimit + ".." + maxLimit + " with backoff " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+        this.decreasedAt = System.nanoTime() - targetLatencyNanos - 1;
+    }
+
+    /**
+     * @return true if the request is admitted, it has to be released once answered; false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its outcome
+     * @param latencyNanos The time from the admission to the answer
+     * @param failed Whether the request failed with a server error, which is taken as a sign of overload
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > targetLatencyNanos) {
+                long now = System.nanoTime();
+                if (now - decreasedAt > targetLatencyNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreasedAt = now;
+                }
+            } else if (inFlightBefore * 2 >= currentLimit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    /**
+     * @return the number of requests that are admitted at once
+     */
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    /**
+     * @return the number of admitted requests that are not answered yet
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,244 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AdmissionControlFilter sheds load before it reaches the thread and connection pools: the /api requests of
+ * every EndpointClass are bounded by an AdaptiveLimit, and a request over the limit is answered at once with
+ * HttpStatus.SERVICE_UNAVAILABLE and Retry-After, so the admitted requests keep their latency during a spike.
+ * Optionally every client is limited to a rate by a token bucket, a client over its rate gets
+ * HttpStatus.TOO_MANY_REQUESTS with the seconds until it has a token again.
+ * The actuator endpoints are not limited, so health checks are answered during a spike. Neither are the change feed
+ * and imports, which hold their request for minutes and have bounds of their own.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "currency.admission.enabled", havingValue = "true")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/";
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${currency.admission.point-read.initial-limit:64}")
+    int pointReadInitialLimit;
+
+    @Value("${currency.admission.point-read.min-limit:8}")
+    int pointReadMinLimit;
+
+    @Value("${currency.admission.point-read.max-limit:512}")
+    int pointReadMaxLimit;
+
+    @Value("${currency.admission.point-read.target-latency-millis:20}")
+    long pointReadTargetLatencyMillis;
+
+    @Value("${currency.admission.listing.initial-limit:16}")
+    int listingInitialLimit;
+
+    @Value("${currency.admission.listing.min-limit:2}")
+    int listingMinLimit;
+
+    @Value("${currency.admission.listing.max-limit:128}")
+    int listingMaxLimit;
+
+    @Value("${currency.admission.listing.target-latency-millis:100}")
+    long listingTargetLatencyMillis;
+
+    @Value("${currency.admission.write.initial-limit:16}")
+    int writeInitialLimit;
+
+    @Value("${currency.admission.write.min-limit:2}")
+    int writeMinLimit;
+
+    @Value("${currency.admission.write.max-limit:128}")
+    int writeMaxLimit;
+
+    @Value("${currency.admission.write.target-latency-millis:50}")
+    long writeTargetLatencyMillis;
+
+    @Value("${currency.admission.backoff-ratio:0.9}")
+    double backoffRatio;
+
+    @Value("${currency.admission.retry-after-seconds:1}")
+    long retryAfterSeconds;
+
+    /** The requests per second of every client, 0 for no limit per client. */
+    @Value("${currency.admission.client.requests-per-second:0}")
+    double clientRequestsPerSecond;
+
+    @Value("${currency.admission.client.burst:100}")
+    int clientBurst;
+
+    @Value("${currency.admission.client.max-clients:10000}")
+    int maxClients;
+
+    /** The header that identifies a client, empty to identify clients by their address. */
+    @Value("${currency.admission.client.header:}")
+    String clientHeader;
+
+    private final Map<EndpointClass, AdaptiveLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> overLimit = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> overRate = new EnumMap<>(EndpointClass.class);
+    private ClientRateLimiter clientRateLimiter;
+
+    @PostConstruct
+    void createLimits() {
+        limits.put(EndpointClass.POINT_READ, new AdaptiveLimit(pointReadInitialLimit, pointReadMinLimit,
+                pointReadMaxLimit, TimeUnit.MILLISECONDS.toNanos(pointReadTargetLatencyMillis), backoffRatio));
+        limits.put(EndpointClass.LISTING, new AdaptiveLimit(listingInitialLimit, listingMinLimit,
+                listingMaxLimit, TimeUnit.MILLISECONDS.toNanos(listingTargetLatencyMillis), backoffRatio));
+        limits.put(EndpointClass.WRITE, new AdaptiveLimit(writeInitialLimit, writeMinLimit,
+                writeMaxLimit, TimeUnit.MILLISECONDS.toNanos(writeTargetLatencyMillis), backoffRatio));
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AdaptiveLimit limit = limits.get(endpointClass);
+            Gauge.builder("currency.admission.limit", limit, AdaptiveLimit::getLimit)
+                    .description("The number of requests admitted at once")
+                    .tag("class", endpointClass.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("currency.admission.in-flight", limit, AdaptiveLimit::getInFlight)
+                    .description("The number of admitted requests not answered yet")
+                    .tag("class", endpointClass.getKey())
+                    .register(meterRegistry);
+            overLimit.put(endpointClass, rejected(endpointClass, "limit"));
+            overRate.put(endpointClass, rejected(endpointClass, "rate"));
+        }
+        if (clientRequestsPerSecond > 0) {
+            clientRateLimiter = new ClientRateLimiter(clientRequestsPerSecond, clientBurst, maxClients);
+            Gauge.builder("currency.admission.clients", clientRateLimiter, ClientRateLimiter::getClients)
+                    .description("The number of clients with a token bucket")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String apiPath = request.getContextPath() + API_PATH;
+        return !uri.startsWith(apiPath) || uri.endsWith("/currencies/changes") || uri.endsWith("/currencies/import");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + API_PATH.length());
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod(), path);
+
+        if (clientRateLimiter != null) {
+            long waitNanos = clientRateLimiter.tryTake(clientOf(request));
+            if (waitNanos > 0) {
+                overRate.get(endpointClass).increment();
+                long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, seconds);
+                return;
+            }
+        }
+
+        AdaptiveLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            overLimit.get(endpointClass).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // the response is written after this returns, the request stays in flight until it completes
+                request.getAsyncContext().addListener(new ReleasingListener(limit, start));
+            } else {
+                limit.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    /**
+     * @param endpointClass A class of endpoints
+     * @return the limit of the class
+     */
+    public AdaptiveLimit getLimit(EndpointClass endpointClass) {
+        return limits.get(endpointClass);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return client == null ? request.getRemoteAddr() : client;
+    }
+
+    private Counter rejected(EndpointClass endpointClass, String reason) {
+        return Counter.builder("currency.admission.rejected")
+                .description("The requests answered at once without being handled")
+                .tag("class", endpointClass.getKey())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        log.debug("HttpStatus.{}, retry after {} s", status.name(), retryAfterSeconds);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    /**
+     * Releases the admission of an asynchronous request once its response is complete; the container calls
+     * onComplete after a timeout or an error as well.
+     */
+    private static final class ReleasingListener implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final long start;
+
+        private ReleasingListener(AdaptiveLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getAsyncContext().getResponse();
+            limit.release(System.nanoTime() - start, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ClientRateLimiter gives every client a token bucket: a request takes a token, tokens are added at a fixed
+ * rate up to the burst size, and a client without tokens is told how long to wait. Buckets that are full again are
+ * of idle clients and hold nothing a new bucket would not; they are evicted once the maximum number of clients is
+ * reached, at most once per second.
+ */
+public class ClientRateLimiter {
+
+    private static final long EVICTION_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxClients;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile long evictedAt = System.nanoTime() - EVICTION_INTERVAL_NANOS;
+
+    /**
+     * @param requestsPerSecond The sustained rate of requests per client
+     * @param burst The number of requests a client that was idle can send at once
+     * @param maxClients The number of clients above which idle buckets are evicted
+     */
+    public ClientRateLimiter(double requestsPerSecond, int burst, int maxClients) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("invalid rate " + requestsPerSecond + " with burst " + burst);
+        }
+        this.tokensPerNano = requestsPerSecond / 1e9;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Takes a token of a client
+     * @param client The id of the client
+     * @return 0 if the client may send the request, otherwise the nanoseconds until it has a token again
+     */
+    public long tryTake(String client) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients && now - evictedAt > EVICTION_INTERVAL_NANOS) {
+                evictedAt = now;
+                buckets.values().removeIf(idle -> idle.isFull(now));
+            }
+            bucket = buckets.computeIfAbsent(client, added -> new Bucket(now));
+        }
+        return bucket.take(now);
+    }
+
+    /**
+     * @return the number of clients with a bucket
+     */
+    public int getClients() {
+        return buckets.size();
+    }
+
+    private final class Bucket {
+
+        private double tokens = burst;
+        private long updatedAt;
+
+        Bucket(long now) {
+            updatedAt = now;
+        }
+
+        synchronized long take(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            // another thread may have refilled with a later time already
+            if (now > updatedAt) {
+                tokens = Math.min(burst, tokens + (now - updatedAt) * tokensPerNano);
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import java.util.Set;
+
+/**
+ * The classes of /api endpoints that have a concurrency limit of their own, so a spike of expensive listings does not
+ * take the capacity of the cheap point reads, nor reads that of writes.
+ */
+public enum EndpointClass {
+    POINT_READ("point-read"),
+    LISTING("listing"),
+    WRITE("write");
+
+    /** The literal paths below /api/currencies that read more than one record. */
+    private static final Set<String> LISTINGS = Set.of("stream", "stats", "analytics", "top", "search", "imports", "changes");
+
+    private final String key;
+
+    EndpointClass(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return the name of the class in properties and metric tags
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param method The HTTP method of a request
+     * @param path The path of the request below /api, like currencies/BTC
+     * @return the class of the endpoint the request is for
+     */
+    public static EndpointClass of(String method, String path) {
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            return WRITE;
+        }
+        String[] segments = path.split("/");
+        boolean currency = segments.length >= 2 && segments[0].equals("currencies") && !LISTINGS.contains(segments[1]);
+        if (currency && (segments.length == 2 || segments.length == 3 && segments[2].equals("rank"))) {
+            return POINT_READ;
+        }
+        return LISTING;
+    }
+}
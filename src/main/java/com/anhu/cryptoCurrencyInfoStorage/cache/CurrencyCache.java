@@ -0,0 +1,202 @@
+package com.anhu.cryptoCurrencyInfoStorage.cache;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The CurrencyCache is a bounded in-process cache of Currency records keyed by ticker.
+ * Entries are evicted in least recently used order once maxSize is reached and expire ttlMillis after they were put.
+ * <p>
+ * A record read from the data base on a miss is put with the fill token taken before the read. The fill is dropped
+ * when the ticker was invalidated after the token was taken, so a reader that loaded a record before an update can
+ * not put it back after the update invalidated it. The latest invalidation is kept for the last maxSize invalidated
+ * tickers; a fill older than an invalidation that is no longer kept is dropped too. A record that was just written
+ * is put the same way, with a token taken before the write, so a delete that commits in between keeps it out. Neither
+ * kind of put replaces a record with a higher version.
+ */
+@Component
+public class CurrencyCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+    /** The number of the latest invalidation per ticker, oldest first; guarded by entries. */
+    private final Map<String, Long> invalidations;
+    /** The number of the latest invalidation; guarded by entries. */
+    private long invalidationCount;
+    /** The highest number of an invalidation that is no longer in invalidations; guarded by entries. */
+    private long forgottenInvalidation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public CurrencyCache(@Value("${currency.cache.max-size:10000}") int maxSize,
+                         @Value("${currency.cache.ttl-millis:30000}") long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    CurrencyCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1, was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+        // access ordered, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CurrencyCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > CurrencyCache.this.maxSize) {
+                    forgottenInvalidation = Math.max(forgottenInvalidation, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a record in the cache
+     * @param ticker The ticker of the requested record
+     * @return the cached record if present and not expired, an empty Optional otherwise
+     */
+    public Optional<Currency> get(String ticker) {
+        synchronized (entries) {
+            Entry entry = entries.get(ticker);
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                hits.increment();
+                return Optional.of(entry.currency);
+            }
+            if (entry != null) {
+                entries.remove(ticker);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a record in the cache that no write can have invalidated yet, like one loaded at the start, replacing any
+     * record with the same ticker and a version that is not higher
+     * @param currency The record to be cached
+     */
+    public void put(Currency currency) {
+        Entry entry = new Entry(currency, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            if (!isNewer(entries.get(currency.getTicker()), currency)) {
+                return;
+            }
+            entries.put(currency.getTicker(), entry);
+        }
+    }
+
+    /**
+     * @return the token to put a record read from the data base with, to be taken before the record is read or
+     * written
+     */
+    public long fillToken() {
+        synchronized (entries) {
+            return invalidationCount;
+        }
+    }
+
+    /**
+     * Stores a record read from the data base in the cache, unless its ticker was invalidated since the token was
+     * taken or the cache holds a record with a higher version
+     * @param currency The record to be cached
+     * @param fillToken The fill token taken before the record was read
+     * @return whether the record was stored
+     */
+    public boolean putIfNotInvalidated(Currency currency, long fillToken) {
+        Entry entry = new Entry(currency, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            Long invalidatedAt = invalidations.get(currency.getTicker());
+            if (fillToken < forgottenInvalidation || (invalidatedAt != null && invalidatedAt > fillToken)
+                    || !isNewer(entries.get(currency.getTicker()), currency)) {
+                return false;
+            }
+            entries.put(currency.getTicker(), entry);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the record for a ticker from the cache, if present, and drops the fills of the ticker that are running
+     * @param ticker The ticker of the record to be removed
+     */
+    public void invalidate(String ticker) {
+        synchronized (entries) {
+            entries.remove(ticker);
+            // removed first, so the ticker moves to the end of the insertion order
+            invalidations.remove(ticker);
+            invalidations.put(ticker, ++invalidationCount);
+        }
+    }
+
+    /**
+     * Removes all records from the cache and drops the fills that are running
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations.clear();
+            forgottenInvalidation = ++invalidationCount;
+        }
+    }
+
+    /**
+     * @return the maximum number of cached records
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the current hit, miss and eviction counts and the number of cached records
+     */
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private static boolean isNewer(Entry cached, Currency currency) {
+        return cached == null || cached.currency.getVersion() <= currency.getVersion();
+    }
+
+    private static class Entry {
+
+        private final Currency currency;
+        private final long expiresAt;
+
+        private Entry(Currency currency, long expiresAt) {
+            this.currency = currency;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.anhu.cryptoCurrencyInfoStorage.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters of the CurrencyCache with the names Micrometer uses for caches.
+ */
+@Component
+public class CurrencyCacheMetrics implements MeterBinder {
+
+    private static final String CACHE_NAME = "currencies";
+
+    private final CurrencyCache currencyCache;
+
+    @Autowired
+    public CurrencyCacheMetrics(CurrencyCache currencyCache) {
+        this.currencyCache = currencyCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", currencyCache, cache -> cache.stats().getHits())
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", currencyCache, cache -> cache.stats().getMisses())
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", currencyCache, cache -> cache.stats().getEvictions())
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", currencyCache, cache -> cache.stats().getSize())
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.anhu.cryptoCurrencyInfoStorage.config;
+
+import com.anhu.cryptoCurrencyInfoStorage.controller.CurrencyHandler;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.sql.init.dependency.DatabaseInitializationDependencyConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import javax.sql.DataSource;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * WebFlux configuration of the REST interface for the reactive profile, which serves the API of the
+ * CurrencyController through the CurrencyHandler.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+@Import(DatabaseInitializationDependencyConfigurer.class)
+public class ReactiveConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> currencyRoutes(CurrencyHandler handler) {
+        return route()
+                .path("/api", api -> api
+                        // fixed paths ahead of the {ticker} paths they would otherwise match
+                        .GET("/currencies/stream", handler::streamAllCurrencies)
+                        .GET("/currencies/stats", handler::getMarketStats)
+                        .GET("/currencies/analytics", handler::getMarketScan)
+                        .GET("/currencies/top", handler::getTopCurrencies)
+                        .GET("/currencies/search", handler::searchCurrencies)
+                        .POST("/currencies/batch", handler::createCurrencies)
+                        .PUT("/currencies/batch", handler::upsertCurrencies)
+                        .POST("/currencies/import", handler::importCurrencies)
+                        .GET("/currencies/imports", handler::getRunningImports)
+                        .GET("/currencies/changes", handler::getCurrencyChanges)
+                        .GET("/currencies/{ticker}/history", handler::getCurrencyHistory)
+                        .GET("/currencies/{ticker}/ohlc", handler::getCurrencyOhlc)
+                        .GET("/currencies/{ticker}/rank", handler::getCurrencyRank)
+                        .GET("/currencies/{ticker}", handler::getCurrencyByTicker)
+                        .PUT("/currencies/{ticker}", handler::updateCurrency)
+                        .PATCH("/currencies/{ticker}", handler::patchCurrency)
+                        .DELETE("/currencies/{ticker}", handler::deleteCurrency)
+                        .GET("/currencies", handler::getAllCurrencies)
+                        .POST("/currencies", handler::createCurrency)
+                        .GET("/cache/stats", handler::getCacheStats))
+                .build();
+    }
+
+    /**
+     * With a ConnectionFactory present Spring Boot would run schema and data scripts through R2DBC. They keep running
+     * through JDBC, ahead of Hibernate, as in the servlet stack; both connect to the same data base.
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+}
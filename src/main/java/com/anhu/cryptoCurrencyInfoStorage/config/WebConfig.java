@@ -0,0 +1,24 @@
+package com.anhu.cryptoCurrencyInfoStorage.config;
+
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyJsonHttpMessageConverter;
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Spring MVC configuration of the REST interface.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of Jackson, so Currency responses do not go through reflective mapping
+        converters.add(0, new CurrencyJsonHttpMessageConverter());
+        // Smile and CBOR are served by the Jackson converters Spring adds when their data formats are present
+        converters.add(1, new CurrencyProtobufHttpMessageConverter());
+    }
+}
@@ -1,54 +1,164 @@
 package com.anhu.cryptoCurrencyInfoStorage.controller;
 
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChange;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeFeed;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeGeneration;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangePublisher;
 import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyPatch;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollup;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketScan;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketStats;
+import com.anhu.cryptoCurrencyInfoStorage.model.RollupInterval;
 import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencySortPlanner;
+import com.anhu.cryptoCurrencyInfoStorage.service.BatchItemResult;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyBatchService;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyExportService;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyImportService;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyRollupService;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportFormat;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportProgress;
+import com.anhu.cryptoCurrencyInfoStorage.storage.CurrencyWriteBehindBuffer;
+import com.anhu.cryptoCurrencyInfoStorage.view.ColumnFilter;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyAggregates;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyColumns;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyLeaderboard;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencySearchIndex;
+import com.anhu.cryptoCurrencyInfoStorage.view.RankedBy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 
 /**
  * The CurrencyController provides a REST interface to access the data base.
+ * With the reactive profile the CurrencyHandler serves the same interface instead.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api")
 public class CurrencyController {
 
     @Autowired
     CurrencyRepository currencyRepository;
 
+    @Autowired
+    CurrencySortPlanner currencySortPlanner;
+
+    @Autowired
+    CurrencyCache currencyCache;
+
+    @Autowired
+    CurrencyChangePublisher currencyChangePublisher;
+
+    @Autowired
+    CurrencyBatchService currencyBatchService;
+
+    @Autowired
+    CurrencyExportService currencyExportService;
+
+    @Autowired
+    CurrencyImportService currencyImportService;
+
+    @Autowired
+    CurrencyRollupService currencyRollupService;
+
+    @Autowired
+    CurrencyChangeGeneration currencyChangeGeneration;
+
+    @Autowired
+    CurrencyChangeFeed currencyChangeFeed;
+
+    @Autowired
+    CurrencyAggregates currencyAggregates;
+
+    @Autowired
+    CurrencyLeaderboard currencyLeaderboard;
+
+    @Autowired
+    CurrencySearchIndex currencySearchIndex;
+
+    @Autowired
+    CurrencyColumns currencyColumns;
+
+    @Autowired(required = false)
+    CurrencyWriteBehindBuffer currencyWriteBehindBuffer;
+
+    @Value("${currency.changes.heartbeat-millis:15000}")
+    long heartbeatMillis;
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private static final Logger log = LoggerFactory.getLogger(CurrencyController.class);
 
     /**
      * Retrieves a specific record
      * @param ticker The ticker of the requested record
-     * @return the record if present, HttpStatus.NOT_FOUND otherwise
+     * @param webRequest The request, whose If-None-Match header is compared with the ETag of the record
+     * @return the record with its ETag if present, HttpStatus.NOT_MODIFIED if the record matches If-None-Match,
+     * HttpStatus.NOT_FOUND otherwise; a buffered update that is not written yet is returned without ETag
      */
     @GetMapping("/currencies/{ticker}")
-    public ResponseEntity<Currency> getCurrencyByTicker(@PathVariable("ticker") String ticker) {
-        log.info("Get: /currencies/" + ticker);
+    public ResponseEntity<Currency> getCurrencyByTicker(@PathVariable("ticker") String ticker, WebRequest webRequest) {
+        log.debug("Get: /currencies/{}", ticker);
 
-        Optional<Currency> currencyData = currencyRepository.findById(ticker);
+        if (currencyWriteBehindBuffer != null) {
+            Optional<Currency> buffered = currencyWriteBehindBuffer.get(ticker);
+            if (buffered.isPresent()) {
+                // the version of a buffered update is only known once it is written
+                log.debug("HttpStatus.OK, returned buffered {}", buffered.get());
+                return new ResponseEntity<>(buffered.get(), HttpStatus.OK);
+            }
+        }
+
+        Optional<Currency> currencyData = currencyCache.get(ticker);
+        if (currencyData.isEmpty()) {
+            long fillToken = currencyCache.fillToken();
+            currencyData = currencyRepository.findById(ticker);
+            currencyData.ifPresent(currency -> currencyCache.putIfNotInvalidated(currency, fillToken));
+        }
 
         if (currencyData.isPresent()) {
-            log.info("HttpStatus.OK, returned " + currencyData.get());
-            return new ResponseEntity<>(currencyData.get(), HttpStatus.OK);
+            String eTag = CurrencyETags.of(currencyData.get(),
+                    CurrencyETags.representationOf(webRequest.getHeader(HttpHeaders.ACCEPT)));
+            if (webRequest.checkNotModified(eTag)) {
+                log.debug("HttpStatus.NOT_MODIFIED");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(CurrencyETags.VARY).build();
+            }
+            log.debug("HttpStatus.OK, returned {}", currencyData.get());
+            return ResponseEntity.ok().eTag(eTag).varyBy(CurrencyETags.VARY).body(currencyData.get());
         } else {
-            log.info("HttpStatus.NOT_FOUND");
+            log.debug("HttpStatus.NOT_FOUND");
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
     /**
-     * Create a new record
+     * Create a new record with a single INSERT statement
      * @param newCurrency The record to be created
      * @return The record if not yet present or
      * HttpStatus.CONFLICT if there already exists a record for ticker currencyBuilder.ticker
@@ -56,41 +166,244 @@ public class CurrencyController {
     @PostMapping("/currencies")
     public ResponseEntity<Currency> createCurrency(@RequestBody Currency.Builder newCurrency) {
         Currency currency = newCurrency.build();
-        log.info("Post: /currencies :" + currency.toJson());
-        Optional<Currency> currencyData = currencyRepository.findById(currency.getTicker());
-        if(currencyData.isPresent()){
-            log.info("HttpStatus.CONFLICT");
+        log.debug("Post: /currencies :{}", currency);
+        try {
+            // taken before the write, so a delete committed after it keeps the record out of the cache
+            long fillToken = currencyCache.fillToken();
+            Currency savedCurrency = currencyRepository.insert(currency);
+            currencyCache.putIfNotInvalidated(savedCurrency, fillToken);
+            currencyChangePublisher.created(savedCurrency);
+            log.debug("HttpStatus.CREATED, returned {}", savedCurrency);
+            return new ResponseEntity<>(savedCurrency, HttpStatus.CREATED);
+        } catch (DuplicateKeyException e) {
+            log.debug("HttpStatus.CONFLICT");
             return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
+    }
+
+    /**
+     * Creates a list of records in a single transaction
+     * @param newCurrencies The records to be created
+     * @return A map with per record the result, CREATED, CONFLICT if there already exists a record for its ticker
+     * or INVALID, and the number of records per result
+     */
+    @PostMapping("/currencies/batch")
+    public ResponseEntity<Map<String, Object>> createCurrencies(@RequestBody List<Currency.Builder> newCurrencies) {
+        log.debug("Post: /currencies/batch : {} records", newCurrencies.size());
         try {
-            Currency savedCurrency = currencyRepository.save(currency);
-            log.info("HttpStatus.CREATED, returned " + savedCurrency);
-            return new ResponseEntity<>(savedCurrency, HttpStatus.CREATED);
+            List<BatchItemResult> results = currencyBatchService.createAll(buildAll(newCurrencies));
+            return batchResponse(results);
         } catch (Exception e) {
-            log.info("HttpStatus.INTERNAL_SERVER_ERROR");
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     /**
-     * Updates a specific record
+     * Creates or updates a list of records in a single transaction
+     * @param currencies The records to be created or updated
+     * @return A map with per record the result, CREATED, UPDATED or INVALID, and the number of records per result
+     */
+    @PutMapping("/currencies/batch")
+    public ResponseEntity<Map<String, Object>> upsertCurrencies(@RequestBody List<Currency.Builder> currencies) {
+        log.debug("Put: /currencies/batch : {} records", currencies.size());
+        try {
+            List<BatchItemResult> results = currencyBatchService.upsertAll(buildAll(currencies));
+            return batchResponse(results);
+        } catch (Exception e) {
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Creates or updates the records of a file of any size, which is parsed, validated and written while it arrives.
+     * Lines that are not a valid record are rejected, the other lines are written in batches of a transaction each.
+     * @param contentType text/csv, whose first line may name the ticker, name, numberOfCoins and marketCap columns,
+     *                    the default order, or application/x-ndjson
+     * @param request The request, whose body is the UTF-8 encoded file
+     * @return the number of lines read, of records created and updated and of rejected lines, the first rejected
+     * lines with their reason and the rows written per second, HttpStatus.BAD_REQUEST if the CSV header lacks a column,
+     * HttpStatus.INTERNAL_SERVER_ERROR with the counters and the error if the records could no longer be written
+     */
+    @PostMapping(value = "/currencies/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportProgress> importCurrencies(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           HttpServletRequest request) {
+        log.debug("Post: /currencies/import : {}", contentType);
+        try {
+            ImportProgress report = currencyImportService.importCurrencies(request.getInputStream(),
+                    ImportFormat.fromContentType(contentType));
+            if (report.getState() == ImportProgress.State.FAILED) {
+                log.warn("HttpStatus.INTERNAL_SERVER_ERROR, returned {}", report);
+                return new ResponseEntity<>(report, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            log.debug("HttpStatus.OK, returned {}", report);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Retrieves the progress of the imports that are running
+     * @return per import the number of lines read, records written and lines rejected so far and the rows per second
+     */
+    @GetMapping("/currencies/imports")
+    public ResponseEntity<List<ImportProgress>> getRunningImports() {
+        log.debug("Get: /currencies/imports");
+        return new ResponseEntity<>(currencyImportService.getRunningImports(), HttpStatus.OK);
+    }
+
+    /**
+     * Updates a specific record with a single UPDATE statement, reading the updated record back in its transaction
      * @param ticker The ticker of the record to be updated
      * @param currency The values of the new version of the record
-     * @return The updated record if the database has a record for this ticker, HttpStatus.NOT_FOUND otherwise
+     * @param ifMatch Optional ETag of the version of the record the update is based on,
+     *                the record is only updated if it still has this version
+     * @param accept The Accept header, which picks the representation the ETag is of
+     * @return The updated record with its ETag if the database has a record for this ticker,
+     * HttpStatus.BAD_REQUEST if a value is missing, negative or longer than its column,
+     * HttpStatus.PRECONDITION_FAILED if the record has another version than If-Match, HttpStatus.NOT_FOUND otherwise.
+     * With write-behind an update without If-Match is buffered and HttpStatus.ACCEPTED returned with the record;
+     * an update with If-Match writes the buffered updates first, so it is compared with the latest version
      */
     @PutMapping("/currencies/{ticker}")
-    public ResponseEntity<Currency> updateCurrency(@PathVariable("ticker") String ticker, @RequestBody Currency.Builder currency) {
-        Currency currencyToBeUpdated = currency.build();
-        log.info("Put: /currencies/" + ticker + " :" + currencyToBeUpdated.toJson());
-        Optional<Currency> currencyData = currencyRepository.findById(ticker);
+    public ResponseEntity<Currency> updateCurrency(
+            @PathVariable("ticker") String ticker,
+            @RequestBody Currency.Builder currency,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Currency currencyToBeUpdated = currency.ticker(ticker).build();
+        log.debug("Put: /currencies/{} :{} If-Match {}", ticker, currencyToBeUpdated, ifMatch);
+        try {
+            // a buffered update the data base rejects could only fail its flush
+            currencyToBeUpdated.validate();
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
 
-        if (currencyData.isPresent()) {
-            log.info("HttpStatus.OK, returned " + currencyToBeUpdated);
-            return new ResponseEntity<>(currencyRepository.save(currencyToBeUpdated), HttpStatus.OK);
-        } else {
-            log.info("HttpStatus.NOT_FOUND");
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = CurrencyETags.versionOf(ifMatch.trim());
+            if (version == null) {
+                log.debug("HttpStatus.PRECONDITION_FAILED, not a record ETag");
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        if (currencyWriteBehindBuffer != null) {
+            if (version == null) {
+                return bufferUpdate(currencyToBeUpdated);
+            }
+            if (currencyWriteBehindBuffer.get(ticker).isPresent()) {
+                // the version If-Match is compared with is the one of the buffered update once it is written
+                currencyWriteBehindBuffer.flush(ticker);
+            }
+        }
+
+        long fillToken = currencyCache.fillToken();
+        Optional<Currency> updated = currencyRepository.replaceValues(currencyToBeUpdated, version);
+        if (updated.isEmpty()) {
+            if (version != null && currencyRepository.existsById(ticker)) {
+                // the cached copy may be the outdated version the client based its update on
+                currencyCache.invalidate(ticker);
+                log.debug("HttpStatus.PRECONDITION_FAILED");
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+            log.debug("HttpStatus.NOT_FOUND");
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+
+        // the record as committed, with its new version, so the listeners can order the changes of a ticker
+        Currency savedCurrency = updated.get();
+        currencyChangePublisher.updated(savedCurrency);
+        currencyCache.putIfNotInvalidated(savedCurrency, fillToken);
+        log.debug("HttpStatus.OK, returned {}", savedCurrency);
+        return ResponseEntity.ok().eTag(CurrencyETags.of(savedCurrency, CurrencyETags.representationOf(accept)))
+                .varyBy(CurrencyETags.VARY).body(savedCurrency);
+    }
+
+    /**
+     * Updates only the given fields of a specific record, with an UPDATE statement of only their columns and without
+     * reading the record first
+     * @param ticker The ticker of the record to be updated
+     * @param patch The fields to change, as a sparse record or a JSON Merge Patch; no field can be removed
+     * @param ifMatch Optional ETag of the version of the record the update is based on,
+     *                the record is only updated if it still has this version
+     * @param accept The Accept header, which picks the representation the ETag is of
+     * @return The updated record with its ETag, HttpStatus.BAD_REQUEST if the patch changes no field, an unknown field
+     * or the ticker, HttpStatus.PRECONDITION_FAILED if the record has another version than If-Match,
+     * HttpStatus.NOT_FOUND otherwise
+     */
+    @PatchMapping(value = "/currencies/{ticker}", consumes = {MediaType.APPLICATION_JSON_VALUE, MERGE_PATCH_JSON_VALUE})
+    public ResponseEntity<Currency> patchCurrency(
+            @PathVariable("ticker") String ticker,
+            @RequestBody CurrencyPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("Patch: /currencies/{} :{} If-Match {}", ticker, patch, ifMatch);
+        try {
+            patch.validate(ticker);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = CurrencyETags.versionOf(ifMatch.trim());
+            if (version == null) {
+                log.debug("HttpStatus.PRECONDITION_FAILED, not a record ETag");
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        if (currencyWriteBehindBuffer != null && currencyWriteBehindBuffer.get(ticker).isPresent()) {
+            // the buffered update would otherwise overwrite the patched fields when it is written
+            currencyWriteBehindBuffer.flush(ticker);
+        }
+
+        long fillToken = currencyCache.fillToken();
+        Optional<Currency> patched = currencyRepository.updateFields(ticker, version, patch);
+        if (patched.isEmpty()) {
+            if (version != null && currencyRepository.existsById(ticker)) {
+                currencyCache.invalidate(ticker);
+                log.debug("HttpStatus.PRECONDITION_FAILED");
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+            log.debug("HttpStatus.NOT_FOUND");
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        Currency savedCurrency = patched.get();
+        currencyChangePublisher.updated(savedCurrency);
+        currencyCache.putIfNotInvalidated(savedCurrency, fillToken);
+        log.debug("HttpStatus.OK, returned {}", savedCurrency);
+        return ResponseEntity.ok().eTag(CurrencyETags.of(savedCurrency, CurrencyETags.representationOf(accept)))
+                .varyBy(CurrencyETags.VARY).body(savedCurrency);
+    }
+
+    private ResponseEntity<Currency> bufferUpdate(Currency currency) {
+        String ticker = currency.getTicker();
+        boolean exists = currencyWriteBehindBuffer.get(ticker).isPresent()
+                || currencyCache.get(ticker).isPresent()
+                || currencyRepository.existsById(ticker);
+        if (!exists) {
+            log.debug("HttpStatus.NOT_FOUND");
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        currencyWriteBehindBuffer.put(currency);
+        currencyCache.invalidate(ticker);
+        log.debug("HttpStatus.ACCEPTED, buffered {}", currency);
+        return new ResponseEntity<>(currency, HttpStatus.ACCEPTED);
     }
 
     /**
@@ -100,13 +413,18 @@ public class CurrencyController {
      */
     @DeleteMapping("/currencies/{ticker}")
     public ResponseEntity<HttpStatus> deleteCurrency(@PathVariable("ticker") String ticker) {
-        log.info("Delete: /currencies/" + ticker);
+        log.debug("Delete: /currencies/{}", ticker);
         try {
+            if (currencyWriteBehindBuffer != null) {
+                currencyWriteBehindBuffer.discard(ticker);
+            }
             currencyRepository.deleteById(ticker);
-            log.info("HttpStatus.NO_CONTENT");
+            currencyCache.invalidate(ticker);
+            currencyChangePublisher.deleted(ticker);
+            log.debug("HttpStatus.NO_CONTENT");
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
-            log.info("HttpStatus.INTERNAL_SERVER_ERROR");
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -117,74 +435,366 @@ public class CurrencyController {
      * @param size The size of the pages, default 3
      * @param sort The values of the record the record will be sorted by, default ticker
      * @param sortDirection The sorting direction of the sort, "desc" for descending, any other value for ascending
-     * @return A map with the requested list of records and paging info if paging was requested
+     * @param after Requests cursor paging instead of page numbers: empty for the first page,
+     *              the nextCursor of the previous page for the following pages
+     * @param count Whether the total number of records should be counted when cursor paging, default false
+     * @param webRequest The request, whose If-None-Match header is compared with the ETag of the current generation
+     * @return A listing with the requested list of records and paging info if paging was requested,
+     * HttpStatus.NOT_MODIFIED without reading the records if no record changed since the listing matching If-None-Match,
+     * HttpStatus.BAD_REQUEST if sort holds a property that can not be sorted on or after is not a cursor for the requested sort
      */
     @GetMapping("/currencies")
-    public ResponseEntity<Map<String, Object>> getAllCurrencies(
+    public ResponseEntity<CurrencyListing> getAllCurrencies(
             @RequestParam(defaultValue = "-1") int page, // -1 to signal that no paging is asked
             @RequestParam(defaultValue = "3") int size,
             @RequestParam(defaultValue = "ticker") String[] sort,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
-        StringBuilder logText = new StringBuilder("Get: /currencies");
-        if(page >= 0){
-            logText.append(" page ").append(page).append(" size").append(size);
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String after, // null to signal that no cursor paging is asked
+            @RequestParam(defaultValue = "false") boolean count,
+            WebRequest webRequest) {
+        if(log.isDebugEnabled()){
+            StringBuilder logText = new StringBuilder("Get: /currencies");
+            if(after != null){
+                logText.append(" after ").append(after).append(" size").append(size);
+            }else if(page >= 0){
+                logText.append(" page ").append(page).append(" size").append(size);
+            }
+            logText.append(" sort ").append(Arrays.toString(sort));
+            logText.append(" sortDirection ").append(sortDirection);
+            log.debug(logText.toString());
+        }
+
+        String eTag = CurrencyETags.ofListing(currencyChangeGeneration,
+                CurrencyETags.representationOf(webRequest.getHeader(HttpHeaders.ACCEPT)));
+        if (webRequest.checkNotModified(eTag)) {
+            log.debug("HttpStatus.NOT_MODIFIED");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(CurrencyETags.VARY).build();
         }
-        logText.append(" sort ").append(Arrays.toString(sort));
-        logText.append(" sortDirection ").append(sortDirection);
-        log.info(logText.toString());
 
         try {
-            // retrieve make orders for sortiing
-            List<Sort.Order> orders = new ArrayList<>();
-            Sort.Direction orderSortDirection = getSortDirection(sortDirection);
-            for(String sortField : sort){
-                orders.add(new Sort.Order(orderSortDirection, sortField));
-            }
+            Sort sortOrders = currencySortPlanner.plan(sort, sortDirection);
+
+            List<Currency> currencies;
+            CurrencyListing response;
+            if(after != null){ // cursor paging is requested
+                if(size < 1){
+                    throw new IllegalArgumentException("size must be at least 1");
+                }
+                List<Object> afterValues = after.isEmpty() ? null : CurrencyCursor.decode(sortOrders, after);
+
+                // retrieve one extra record to know whether there is a next page
+                List<Currency> pageOfCurrencies = currencyRepository.findAllAfter(sortOrders, afterValues, size + 1);
+                currencies = pageOfCurrencies.subList(0, Math.min(size, pageOfCurrencies.size()));
+
+                String nextCursor = null;
+                if(pageOfCurrencies.size() > size){
+                    nextCursor = CurrencyCursor.encode(sortOrders, currencies.get(size - 1));
+                }
+                response = CurrencyListing.ofCursor(currencies, nextCursor, count ? currencyRepository.count() : null);
 
-            List<Currency> currencies = new ArrayList<>();
-            Map<String, Object> response = new HashMap<>();
-            if(page >= 0){ // paging is requested
+            }else if(page >= 0){ // paging is requested
                 // get list of records for requested page
-                Pageable pagingSort = PageRequest.of(page, size, Sort.by(orders));
+                Pageable pagingSort = PageRequest.of(page, size, sortOrders);
                 Page<Currency> pageOfCurrencies = currencyRepository.findAll(pagingSort);
-                currencies.addAll(pageOfCurrencies.getContent());
+                currencies = pageOfCurrencies.getContent();
 
                 // add list of records and paging information to the response
-                response.put("currencies", currencies);
-                response.put("currentPage", pageOfCurrencies.getNumber());
-                response.put("totalItems", pageOfCurrencies.getTotalElements());
-                response.put("totalPages", pageOfCurrencies.getTotalPages());
+                response = CurrencyListing.ofPage(pageOfCurrencies);
 
             }else{ // no paging is requested
-                currencies.addAll(currencyRepository.findAll(Sort.by(orders)));
+                currencies = currencyRepository.findAll(sortOrders);
                 // add only list of records to the response
-                response.put("currencies", currencies);
+                response = CurrencyListing.of(currencies);
             }
 
             if (currencies.isEmpty()) {
-                log.info("HttpStatus.NO_CONTENT");
+                log.debug("HttpStatus.NO_CONTENT");
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
 
-            log.info("HttpStatus.OK, returned " + response);
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            log.debug("HttpStatus.OK, returned {} records", currencies.size());
+            return ResponseEntity.ok().eTag(eTag).varyBy(CurrencyETags.VARY).body(response);
 
 
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            log.info("HttpStatus.INTERNAL_SERVER_ERROR");
+            log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    private Sort.Direction getSortDirection(String direction) {
-        if (direction.equals("asc")) {
-            return Sort.Direction.ASC;
-        } else if (direction.equals("desc")) {
-            return Sort.Direction.DESC;
+    /**
+     * Streams all records as newline delimited JSON, one record per line.
+     * Records are written while they are read from the data base, so the list of records is never held in memory.
+     * @param sort The values of the record the record will be sorted by, default ticker
+     * @param sortDirection The sorting direction of the sort, "desc" for descending, any other value for ascending
+     * @param response The response the records are written to, HttpStatus.BAD_REQUEST if sort holds a property
+     *                 that can not be sorted on
+     * @throws IOException when writing to the response fails
+     */
+    @GetMapping(value = "/currencies/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllCurrencies(
+            @RequestParam(defaultValue = "ticker") String[] sort,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            HttpServletResponse response) throws IOException {
+        log.debug("Get: /currencies/stream sort {} sortDirection {}", Arrays.asList(sort), sortDirection);
+        Sort sortOrders;
+        try {
+            sortOrders = currencySortPlanner.plan(sort, sortDirection);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        long count = currencyExportService.writeNdjson(sortOrders, response.getOutputStream());
+        log.debug("HttpStatus.OK, streamed {} records", count);
+    }
+
+    /**
+     * Streams the history of a record as newline delimited JSON, one snapshot per line, oldest first.
+     * A snapshot is recorded every time the record is created or updated.
+     * @param ticker The ticker of the record
+     * @param from The start of the requested time range in milliseconds since the epoch, inclusive, default 0
+     * @param to The end of the requested time range in milliseconds since the epoch, exclusive, default no end
+     * @param response The response the snapshots are written to, HttpStatus.BAD_REQUEST if from is after to
+     * @throws IOException when writing to the response fails
+     */
+    @GetMapping(value = "/currencies/{ticker}/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void getCurrencyHistory(
+            @PathVariable("ticker") String ticker,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            HttpServletResponse response) throws IOException {
+        log.debug("Get: /currencies/{}/history from {} to {}", ticker, from, to);
+        if (from > to) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        long count = currencyExportService.writeHistoryNdjson(ticker, from, to, response.getOutputStream());
+        log.debug("HttpStatus.OK, streamed {} snapshots", count);
+    }
+
+    /**
+     * Retrieves the open, high, low and close market cap of a record per bucket of an interval
+     * @param ticker The ticker of the record
+     * @param interval The interval of the buckets: 1m, 1h or 1d
+     * @param from The start of the requested time range in milliseconds since the epoch, inclusive, default 0
+     * @param to The end of the requested time range in milliseconds since the epoch, exclusive, default no end
+     * @return The buckets starting in the time range, oldest first, HttpStatus.NO_CONTENT if there are none,
+     * HttpStatus.BAD_REQUEST if the interval is unknown or from is after to
+     */
+    @GetMapping("/currencies/{ticker}/ohlc")
+    public ResponseEntity<List<CurrencyRollup>> getCurrencyOhlc(
+            @PathVariable("ticker") String ticker,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to) {
+        log.debug("Get: /currencies/{}/ohlc interval {} from {} to {}", ticker, interval, from, to);
+        RollupInterval rollupInterval;
+        try {
+            rollupInterval = RollupInterval.fromCode(interval);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (from > to) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<CurrencyRollup> buckets = currencyRollupService.getBuckets(ticker, rollupInterval, from, to);
+        if (buckets.isEmpty()) {
+            log.debug("HttpStatus.NO_CONTENT");
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        log.debug("HttpStatus.OK, returned {} buckets", buckets.size());
+        return new ResponseEntity<>(buckets, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the aggregates over all records from memory, without querying the data base
+     * @param shares Whether the share of the total market cap of every record should be included, default false
+     * @return The number of records, the total and mean market cap, the median market cap and the total number of coins,
+     * with the share per ticker if requested
+     */
+    @GetMapping("/currencies/stats")
+    public ResponseEntity<MarketStats> getMarketStats(@RequestParam(defaultValue = "false") boolean shares) {
+        log.debug("Get: /currencies/stats shares {}", shares);
+        MarketStats stats = shares ? currencyAggregates.getStatsWithShares() : currencyAggregates.getStats();
+        log.debug("HttpStatus.OK, aggregated {} records", stats.getCount());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    /**
+     * Aggregates the records within ranges of market cap and number of coins from the in-memory columns, without
+     * querying the data base; all bounds are inclusive and optional
+     * @param minMarketCap The lowest market cap
+     * @param maxMarketCap The highest market cap
+     * @param minNumberOfCoins The lowest number of coins
+     * @param maxNumberOfCoins The highest number of coins
+     * @param tickers The maximum number of tickers of matching records to include, 0 to 100, default 0
+     * @return The number of matching records, the totals and mean of their market caps, the total of their numbers of
+     * coins, the lowest and highest market cap and the tickers if requested,
+     * HttpStatus.BAD_REQUEST if a minimum is above its maximum or tickers is out of range
+     */
+    @GetMapping("/currencies/analytics")
+    public ResponseEntity<MarketScan> getMarketScan(
+            @RequestParam(defaultValue = "" + Long.MIN_VALUE) long minMarketCap,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long maxMarketCap,
+            @RequestParam(defaultValue = "" + Long.MIN_VALUE) long minNumberOfCoins,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long maxNumberOfCoins,
+            @RequestParam(defaultValue = "0") int tickers) {
+        ColumnFilter filter = new ColumnFilter(minMarketCap, maxMarketCap, minNumberOfCoins, maxNumberOfCoins);
+        log.debug("Get: /currencies/analytics {} tickers {}", filter, tickers);
+        if (minMarketCap > maxMarketCap || minNumberOfCoins > maxNumberOfCoins
+                || tickers < 0 || tickers > CurrencyResponses.MAX_RESULTS) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        MarketScan scan = currencyColumns.scan(filter);
+        if (tickers > 0) {
+            scan = scan.withTickers(currencyColumns.tickers(filter, tickers));
+        }
+        log.debug("HttpStatus.OK, {} matching records", scan.getCount());
+        return new ResponseEntity<>(scan, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the highest ranked records from memory, without querying the data base
+     * @param by The property to rank by, marketCap or numberOfCoins, default marketCap
+     * @param n The maximum number of records, 1 to 100, default 10
+     * @return The n highest ranked records, highest first and by ticker for equal values,
+     * HttpStatus.BAD_REQUEST if the records can not be ranked by the property or n is out of range
+     */
+    @GetMapping("/currencies/top")
+    public ResponseEntity<CurrencyListing> getTopCurrencies(
+            @RequestParam(defaultValue = "marketCap") String by,
+            @RequestParam(defaultValue = "10") int n) {
+        log.debug("Get: /currencies/top by {} n {}", by, n);
+        RankedBy rankedBy;
+        try {
+            rankedBy = RankedBy.fromProperty(by);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (n < 1 || n > CurrencyResponses.MAX_RESULTS) {
+            log.debug("HttpStatus.BAD_REQUEST, n {} out of range", n);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Currency> top = currencyLeaderboard.top(rankedBy, n);
+        log.debug("HttpStatus.OK, returned {} records", top.size());
+        return new ResponseEntity<>(CurrencyListing.of(top), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the rank of a specific record from memory, without querying the data base
+     * @param ticker The ticker of the record
+     * @param by The property to rank by, marketCap or numberOfCoins, default marketCap
+     * @return The ticker, the property, the rank, 1 for the highest, and the number of ranked records,
+     * HttpStatus.NOT_FOUND if there is no record for the ticker,
+     * HttpStatus.BAD_REQUEST if the records can not be ranked by the property
+     */
+    @GetMapping("/currencies/{ticker}/rank")
+    public ResponseEntity<Map<String, Object>> getCurrencyRank(
+            @PathVariable("ticker") String ticker,
+            @RequestParam(defaultValue = "marketCap") String by) {
+        log.debug("Get: /currencies/{}/rank by {}", ticker, by);
+        RankedBy rankedBy;
+        try {
+            rankedBy = RankedBy.fromProperty(by);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        OptionalInt rank = currencyLeaderboard.rank(rankedBy, ticker);
+        if (rank.isEmpty()) {
+            log.debug("HttpStatus.NOT_FOUND");
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        log.debug("HttpStatus.OK, rank {}", rank.getAsInt());
+        return new ResponseEntity<>(CurrencyResponses.rank(ticker, rankedBy, rank.getAsInt(), currencyLeaderboard.size()), HttpStatus.OK);
+    }
+
+    /**
+     * Searches the records by ticker, name and the words of the name from memory, without querying the data base
+     * @param q The text to search, case is ignored
+     * @param limit The maximum number of records, 1 to 100, default 10
+     * @param fuzzy Whether records within a few typing errors of q match too, default false
+     * @return The matching records, best match first, HttpStatus.BAD_REQUEST if q is blank or limit is out of range
+     */
+    @GetMapping("/currencies/search")
+    public ResponseEntity<CurrencyListing> searchCurrencies(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        log.debug("Get: /currencies/search q {} limit {} fuzzy {}", q, limit, fuzzy);
+        if (q.isBlank() || limit < 1 || limit > CurrencyResponses.MAX_RESULTS) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return Sort.Direction.ASC;
+        List<Currency> found = currencySearchIndex.search(q, limit, fuzzy);
+        log.debug("HttpStatus.OK, returned {} records", found.size());
+        return new ResponseEntity<>(CurrencyListing.of(found), HttpStatus.OK);
     }
 
+    /**
+     * Streams the committed creates, updates and deletes as server-sent events named created, updated and deleted,
+     * with the change as data. A client that reads slower than records change receives only the latest change per
+     * ticker; one that falls too far behind receives a reset event, after which it has to read the records again.
+     * @param from The id of the last change received, to resume after it
+     * @param lastEventId The id of the last change received, sent by a reconnecting client, used if from is absent
+     * @return the changes, ending with a reset event if the client falls behind or can not resume; its id is where to
+     * resume once the records are read again, HttpStatus.BAD_REQUEST if from is not the id of a change
+     */
+    @GetMapping(value = "/currencies/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> getCurrencyChanges(
+            @RequestParam(required = false) String from,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        String resumeAfter = from != null ? from : lastEventId;
+        log.debug("Get: /currencies/changes from {}", resumeAfter);
+        Flux<CurrencyChange> changes;
+        try {
+            changes = currencyChangeFeed.subscribe(resumeAfter);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(CurrencyResponses.changeEvents(currencyChangeFeed, changes,
+                Duration.ofMillis(heartbeatMillis)), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the counters of the ticker cache, so the cache can be sized
+     * @return A map with the hit, miss and eviction counts, the hit ratio and the number of cached records
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.debug("Get: /cache/stats");
+        return new ResponseEntity<>(CurrencyResponses.cacheStats(currencyCache.stats()), HttpStatus.OK);
+    }
 
+    private List<Currency> buildAll(List<Currency.Builder> builders) {
+        List<Currency> currencies = new ArrayList<>(builders.size());
+        for (Currency.Builder builder : builders) {
+            currencies.add(builder.build());
+        }
+        return currencies;
+    }
 
+    private ResponseEntity<Map<String, Object>> batchResponse(List<BatchItemResult> results) {
+        Map<String, Object> response = CurrencyResponses.batch(results, currencyCache);
+        log.debug("HttpStatus.OK, {} created, {} updated, {} conflicts, {} invalid",
+                response.get("created"), response.get("updated"), response.get("conflicts"), response.get("invalid"));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
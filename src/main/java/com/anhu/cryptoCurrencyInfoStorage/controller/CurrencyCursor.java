@@ -0,0 +1,86 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * CurrencyCursor encodes the position of a record in a sort order as an opaque token for keyset pagination.
+ * The token holds the sort properties and directions and the values of the record for these properties,
+ * so a token can only be used with the sort it was created for.
+ */
+public final class CurrencyCursor {
+
+    private static final byte STRING_VALUE = 's';
+    private static final byte LONG_VALUE = 'l';
+
+    private CurrencyCursor() {
+    }
+
+    /**
+     * @param sort The sort the token is created for
+     * @param last The last record of a page
+     * @return a url safe token for the position of last in sort
+     */
+    public static String encode(Sort sort, Currency last) {
+        BeanWrapper record = new BeanWrapperImpl(last);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            List<Sort.Order> orders = sort.toList();
+            out.writeByte(orders.size());
+            for (Sort.Order order : orders) {
+                out.writeUTF(order.getProperty());
+                out.writeBoolean(order.isAscending());
+                Object value = record.getPropertyValue(order.getProperty());
+                if (value instanceof Number) {
+                    out.writeByte(LONG_VALUE);
+                    out.writeLong(((Number) value).longValue());
+                } else {
+                    out.writeByte(STRING_VALUE);
+                    out.writeUTF(String.valueOf(value));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @param sort The sort the token is used with
+     * @param token A token created by encode
+     * @return the values of the sort properties of the record the token was created for
+     * @throws IllegalArgumentException when the token is malformed or was created for another sort
+     */
+    public static List<Object> decode(Sort sort, String token) {
+        List<Sort.Order> orders = sort.toList();
+        List<Object> values = new ArrayList<>(orders.size());
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != orders.size()) {
+                throw new IllegalArgumentException("cursor does not match sort " + sort);
+            }
+            for (Sort.Order order : orders) {
+                if (!in.readUTF().equals(order.getProperty()) || in.readBoolean() != order.isAscending()) {
+                    throw new IllegalArgumentException("cursor does not match sort " + sort);
+                }
+                byte type = in.readByte();
+                if (type == LONG_VALUE) {
+                    values.add(in.readLong());
+                } else if (type == STRING_VALUE) {
+                    values.add(in.readUTF());
+                } else {
+                    throw new IllegalArgumentException("malformed cursor");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed cursor", e);
+        }
+        return values;
+    }
+}
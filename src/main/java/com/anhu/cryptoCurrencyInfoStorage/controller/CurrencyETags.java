@@ -0,0 +1,129 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyProtobuf;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeGeneration;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CurrencyETags derives the strong entity tags of the responses of the CurrencyController.
+ * A record or listing is served as JSON, Smile, CBOR or Protobuf, each with other bytes, so a strong tag ends in the
+ * representation the content negotiation picks for the Accept header, and the responses vary by Accept and by
+ * Accept-Encoding for the caches in between.
+ */
+final class CurrencyETags {
+
+    /** The request headers the tagged responses vary by. */
+    static final String[] VARY = {HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING};
+
+    /** The representation of a response that is always JSON, and of a request that accepts anything. */
+    static final String JSON = "json";
+
+    /** The tag suffix per media type, in the order of the message converters. */
+    private static final Map<MediaType, String> REPRESENTATIONS = new LinkedHashMap<>();
+
+    static {
+        REPRESENTATIONS.put(MediaType.APPLICATION_JSON, JSON);
+        REPRESENTATIONS.put(CurrencyProtobuf.APPLICATION_PROTOBUF, "protobuf");
+        REPRESENTATIONS.put(new MediaType("application", "x-jackson-smile"), "smile");
+        REPRESENTATIONS.put(MediaType.APPLICATION_CBOR, "cbor");
+    }
+
+    private CurrencyETags() {
+    }
+
+    /**
+     * The version changes with every update of the record, the hash tells apart a deleted record and a record
+     * created later with the same ticker, which both start at version 0.
+     * @param currency The record
+     * @param representation The representation of the response, see representationOf
+     * @return the entity tag of the record
+     */
+    static String of(Currency currency, String representation) {
+        return "\"" + currency.getVersion() + "-" + Integer.toHexString(currency.hashCode()) + "-" + representation + "\"";
+    }
+
+    /**
+     * @param generation The change generation
+     * @param representation The representation of the response, see representationOf
+     * @return the entity tag of every listing read during the current generation
+     */
+    static String ofListing(CurrencyChangeGeneration generation, String representation) {
+        return "\"" + Long.toHexString(generation.getStartedAt()) + "-" + generation.current() + "-" + representation + "\"";
+    }
+
+    /**
+     * @param accept The value of the Accept header, null if there is none
+     * @return the representation the content negotiation picks for the header, JSON if it is not valid
+     */
+    static String representationOf(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        try {
+            return representationOf(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+    }
+
+    /**
+     * @param accept The media types of the Accept header
+     * @return the representation of the most preferred media type that can be served, JSON if none can
+     */
+    static String representationOf(List<MediaType> accept) {
+        List<MediaType> preferred = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(preferred);
+        for (MediaType accepted : preferred) {
+            for (Map.Entry<MediaType, String> representation : REPRESENTATIONS.entrySet()) {
+                if (accepted.isCompatibleWith(representation.getKey())) {
+                    return representation.getValue();
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * @param eTag An entity tag sent by a client, like the value of If-Match
+     * @return the version of the record the entity tag was derived from, of any representation, null if the entity
+     * tag is not a record tag
+     */
+    static Long versionOf(String eTag) {
+        if (eTag.startsWith("W/")) {
+            return null; // a weak tag never matches strongly
+        }
+        int dash = eTag.indexOf('-');
+        if (eTag.length() < 3 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"' || dash < 2) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eTag.substring(1, dash));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compares with the weak comparison If-None-Match asks for, for handlers without WebRequest.checkNotModified
+     * @param ifNoneMatch The entity tags of the If-None-Match header
+     * @param eTag The entity tag of the current representation
+     * @return whether one of the entity tags matches
+     */
+    static boolean matchesAny(List<String> ifNoneMatch, String eTag) {
+        String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || (candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
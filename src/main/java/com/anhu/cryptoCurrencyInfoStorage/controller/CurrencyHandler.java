@@ -0,0 +1,684 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChange;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeFeed;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeGeneration;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangePublisher;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyPatch;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencySnapshot;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketScan;
+import com.anhu.cryptoCurrencyInfoStorage.model.RollupInterval;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencySortPlanner;
+import com.anhu.cryptoCurrencyInfoStorage.repository.ReactiveCurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyBatchService;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyImportService;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyRollupService;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportFormat;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportProgress;
+import com.anhu.cryptoCurrencyInfoStorage.view.ColumnFilter;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyAggregates;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyColumns;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyLeaderboard;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencySearchIndex;
+import com.anhu.cryptoCurrencyInfoStorage.view.RankedBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.Callable;
+
+/**
+ * The CurrencyHandler serves the API of the CurrencyController without blocking, for the reactive profile.
+ * Records are read and written through the ReactiveCurrencyRepository. Work that can only be done blocking, like the
+ * batch writes and the listeners of the change events, is moved to the bounded elastic scheduler, so it never holds
+ * up an event loop thread.
+ */
+@Component
+@Profile("reactive")
+public class CurrencyHandler {
+
+    @Autowired
+    ReactiveCurrencyRepository reactiveCurrencyRepository;
+
+    @Autowired
+    CurrencySortPlanner currencySortPlanner;
+
+    @Autowired
+    CurrencyCache currencyCache;
+
+    @Autowired
+    CurrencyChangePublisher currencyChangePublisher;
+
+    @Autowired
+    CurrencyChangeGeneration currencyChangeGeneration;
+
+    @Autowired
+    CurrencyChangeFeed currencyChangeFeed;
+
+    @Value("${currency.changes.heartbeat-millis:15000}")
+    long heartbeatMillis;
+
+    @Autowired
+    CurrencyBatchService currencyBatchService;
+
+    @Autowired
+    CurrencyImportService currencyImportService;
+
+    @Autowired
+    CurrencyRollupService currencyRollupService;
+
+    @Autowired
+    CurrencyAggregates currencyAggregates;
+
+    @Autowired
+    CurrencyLeaderboard currencyLeaderboard;
+
+    @Autowired
+    CurrencySearchIndex currencySearchIndex;
+
+    @Autowired
+    CurrencyColumns currencyColumns;
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    /** The number of bytes of the body of an import that can wait for the import to read them. */
+    private static final int IMPORT_PIPE_SIZE = 1 << 16;
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyHandler.class);
+
+    /**
+     * Retrieves a specific record, see CurrencyController.getCurrencyByTicker
+     */
+    public Mono<ServerResponse> getCurrencyByTicker(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        log.debug("Get: /currencies/{}", ticker);
+        Mono<Currency> currencyData = Mono.defer(() -> Mono.justOrEmpty(currencyCache.get(ticker)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    long fillToken = currencyCache.fillToken();
+                    return reactiveCurrencyRepository.findById(ticker)
+                            .doOnNext(currency -> currencyCache.putIfNotInvalidated(currency, fillToken));
+                }));
+        return currencyData
+                .flatMap(currency -> {
+                    // always served as JSON, so only the encoding varies
+                    String eTag = CurrencyETags.of(currency, CurrencyETags.JSON);
+                    if (CurrencyETags.matchesAny(request.headers().asHttpHeaders().getIfNoneMatch(), eTag)) {
+                        log.debug("HttpStatus.NOT_MODIFIED");
+                        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+                    }
+                    log.debug("HttpStatus.OK, returned {}", currency);
+                    return ServerResponse.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                            .contentType(MediaType.APPLICATION_JSON).bodyValue(currency);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.debug("HttpStatus.NOT_FOUND");
+                    return ServerResponse.notFound().build();
+                }));
+    }
+
+    /**
+     * Create a new record with a single INSERT statement, see CurrencyController.createCurrency
+     */
+    public Mono<ServerResponse> createCurrency(ServerRequest request) {
+        return request.bodyToMono(Currency.Builder.class)
+                .map(Currency.Builder::build)
+                .flatMap(currency -> {
+                    log.debug("Post: /currencies :{}", currency);
+                    // taken before the write, so a delete committed after it keeps the record out of the cache
+                    long fillToken = currencyCache.fillToken();
+                    return reactiveCurrencyRepository.insert(currency)
+                            .doOnNext(savedCurrency -> currencyCache.putIfNotInvalidated(savedCurrency, fillToken));
+                })
+                .flatMap(savedCurrency -> offload(() -> {
+                    currencyChangePublisher.created(savedCurrency);
+                    return savedCurrency;
+                }))
+                .flatMap(savedCurrency -> {
+                    log.debug("HttpStatus.CREATED, returned {}", savedCurrency);
+                    return ServerResponse.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_JSON).bodyValue(savedCurrency);
+                })
+                .onErrorResume(DuplicateKeyException.class, e -> {
+                    log.debug("HttpStatus.CONFLICT");
+                    return ServerResponse.status(HttpStatus.CONFLICT).build();
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Creates a list of records in a single transaction, see CurrencyController.createCurrencies
+     */
+    public Mono<ServerResponse> createCurrencies(ServerRequest request) {
+        return writeBatch(request, false);
+    }
+
+    /**
+     * Creates or updates a list of records in a single transaction, see CurrencyController.upsertCurrencies
+     */
+    public Mono<ServerResponse> upsertCurrencies(ServerRequest request) {
+        return writeBatch(request, true);
+    }
+
+    /**
+     * Creates or updates the records of a file while it arrives, see CurrencyController.importCurrencies.
+     * The body is copied into a pipe on the bounded elastic scheduler and the import reads the other end, so neither
+     * the body nor the blocking pipeline is held on an event loop thread.
+     */
+    public Mono<ServerResponse> importCurrencies(ServerRequest request) {
+        String contentType = request.headers().firstHeader(HttpHeaders.CONTENT_TYPE);
+        log.debug("Post: /currencies/import : {}", contentType);
+        ImportFormat format;
+        try {
+            format = ImportFormat.fromContentType(String.valueOf(contentType));
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.UNSUPPORTED_MEDIA_TYPE, {}", e.getMessage());
+            return ServerResponse.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        PipedOutputStream body = new PipedOutputStream();
+        PipedInputStream input;
+        try {
+            input = new PipedInputStream(body, IMPORT_PIPE_SIZE);
+        } catch (IOException e) {
+            return internalServerError(e);
+        }
+        DataBufferUtils.write(request.body(BodyExtractors.toDataBuffers()).publishOn(Schedulers.boundedElastic()), body)
+                .map(DataBufferUtils::release)
+                .doFinally(signal -> closeQuietly(body))
+                .subscribe(null, e -> log.debug("Import body not fully read, {}", e.getMessage()));
+        return offload(() -> currencyImportService.importCurrencies(input, format))
+                .doFinally(signal -> closeQuietly(input))
+                .flatMap(report -> {
+                    if (report.getState() == ImportProgress.State.FAILED) {
+                        log.warn("HttpStatus.INTERNAL_SERVER_ERROR, returned {}", report);
+                        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .contentType(MediaType.APPLICATION_JSON).bodyValue(report);
+                    }
+                    log.debug("HttpStatus.OK, returned {}", report);
+                    return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(report);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+                    return ServerResponse.badRequest().build();
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Retrieves the progress of the imports that are running, see CurrencyController.getRunningImports
+     */
+    public Mono<ServerResponse> getRunningImports(ServerRequest request) {
+        log.debug("Get: /currencies/imports");
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(currencyImportService.getRunningImports());
+    }
+
+    /**
+     * Updates a specific record with a single UPDATE statement, see CurrencyController.updateCurrency
+     */
+    public Mono<ServerResponse> updateCurrency(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = CurrencyETags.versionOf(ifMatch.trim());
+            if (version == null) {
+                log.debug("HttpStatus.PRECONDITION_FAILED, not a record ETag");
+                return ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        Long expectedVersion = version;
+        return request.bodyToMono(Currency.Builder.class)
+                .map(builder -> builder.ticker(ticker).build())
+                .flatMap(currency -> {
+                    log.debug("Put: /currencies/{} :{} If-Match {}", ticker, currency, ifMatch);
+                    long fillToken = currencyCache.fillToken();
+                    return reactiveCurrencyRepository.replaceValues(currency, expectedVersion)
+                            .flatMap(savedCurrency -> updated(savedCurrency, fillToken))
+                            .switchIfEmpty(Mono.defer(() -> notUpdated(ticker, expectedVersion)));
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Updates only the given fields of a specific record, see CurrencyController.patchCurrency
+     */
+    public Mono<ServerResponse> patchCurrency(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = CurrencyETags.versionOf(ifMatch.trim());
+            if (version == null) {
+                log.debug("HttpStatus.PRECONDITION_FAILED, not a record ETag");
+                return ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        Long expectedVersion = version;
+        return request.bodyToMono(CurrencyPatch.class)
+                .flatMap(patch -> {
+                    log.debug("Patch: /currencies/{} :{} If-Match {}", ticker, patch, ifMatch);
+                    patch.validate(ticker);
+                    long fillToken = currencyCache.fillToken();
+                    return reactiveCurrencyRepository.updateFields(ticker, expectedVersion, patch)
+                            .flatMap(savedCurrency -> updated(savedCurrency, fillToken))
+                            .switchIfEmpty(Mono.defer(() -> notUpdated(ticker, expectedVersion)));
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+                    return ServerResponse.badRequest().build();
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Deletes a specific record, see CurrencyController.deleteCurrency
+     */
+    public Mono<ServerResponse> deleteCurrency(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        log.debug("Delete: /currencies/{}", ticker);
+        return reactiveCurrencyRepository.deleteById(ticker)
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        return Mono.error(new IllegalStateException("no record with ticker " + ticker));
+                    }
+                    currencyCache.invalidate(ticker);
+                    return offload(() -> {
+                        currencyChangePublisher.deleted(ticker);
+                        return ticker;
+                    });
+                })
+                .flatMap(deleted -> {
+                    log.debug("HttpStatus.NO_CONTENT");
+                    return ServerResponse.noContent().build();
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Retrieves a list of records, see CurrencyController.getAllCurrencies for the parameters
+     */
+    public Mono<ServerResponse> getAllCurrencies(ServerRequest request) {
+        String eTag = CurrencyETags.ofListing(currencyChangeGeneration, CurrencyETags.JSON);
+        if (CurrencyETags.matchesAny(request.headers().asHttpHeaders().getIfNoneMatch(), eTag)) {
+            log.debug("HttpStatus.NOT_MODIFIED");
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+
+        Mono<CurrencyListing> listing;
+        try {
+            int page = Integer.parseInt(request.queryParam("page").orElse("-1")); // -1 to signal that no paging is asked
+            int size = Integer.parseInt(request.queryParam("size").orElse("3"));
+            String after = request.queryParam("after").orElse(null); // null to signal that no cursor paging is asked
+            boolean count = Boolean.parseBoolean(request.queryParam("count").orElse("false"));
+            String sortDirection = request.queryParam("sortDirection").orElse("asc");
+            String[] sort = sortParameter(request);
+            log.debug("Get: /currencies page {} after {} size {} sort {} sortDirection {}",
+                    page, after, size, Arrays.asList(sort), sortDirection);
+
+            Sort sortOrders = currencySortPlanner.plan(sort, sortDirection);
+            if (after != null) { // cursor paging is requested
+                listing = cursorPage(sortOrders, after, size, count);
+            } else if (page >= 0) { // paging is requested
+                PageRequest pageRequest = PageRequest.of(page, size, sortOrders);
+                listing = reactiveCurrencyRepository.findAll(sortOrders, pageRequest.getOffset(), size).collectList()
+                        .zipWith(reactiveCurrencyRepository.count())
+                        .map(result -> CurrencyListing.ofPage(new PageImpl<>(result.getT1(), pageRequest, result.getT2())));
+            } else { // no paging is requested
+                listing = reactiveCurrencyRepository.findAll(sortOrders, 0, 0).collectList().map(CurrencyListing::of);
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+
+        return listing
+                .flatMap(response -> {
+                    if (response.getCurrencies().isEmpty()) {
+                        log.debug("HttpStatus.NO_CONTENT");
+                        return ServerResponse.noContent().build();
+                    }
+                    log.debug("HttpStatus.OK, returned {} records", response.getCurrencies().size());
+                    return ServerResponse.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                            .contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+                    return ServerResponse.badRequest().build();
+                })
+                .onErrorResume(this::internalServerError);
+    }
+
+    /**
+     * Streams all records as newline delimited JSON, one record per line, see CurrencyController.streamAllCurrencies.
+     * Rows are fetched as the client reads them, so a slow client slows down the query instead of filling memory.
+     */
+    public Mono<ServerResponse> streamAllCurrencies(ServerRequest request) {
+        Sort sortOrders;
+        try {
+            sortOrders = currencySortPlanner.plan(sortParameter(request), request.queryParam("sortDirection").orElse("asc"));
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/stream sort {}", sortOrders);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveCurrencyRepository.findAll(sortOrders, 0, 0), Currency.class);
+    }
+
+    /**
+     * Streams the history of a record as newline delimited JSON, see CurrencyController.getCurrencyHistory
+     */
+    public Mono<ServerResponse> getCurrencyHistory(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        long from;
+        long to;
+        try {
+            from = Long.parseLong(request.queryParam("from").orElse("0"));
+            to = Long.parseLong(request.queryParam("to").orElse(String.valueOf(Long.MAX_VALUE)));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/{}/history from {} to {}", ticker, from, to);
+        if (from > to) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveCurrencyRepository.findSnapshots(ticker, from, to), CurrencySnapshot.class);
+    }
+
+    /**
+     * Retrieves the open, high, low and close market cap of a record per bucket, see CurrencyController.getCurrencyOhlc
+     */
+    public Mono<ServerResponse> getCurrencyOhlc(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        RollupInterval interval;
+        long from;
+        long to;
+        try {
+            interval = RollupInterval.fromCode(request.queryParam("interval").orElse("1h"));
+            from = Long.parseLong(request.queryParam("from").orElse("0"));
+            to = Long.parseLong(request.queryParam("to").orElse(String.valueOf(Long.MAX_VALUE)));
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/{}/ohlc interval {} from {} to {}", ticker, interval, from, to);
+        if (from > to) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return ServerResponse.badRequest().build();
+        }
+        return offload(() -> currencyRollupService.getBuckets(ticker, interval, from, to))
+                .flatMap(buckets -> buckets.isEmpty()
+                        ? ServerResponse.noContent().build()
+                        : ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(buckets));
+    }
+
+    /**
+     * Retrieves the aggregates over all records from memory, see CurrencyController.getMarketStats
+     */
+    public Mono<ServerResponse> getMarketStats(ServerRequest request) {
+        boolean shares = Boolean.parseBoolean(request.queryParam("shares").orElse("false"));
+        log.debug("Get: /currencies/stats shares {}", shares);
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(shares ? currencyAggregates.getStatsWithShares() : currencyAggregates.getStats());
+    }
+
+    /**
+     * Aggregates the records within ranges of market cap and number of coins from memory,
+     * see CurrencyController.getMarketScan
+     */
+    public Mono<ServerResponse> getMarketScan(ServerRequest request) {
+        ColumnFilter filter;
+        int tickers;
+        try {
+            long minMarketCap = Long.parseLong(request.queryParam("minMarketCap").orElse(String.valueOf(Long.MIN_VALUE)));
+            long maxMarketCap = Long.parseLong(request.queryParam("maxMarketCap").orElse(String.valueOf(Long.MAX_VALUE)));
+            long minNumberOfCoins = Long.parseLong(request.queryParam("minNumberOfCoins").orElse(String.valueOf(Long.MIN_VALUE)));
+            long maxNumberOfCoins = Long.parseLong(request.queryParam("maxNumberOfCoins").orElse(String.valueOf(Long.MAX_VALUE)));
+            tickers = Integer.parseInt(request.queryParam("tickers").orElse("0"));
+            if (minMarketCap > maxMarketCap || minNumberOfCoins > maxNumberOfCoins
+                    || tickers < 0 || tickers > CurrencyResponses.MAX_RESULTS) {
+                throw new IllegalArgumentException("a minimum is above its maximum or tickers is out of range");
+            }
+            filter = new ColumnFilter(minMarketCap, maxMarketCap, minNumberOfCoins, maxNumberOfCoins);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/analytics {} tickers {}", filter, tickers);
+        // a scan of a large table keeps a core busy for milliseconds, too long for an event loop thread
+        return offload(() -> {
+            MarketScan scan = currencyColumns.scan(filter);
+            return tickers > 0 ? scan.withTickers(currencyColumns.tickers(filter, tickers)) : scan;
+        }).flatMap(scan -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(scan));
+    }
+
+    /**
+     * Retrieves the highest ranked records from memory, see CurrencyController.getTopCurrencies
+     */
+    public Mono<ServerResponse> getTopCurrencies(ServerRequest request) {
+        RankedBy rankedBy;
+        int n;
+        try {
+            rankedBy = RankedBy.fromProperty(request.queryParam("by").orElse("marketCap"));
+            n = Integer.parseInt(request.queryParam("n").orElse("10"));
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/top by {} n {}", rankedBy.getProperty(), n);
+        if (n < 1 || n > CurrencyResponses.MAX_RESULTS) {
+            log.debug("HttpStatus.BAD_REQUEST, n {} out of range", n);
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CurrencyListing.of(currencyLeaderboard.top(rankedBy, n)));
+    }
+
+    /**
+     * Retrieves the rank of a specific record from memory, see CurrencyController.getCurrencyRank
+     */
+    public Mono<ServerResponse> getCurrencyRank(ServerRequest request) {
+        String ticker = request.pathVariable("ticker");
+        RankedBy rankedBy;
+        try {
+            rankedBy = RankedBy.fromProperty(request.queryParam("by").orElse("marketCap"));
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/{}/rank by {}", ticker, rankedBy.getProperty());
+        OptionalInt rank = currencyLeaderboard.rank(rankedBy, ticker);
+        if (rank.isEmpty()) {
+            log.debug("HttpStatus.NOT_FOUND");
+            return ServerResponse.notFound().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CurrencyResponses.rank(ticker, rankedBy, rank.getAsInt(), currencyLeaderboard.size()));
+    }
+
+    /**
+     * Searches the records by ticker, name and the words of the name from memory, see CurrencyController.searchCurrencies
+     */
+    public Mono<ServerResponse> searchCurrencies(ServerRequest request) {
+        String q = request.queryParam("q").orElse("");
+        boolean fuzzy = Boolean.parseBoolean(request.queryParam("fuzzy").orElse("false"));
+        int limit;
+        try {
+            limit = Integer.parseInt(request.queryParam("limit").orElse("10"));
+        } catch (NumberFormatException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        log.debug("Get: /currencies/search q {} limit {} fuzzy {}", q, limit, fuzzy);
+        if (q.isBlank() || limit < 1 || limit > CurrencyResponses.MAX_RESULTS) {
+            log.debug("HttpStatus.BAD_REQUEST");
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CurrencyListing.of(currencySearchIndex.search(q, limit, fuzzy)));
+    }
+
+    /**
+     * Streams the committed changes as server-sent events, see CurrencyController.getCurrencyChanges
+     */
+    public Mono<ServerResponse> getCurrencyChanges(ServerRequest request) {
+        String resumeAfter = request.queryParam("from").orElse(request.headers().firstHeader(LAST_EVENT_ID));
+        log.debug("Get: /currencies/changes from {}", resumeAfter);
+        Flux<CurrencyChange> changes;
+        try {
+            changes = currencyChangeFeed.subscribe(resumeAfter);
+        } catch (IllegalArgumentException e) {
+            log.debug("HttpStatus.BAD_REQUEST, {}", e.getMessage());
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(CurrencyResponses.changeEvents(currencyChangeFeed, changes,
+                        Duration.ofMillis(heartbeatMillis))));
+    }
+
+    /**
+     * Retrieves the counters of the ticker cache, see CurrencyController.getCacheStats
+     */
+    public Mono<ServerResponse> getCacheStats(ServerRequest request) {
+        log.debug("Get: /cache/stats");
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CurrencyResponses.cacheStats(currencyCache.stats()));
+    }
+
+    private Mono<CurrencyListing> cursorPage(Sort sortOrders, String after, int size, boolean count) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        List<Object> afterValues = after.isEmpty() ? null : CurrencyCursor.decode(sortOrders, after);
+
+        // retrieve one extra record to know whether there is a next page
+        Mono<List<Currency>> pageOfCurrencies = reactiveCurrencyRepository.findAllAfter(sortOrders, afterValues, size + 1).collectList();
+        Mono<Long> totalItems = count ? reactiveCurrencyRepository.count() : Mono.just(-1L);
+        return pageOfCurrencies.zipWith(totalItems).map(result -> {
+            List<Currency> currencies = result.getT1().subList(0, Math.min(size, result.getT1().size()));
+            String nextCursor = null;
+            if (result.getT1().size() > size) {
+                nextCursor = CurrencyCursor.encode(sortOrders, currencies.get(size - 1));
+            }
+            return CurrencyListing.ofCursor(currencies, nextCursor, count ? result.getT2() : null);
+        });
+    }
+
+    private Mono<ServerResponse> writeBatch(ServerRequest request, boolean upsert) {
+        return request.bodyToFlux(Currency.Builder.class)
+                .map(Currency.Builder::build)
+                .collectList()
+                .flatMap(currencies -> {
+                    log.debug("{}: /currencies/batch : {} records", upsert ? "Put" : "Post", currencies.size());
+                    return offload(() -> upsert ? currencyBatchService.upsertAll(currencies) : currencyBatchService.createAll(currencies));
+                })
+                .flatMap(results -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(CurrencyResponses.batch(results, currencyCache)))
+                .onErrorResume(this::internalServerError);
+    }
+
+    private Mono<ServerResponse> notUpdated(String ticker, Long version) {
+        if (version == null) {
+            log.debug("HttpStatus.NOT_FOUND");
+            return ServerResponse.notFound().build();
+        }
+        return reactiveCurrencyRepository.findById(ticker).hasElement().flatMap(exists -> {
+            if (exists) {
+                // the cached copy may be the outdated version the client based its update on
+                currencyCache.invalidate(ticker);
+                log.debug("HttpStatus.PRECONDITION_FAILED");
+                return ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            log.debug("HttpStatus.NOT_FOUND");
+            return ServerResponse.notFound().build();
+        });
+    }
+
+    /**
+     * Publishes an update with the record as committed, with its new version, and answers with the record
+     * @param fillToken The fill token of the cache taken before the update
+     */
+    private Mono<ServerResponse> updated(Currency savedCurrency, long fillToken) {
+        return offload(() -> {
+            currencyChangePublisher.updated(savedCurrency);
+            return savedCurrency;
+        }).flatMap(published -> {
+            currencyCache.putIfNotInvalidated(savedCurrency, fillToken);
+            log.debug("HttpStatus.OK, returned {}", savedCurrency);
+            return ServerResponse.ok().eTag(CurrencyETags.of(savedCurrency, CurrencyETags.JSON))
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING).contentType(MediaType.APPLICATION_JSON).bodyValue(savedCurrency);
+        });
+    }
+
+    private Mono<ServerResponse> internalServerError(Throwable e) {
+        log.warn("HttpStatus.INTERNAL_SERVER_ERROR", e);
+        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Could not close the import pipe, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs blocking work, like JPA calls and the change event listeners, on the bounded elastic scheduler
+     */
+    private static <T> Mono<T> offload(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reads the sort parameter like Spring MVC binds it to a String[]: repeated and comma separated values
+     */
+    private static String[] sortParameter(ServerRequest request) {
+        List<String> values = request.queryParams().get("sort");
+        if (values == null || values.isEmpty()) {
+            return new String[]{"ticker"};
+        }
+        List<String> fields = new ArrayList<>();
+        for (String value : values) {
+            for (String field : value.split(",")) {
+                if (!field.isBlank()) {
+                    fields.add(field.trim());
+                }
+            }
+        }
+        return fields.toArray(new String[0]);
+    }
+}
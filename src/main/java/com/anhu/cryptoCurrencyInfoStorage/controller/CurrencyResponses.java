@@ -0,0 +1,123 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CacheStats;
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.event.ChangeFeedGapException;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChange;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeFeed;
+import com.anhu.cryptoCurrencyInfoStorage.service.BatchItemResult;
+import com.anhu.cryptoCurrencyInfoStorage.service.BatchItemStatus;
+import com.anhu.cryptoCurrencyInfoStorage.view.RankedBy;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CurrencyResponses builds the response bodies shared by the servlet and the reactive currency API.
+ */
+final class CurrencyResponses {
+
+    static final String RESET_EVENT = "reset";
+
+    /**
+     * The maximum number of records of a search or top list and of tickers of a scan, which are built in memory per
+     * request.
+     */
+    static final int MAX_RESULTS = 100;
+
+    private CurrencyResponses() {
+    }
+
+    /**
+     * Summarizes the results of a batch write and invalidates the cached copies of the updated records
+     * @param results The result per record of the batch
+     * @param currencyCache The cache holding copies of the records
+     * @return A map with the number of records per result and per record the result
+     */
+    static Map<String, Object> batch(List<BatchItemResult> results, CurrencyCache currencyCache) {
+        Map<BatchItemStatus, Integer> counts = new EnumMap<>(BatchItemStatus.class);
+        for (BatchItemResult result : results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+            if (result.getStatus() == BatchItemStatus.UPDATED) {
+                currencyCache.invalidate(result.getTicker());
+            }
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("created", counts.getOrDefault(BatchItemStatus.CREATED, 0));
+        response.put("updated", counts.getOrDefault(BatchItemStatus.UPDATED, 0));
+        response.put("conflicts", counts.getOrDefault(BatchItemStatus.CONFLICT, 0));
+        response.put("invalid", counts.getOrDefault(BatchItemStatus.INVALID, 0));
+        response.put("results", results);
+        return response;
+    }
+
+    /**
+     * @param stats The counters of the ticker cache
+     * @return A map with the hit, miss and eviction counts, the hit ratio and the number of cached records
+     */
+    static Map<String, Object> cacheStats(CacheStats stats) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("hits", stats.getHits());
+        response.put("misses", stats.getMisses());
+        response.put("evictions", stats.getEvictions());
+        response.put("hitRatio", stats.getHitRatio());
+        response.put("size", stats.getSize());
+        return response;
+    }
+
+    /**
+     * @param ticker The ticker of the ranked record
+     * @param rankedBy The property the record is ranked by
+     * @param rank The rank of the record, 1 for the highest
+     * @param of The number of ranked records
+     * @return A map with the ticker, the property, the rank and the number of ranked records
+     */
+    static Map<String, Object> rank(String ticker, RankedBy rankedBy, int rank, int of) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("ticker", ticker);
+        response.put("by", rankedBy.getProperty());
+        response.put("rank", rank);
+        response.put("of", of);
+        return response;
+    }
+
+    /**
+     * Turns the changes of a subscription into server-sent events named created, updated or deleted, with the id of
+     * the change, so a reconnecting client sends it as Last-Event-ID. A gap in the changes ends the events with a
+     * reset event holding the sequence number to resume after once the records are read again.
+     * @param feed The feed of the subscription
+     * @param changes The changes of the subscription
+     * @param heartbeat The interval of the comments sent to keep an idle connection open
+     * @return the events
+     */
+    static Flux<ServerSentEvent<Object>> changeEvents(CurrencyChangeFeed feed, Flux<CurrencyChange> changes,
+                                                     Duration heartbeat) {
+        Flux<ServerSentEvent<Object>> events = changes
+                .map(change -> ServerSentEvent.builder()
+                        .id(feed.eventId(change.getSequence()))
+                        .event(change.getType().name().toLowerCase(Locale.ROOT))
+                        .data(change)
+                        .build())
+                .onErrorResume(ChangeFeedGapException.class, e -> {
+                    Map<String, Object> reset = new LinkedHashMap<>();
+                    reset.put("sequence", e.getSequence());
+                    reset.put("reason", e.getMessage());
+                    return Mono.just(ServerSentEvent.builder()
+                            .id(feed.eventId(e.getSequence()))
+                            .event(RESET_EVENT)
+                            .data(reset)
+                            .build());
+                });
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats).takeUntil(event -> RESET_EVENT.equals(event.event()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes Currency and CurrencyListing responses as JSON with a CurrencyJsonWriter instead of reflective Jackson mapping.
+ * Each thread reuses its own writer and buffer. Reading is left to the Jackson converter.
+ */
+public class CurrencyJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ThreadLocal<CurrencyJsonWriter> writers = ThreadLocal.withInitial(() -> new CurrencyJsonWriter(BUFFER_SIZE));
+
+    public CurrencyJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Currency.class == clazz || CurrencyListing.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("reading " + clazz.getName() + " is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        CurrencyJsonWriter writer = writers.get();
+        if (value instanceof Currency) {
+            writer.write((Currency) value, outputMessage.getBody());
+        } else {
+            writer.write((CurrencyListing) value, outputMessage.getBody());
+        }
+    }
+}
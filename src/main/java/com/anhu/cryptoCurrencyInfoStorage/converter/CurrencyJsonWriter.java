@@ -0,0 +1,281 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The CurrencyJsonWriter writes Currency and CurrencyListing objects as UTF-8 encoded JSON, in the same form as Jackson.
+ * The JSON is encoded straight into a fixed byte buffer that is flushed to the output stream whenever it is full,
+ * so writing does not create intermediate strings or byte arrays. A writer is not thread safe, but can be reused.
+ */
+public class CurrencyJsonWriter {
+
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TICKER = fieldName("ticker", true);
+    private static final byte[] NAME = fieldName("name", false);
+    private static final byte[] NUMBER_OF_COINS = fieldName("numberOfCoins", false);
+    private static final byte[] MARKET_CAP = fieldName("marketCap", false);
+
+    private static final byte[] TOTAL_ITEMS = fieldName("totalItems", false);
+    private static final byte[] TOTAL_PAGES = fieldName("totalPages", false);
+    private static final byte[] CURRENT_PAGE = fieldName("currentPage", false);
+    private static final byte[] NEXT_CURSOR = fieldName("nextCursor", false);
+    private static final byte[] CURRENCIES = fieldName("currencies", false);
+
+    /** The longest encoding of a single char: a six byte unicode escape. */
+    private static final int MAX_CHAR_BYTES = 6;
+    /** The length of the longest long: sign and 19 digits. */
+    private static final int MAX_LONG_BYTES = 20;
+
+    private final byte[] buffer;
+    private int position;
+    private OutputStream out;
+
+    public CurrencyJsonWriter(int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("bufferSize must be at least 64, was " + bufferSize);
+        }
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes a record as a JSON object
+     * @param currency The record to be written
+     * @param outputStream The stream the JSON is written to, it is not flushed or closed
+     * @throws IOException when writing to outputStream fails
+     */
+    public void write(Currency currency, OutputStream outputStream) throws IOException {
+        start(outputStream);
+        try {
+            writeCurrency(currency);
+            flushBuffer();
+        } finally {
+            out = null;
+        }
+    }
+
+    /**
+     * Writes a listing as a JSON object, leaving out the paging info that is null
+     * @param listing The listing to be written
+     * @param outputStream The stream the JSON is written to, it is not flushed or closed
+     * @throws IOException when writing to outputStream fails
+     */
+    public void write(CurrencyListing listing, OutputStream outputStream) throws IOException {
+        start(outputStream);
+        try {
+            writeListing(listing);
+            flushBuffer();
+        } finally {
+            out = null;
+        }
+    }
+
+    private void start(OutputStream outputStream) {
+        out = outputStream;
+        position = 0;
+    }
+
+    private void writeListing(CurrencyListing listing) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        if (listing.getTotalItems() != null) {
+            first = writeFieldName(TOTAL_ITEMS, first);
+            writeLong(listing.getTotalItems());
+        }
+        if (listing.getTotalPages() != null) {
+            first = writeFieldName(TOTAL_PAGES, first);
+            writeLong(listing.getTotalPages());
+        }
+        if (listing.getCurrentPage() != null) {
+            first = writeFieldName(CURRENT_PAGE, first);
+            writeLong(listing.getCurrentPage());
+        }
+        if (listing.getNextCursor() != null) {
+            first = writeFieldName(NEXT_CURSOR, first);
+            writeString(listing.getNextCursor());
+        }
+        if (listing.getCurrencies() != null) {
+            writeFieldName(CURRENCIES, first);
+            writeCurrencies(listing.getCurrencies());
+        }
+        writeByte('}');
+    }
+
+    private void writeCurrencies(List<Currency> currencies) throws IOException {
+        writeByte('[');
+        for (int index = 0; index < currencies.size(); index++) {
+            if (index > 0) {
+                writeByte(',');
+            }
+            writeCurrency(currencies.get(index));
+        }
+        writeByte(']');
+    }
+
+    private void writeCurrency(Currency currency) throws IOException {
+        writeRaw(TICKER);
+        writeString(currency.getTicker());
+        writeRaw(NAME);
+        writeString(currency.getName());
+        writeRaw(NUMBER_OF_COINS);
+        writeLong(currency.getNumberOfCoins());
+        writeRaw(MARKET_CAP);
+        writeLong(currency.getMarketCap());
+        writeByte('}');
+    }
+
+    /**
+     * Writes a field name, preceded by a comma unless it is the first field of the object
+     * @return false, the value of first for the next field
+     */
+    private boolean writeFieldName(byte[] fieldName, boolean first) throws IOException {
+        if (first) {
+            // the field names are stored with a leading comma
+            ensureCapacity(fieldName.length);
+            System.arraycopy(fieldName, 1, buffer, position, fieldName.length - 1);
+            position += fieldName.length - 1;
+        } else {
+            writeRaw(fieldName);
+        }
+        return false;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeByte('"');
+        for (int index = 0; index < value.length(); index++) {
+            ensureCapacity(MAX_CHAR_BYTES);
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                writeAscii(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++index));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // an unpaired surrogate can not be encoded in UTF-8, so it is escaped
+                writeUnicodeEscape(c);
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    /** Writes an ASCII char, escaped if required by JSON. Space for MAX_CHAR_BYTES has to be ensured. */
+    private void writeAscii(char c) {
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer[position++] = '\\';
+                buffer[position++] = (byte) c;
+                break;
+            case '\n':
+                buffer[position++] = '\\';
+                buffer[position++] = 'n';
+                break;
+            case '\r':
+                buffer[position++] = '\\';
+                buffer[position++] = 'r';
+                break;
+            case '\t':
+                buffer[position++] = '\\';
+                buffer[position++] = 't';
+                break;
+            case '\b':
+                buffer[position++] = '\\';
+                buffer[position++] = 'b';
+                break;
+            case '\f':
+                buffer[position++] = '\\';
+                buffer[position++] = 'f';
+                break;
+            default:
+                if (c < 0x20) {
+                    writeUnicodeEscape(c);
+                } else {
+                    buffer[position++] = (byte) c;
+                }
+        }
+    }
+
+    private void writeUnicodeEscape(char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX_DIGITS[(c >> 12) & 0xF];
+        buffer[position++] = HEX_DIGITS[(c >> 8) & 0xF];
+        buffer[position++] = HEX_DIGITS[(c >> 4) & 0xF];
+        buffer[position++] = HEX_DIGITS[c & 0xF];
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+        ensureCapacity(MAX_LONG_BYTES);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int index = position + digits - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void writeByte(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeRaw(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * @return the bytes of ,"name": or of {"name": for the first field of a Currency
+     */
+    private static byte[] fieldName(String name, boolean opensObject) {
+        return ((opensObject ? "{" : ",") + '"' + name + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,171 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CurrencyProtobuf encodes and decodes the Currency and CurrencyListing messages of proto/currency.proto with the
+ * Protobuf wire format directly, so the records need not be copied into generated message classes first.
+ * Like the generated classes it leaves out fields with the default value of proto3, and skips unknown fields.
+ */
+public final class CurrencyProtobuf {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int TICKER = 1;
+    private static final int NAME = 2;
+    private static final int NUMBER_OF_COINS = 3;
+    private static final int MARKET_CAP = 4;
+
+    private static final int CURRENCIES = 1;
+    private static final int TOTAL_ITEMS = 2;
+    private static final int TOTAL_PAGES = 3;
+    private static final int CURRENT_PAGE = 4;
+    private static final int NEXT_CURSOR = 5;
+
+    private static final int TICKER_TAG = tag(TICKER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int NAME_TAG = tag(NAME, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int NUMBER_OF_COINS_TAG = tag(NUMBER_OF_COINS, WireFormat.WIRETYPE_VARINT);
+    private static final int MARKET_CAP_TAG = tag(MARKET_CAP, WireFormat.WIRETYPE_VARINT);
+    private static final int CURRENCIES_TAG = tag(CURRENCIES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private CurrencyProtobuf() {
+    }
+
+    /**
+     * Writes a record as a Currency message
+     * @param currency The record to be written
+     * @param outputStream The stream the message is written to, it is not closed
+     * @throws IOException when writing to outputStream fails
+     */
+    public static void write(Currency currency, OutputStream outputStream) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputStream, BUFFER_SIZE);
+        writeCurrency(currency, out);
+        out.flush();
+    }
+
+    /**
+     * Writes a listing as a CurrencyListing message
+     * @param listing The listing to be written
+     * @param outputStream The stream the message is written to, it is not closed
+     * @throws IOException when writing to outputStream fails
+     */
+    public static void write(CurrencyListing listing, OutputStream outputStream) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputStream, BUFFER_SIZE);
+        for (Currency currency : listing.getCurrencies()) {
+            out.writeTag(CURRENCIES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(sizeOf(currency));
+            writeCurrency(currency, out);
+        }
+        if (listing.getTotalItems() != null) {
+            out.writeInt64(TOTAL_ITEMS, listing.getTotalItems());
+        }
+        if (listing.getTotalPages() != null) {
+            out.writeInt32(TOTAL_PAGES, listing.getTotalPages());
+        }
+        if (listing.getCurrentPage() != null) {
+            out.writeInt32(CURRENT_PAGE, listing.getCurrentPage());
+        }
+        if (listing.getNextCursor() != null) {
+            out.writeString(NEXT_CURSOR, listing.getNextCursor());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a Currency message
+     * @param inputStream The stream holding only the message
+     * @return the values of the message
+     * @throws IOException when reading fails or the message is malformed
+     */
+    public static Currency.Builder readCurrency(InputStream inputStream) throws IOException {
+        return readCurrency(CodedInputStream.newInstance(inputStream));
+    }
+
+    /**
+     * Reads the records of a CurrencyListing message, skipping its paging info
+     * @param inputStream The stream holding only the message
+     * @return the values of the records, in the order of the message
+     * @throws IOException when reading fails or the message is malformed
+     */
+    public static List<Currency.Builder> readCurrencies(InputStream inputStream) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputStream);
+        List<Currency.Builder> currencies = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == CURRENCIES_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                currencies.add(readCurrency(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return currencies;
+    }
+
+    private static Currency.Builder readCurrency(CodedInputStream in) throws IOException {
+        Currency.Builder currency = new Currency.Builder();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == TICKER_TAG) {
+                currency.ticker(in.readStringRequireUtf8());
+            } else if (tag == NAME_TAG) {
+                currency.name(in.readStringRequireUtf8());
+            } else if (tag == NUMBER_OF_COINS_TAG) {
+                currency.numberOfCoins(in.readInt64());
+            } else if (tag == MARKET_CAP_TAG) {
+                currency.marketCap(in.readInt64());
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return currency;
+    }
+
+    private static void writeCurrency(Currency currency, CodedOutputStream out) throws IOException {
+        if (currency.getTicker() != null && !currency.getTicker().isEmpty()) {
+            out.writeString(TICKER, currency.getTicker());
+        }
+        if (currency.getName() != null && !currency.getName().isEmpty()) {
+            out.writeString(NAME, currency.getName());
+        }
+        if (currency.getNumberOfCoins() != 0) {
+            out.writeInt64(NUMBER_OF_COINS, currency.getNumberOfCoins());
+        }
+        if (currency.getMarketCap() != 0) {
+            out.writeInt64(MARKET_CAP, currency.getMarketCap());
+        }
+    }
+
+    private static int tag(int fieldNumber, int wireType) {
+        return fieldNumber << 3 | wireType;
+    }
+
+    private static int sizeOf(Currency currency) {
+        int size = 0;
+        if (currency.getTicker() != null && !currency.getTicker().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(TICKER, currency.getTicker());
+        }
+        if (currency.getName() != null && !currency.getName().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(NAME, currency.getName());
+        }
+        if (currency.getNumberOfCoins() != 0) {
+            size += CodedOutputStream.computeInt64Size(NUMBER_OF_COINS, currency.getNumberOfCoins());
+        }
+        if (currency.getMarketCap() != 0) {
+            size += CodedOutputStream.computeInt64Size(MARKET_CAP, currency.getMarketCap());
+        }
+        return size;
+    }
+}
@@ -0,0 +1,50 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Writes Currency and CurrencyListing responses and reads Currency.Builder request bodies as Protobuf, with
+ * CurrencyProtobuf, when a client asks for application/x-protobuf.
+ */
+public class CurrencyProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public CurrencyProtobufHttpMessageConverter() {
+        super(CurrencyProtobuf.APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Currency.class == clazz || CurrencyListing.class == clazz || Currency.Builder.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return Currency.Builder.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return (Currency.class == clazz || CurrencyListing.class == clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return CurrencyProtobuf.readCurrency(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof Currency) {
+            CurrencyProtobuf.write((Currency) value, outputMessage.getBody());
+        } else {
+            CurrencyProtobuf.write((CurrencyListing) value, outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+/**
+ * ChangeFeedGapException ends a subscription to the CurrencyChangeFeed that can not be continued without missing
+ * changes: the subscriber fell too far behind, or asked to resume from a change that is no longer kept.
+ * The subscriber has to read the records again and can then resume after the sequence number of the exception.
+ */
+public class ChangeFeedGapException extends RuntimeException {
+
+    private final long sequence;
+
+    public ChangeFeedGapException(long sequence, String message) {
+        super(message);
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return the last change that records read after the exception include
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,93 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CommittedChanges collects the CurrencyChangeEvents of a transaction and hands them to a writer as one list once the
+ * transaction commits, in a transaction of their own. A side effect of the changes, like the history, then neither
+ * takes part in the write nor interrupts its JDBC batches, and its failure can not roll the write back: it is logged
+ * and the changes are not written. The events of a rolled back transaction are dropped. An event published outside a
+ * transaction is written at once.
+ */
+public class CommittedChanges {
+
+    private static final Logger log = LoggerFactory.getLogger(CommittedChanges.class);
+
+    private final String name;
+    private final TransactionTemplate transactionTemplate;
+    private final Consumer<List<CurrencyChangeEvent>> writer;
+
+    /**
+     * @param name The name of what the writer writes, for the log
+     * @param transactionManager The transaction manager of the writer
+     * @param writer Writes the events of a committed transaction, in the order they were published
+     */
+    public CommittedChanges(String name, PlatformTransactionManager transactionManager,
+                            Consumer<List<CurrencyChangeEvent>> writer) {
+        this.name = name;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // the transaction of the change has committed, but is still bound to the thread
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writer = writer;
+    }
+
+    /**
+     * Adds an event to the events of the current transaction, or writes it if there is none
+     * @param event The event to be written once its change is committed
+     */
+    public void add(CurrencyChangeEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<CurrencyChangeEvent> events = (List<CurrencyChangeEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            List<CurrencyChangeEvent> transactionEvents = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactionEvents);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    // the events of a transaction started meanwhile belong to that transaction
+                    TransactionSynchronizationManager.unbindResource(CommittedChanges.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(CommittedChanges.this, transactionEvents);
+                }
+
+                @Override
+                public void afterCommit() {
+                    write(transactionEvents);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CommittedChanges.this);
+                }
+            });
+            events = transactionEvents;
+        }
+        events.add(event);
+    }
+
+    private void write(List<CurrencyChangeEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(events));
+        } catch (RuntimeException e) {
+            log.warn("Could not write the " + name + " of " + events.size() + " committed changes", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * CurrencyChange is a committed CurrencyChangeEvent numbered by the CurrencyChangeFeed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CurrencyChange {
+
+    private final long sequence;
+    private final CurrencyChangeEvent.Type type;
+    private final String ticker;
+    private final Currency currency;
+    private final Long version;
+    private final long timestamp;
+
+    public CurrencyChange(long sequence, CurrencyChangeEvent event) {
+        this.sequence = sequence;
+        this.type = event.getType();
+        this.ticker = event.getTicker();
+        this.currency = event.getCurrency();
+        this.version = currency == null ? null : currency.getVersion();
+        this.timestamp = event.getTimestamp();
+    }
+
+    /**
+     * @return the number of the change, one higher than the change committed before it
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public CurrencyChangeEvent.Type getType() {
+        return type;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    /**
+     * @return the record after the change, null for DELETED
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return the version of the record after the change, null for DELETED; changes of a ticker are ordered by it,
+     * as their sequence numbers follow the order in which the commits were reported
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the time of the change in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyChange{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", ticker='" + ticker + '\'' +
+                ", version=" + version +
+                '}';
+    }
+}
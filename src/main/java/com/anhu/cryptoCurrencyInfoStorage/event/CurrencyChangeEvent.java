@@ -0,0 +1,59 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+
+/**
+ * CurrencyChangeEvent is published whenever a record is created, updated or deleted.
+ */
+public class CurrencyChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String ticker;
+    private final Currency currency;
+    private final long timestamp;
+
+    public CurrencyChangeEvent(Type type, String ticker, Currency currency, long timestamp) {
+        this.type = type;
+        this.ticker = ticker;
+        this.currency = currency;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    /**
+     * @return the record after the change, null for DELETED
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return the time of the change in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyChangeEvent{" +
+                "type=" + type +
+                ", ticker='" + ticker + '\'' +
+                ", currency=" + currency +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,234 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The CurrencyChangeFeed numbers the committed CurrencyChangeEvents and passes them on to its subscribers.
+ * Every subscriber has a buffer of its own holding the latest undelivered change per ticker, so a subscriber that
+ * reads slower than records change receives fewer changes rather than falling further behind. Changes are delivered
+ * by ascending sequence number; a change that is replaced in the buffer moves to the end. When the buffer holds
+ * as many tickers as it can, the subscription ends with a ChangeFeedGapException.
+ * Sequence numbers follow the order in which the commits are reported, which for concurrent commits of a ticker can
+ * differ from the order of the commits; a buffered change is therefore only replaced by a change of the same or a
+ * higher version, and every change carries its version for the subscriber to order the changes it received.
+ * Publishing a change only adds it to the buffers, which takes constant time per subscriber; the changes are
+ * delivered on another thread as the subscribers request them, so a slow subscriber never holds up a write.
+ * The latest changes are kept, so a subscriber can resume after the last change it received.
+ */
+@Component
+public class CurrencyChangeFeed {
+
+    @Autowired
+    CurrencyChangeGeneration currencyChangeGeneration;
+
+    /** The number of latest changes kept to resume from. */
+    @Value("${currency.changes.history-size:10000}")
+    int historySize;
+
+    /** The number of tickers with an undelivered change a subscriber can hold. */
+    @Value("${currency.changes.subscriber-buffer-size:1000}")
+    int subscriberBufferSize;
+
+    Scheduler scheduler = Schedulers.parallel();
+
+    private final Object lock = new Object();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private CurrencyChange[] history;
+    private long sequence;
+
+    @PostConstruct
+    void createHistory() {
+        history = new CurrencyChange[Math.max(1, historySize)];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void changed(CurrencyChangeEvent event) {
+        synchronized (lock) {
+            CurrencyChange change = new CurrencyChange(++sequence, event);
+            history[(int) (change.getSequence() % history.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the latest change
+     */
+    public long currentSequence() {
+        synchronized (lock) {
+            return sequence;
+        }
+    }
+
+    /**
+     * @param sequence A sequence number of this start of the application
+     * @return the id of the change with the sequence number, which tells the start of the application apart
+     */
+    public String eventId(long sequence) {
+        return Long.toHexString(currencyChangeGeneration.getStartedAt()) + "-" + sequence;
+    }
+
+    /**
+     * Subscribes to the changes committed from now on, or after a change received before
+     * @param lastEventId The id of the last change received, null for only the changes from now on
+     * @return the changes; the Flux ends with a ChangeFeedGapException if the subscriber falls too far behind, or
+     * immediately when lastEventId is of another start of the application or no longer kept
+     * @throws IllegalArgumentException if lastEventId is not an id of a change
+     */
+    public Flux<CurrencyChange> subscribe(String lastEventId) {
+        long after = lastEventId == null ? -1 : parseEventId(lastEventId);
+        return Flux.create(sink -> {
+            Subscriber subscriber = new Subscriber(sink);
+            sink.onRequest(requested -> subscriber.drain());
+            sink.onDispose(() -> subscribers.remove(subscriber));
+            synchronized (lock) {
+                if (after >= 0) {
+                    long oldest = Math.max(1, sequence - history.length + 1);
+                    if (after > sequence || after + 1 < oldest) {
+                        sink.error(new ChangeFeedGapException(sequence, "Can not resume after " + lastEventId));
+                        return;
+                    }
+                    for (long next = after + 1; next <= sequence; next++) {
+                        subscriber.offer(history[(int) (next % history.length)]);
+                    }
+                }
+                subscribers.add(subscriber);
+            }
+            if (sink.isCancelled()) {
+                subscribers.remove(subscriber);
+            }
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * @return the number of subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return the sequence number of an id, Long.MAX_VALUE, after any change, if it is of another start of the application
+     */
+    private long parseEventId(String eventId) {
+        int separator = eventId.indexOf('-');
+        try {
+            long startedAt = Long.parseLong(eventId.substring(0, Math.max(0, separator)), 16);
+            long eventSequence = Long.parseLong(eventId.substring(separator + 1));
+            if (eventSequence < 0) {
+                throw new IllegalArgumentException("Invalid change id " + eventId);
+            }
+            return startedAt == currencyChangeGeneration.getStartedAt() ? eventSequence : Long.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change id " + eventId);
+        }
+    }
+
+    /**
+     * A subscription with its buffer. Changes are emitted by a single drain at a time, which the offers and the
+     * requests start on the scheduler when none is running.
+     */
+    private final class Subscriber {
+
+        private final FluxSink<CurrencyChange> sink;
+        private final AtomicInteger drains = new AtomicInteger();
+        /** The undelivered changes by ticker, in the order of their sequence numbers; guarded by this. */
+        private final LinkedHashMap<String, CurrencyChange> pending = new LinkedHashMap<>();
+        /** The change that did not fit in the buffer, null while all did; guarded by this. */
+        private CurrencyChange overflow;
+
+        Subscriber(FluxSink<CurrencyChange> sink) {
+            this.sink = sink;
+        }
+
+        void offer(CurrencyChange change) {
+            synchronized (this) {
+                if (overflow != null) {
+                    return;
+                }
+                CurrencyChange buffered = pending.get(change.getTicker());
+                if (buffered != null && !supersedes(change, buffered)) {
+                    return;
+                }
+                // a replaced change moves to the end, so the changes stay in the order of their sequence numbers
+                if (pending.remove(change.getTicker()) == null && pending.size() >= subscriberBufferSize) {
+                    pending.clear();
+                    overflow = change;
+                } else {
+                    pending.put(change.getTicker(), change);
+                }
+            }
+            drain();
+        }
+
+        void drain() {
+            if (drains.getAndIncrement() == 0) {
+                scheduler.schedule(this::emit);
+            }
+        }
+
+        private void emit() {
+            int missed = 1;
+            do {
+                CurrencyChange next;
+                while (!sink.isCancelled()) {
+                    CurrencyChange lost;
+                    synchronized (this) {
+                        lost = overflow;
+                        next = lost == null && sink.requestedFromDownstream() > 0 ? poll() : null;
+                    }
+                    if (lost != null) {
+                        sink.error(new ChangeFeedGapException(lost.getSequence(),
+                                "More than " + subscriberBufferSize + " tickers changed since the last delivered change"));
+                        return;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    sink.next(next);
+                }
+                missed = drains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * @return whether a change is later than the buffered change of its ticker: a delete always is, after a
+         * delete only a creation is, otherwise a change of the same or a higher version is
+         */
+        private boolean supersedes(CurrencyChange change, CurrencyChange buffered) {
+            if (change.getType() == CurrencyChangeEvent.Type.DELETED) {
+                return true;
+            }
+            if (buffered.getType() == CurrencyChangeEvent.Type.DELETED) {
+                return change.getType() == CurrencyChangeEvent.Type.CREATED;
+            }
+            return change.getVersion() >= buffered.getVersion();
+        }
+
+        private CurrencyChange poll() {
+            Iterator<Map.Entry<String, CurrencyChange>> first = pending.entrySet().iterator();
+            if (!first.hasNext()) {
+                return null;
+            }
+            CurrencyChange change = first.next().getValue();
+            first.remove();
+            return change;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The CurrencyChangeGeneration counts the committed writes to the CurrencyRepository.
+ * As long as the generation is the same, no record has been created, updated or deleted, so a listing read during
+ * the generation is still up to date. The generation is counted per start of the application, so it is only
+ * comparable together with the start time.
+ */
+@Component
+public class CurrencyChangeGeneration {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void changed(CurrencyChangeEvent event) {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Read the generation before reading the records it covers: a write committing in between then at worst
+     * makes the next request read the records again.
+     * @return the current generation
+     */
+    public long current() {
+        return generation.get();
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * The CurrencyChangePublisher publishes a CurrencyChangeEvent for every write to the CurrencyRepository.
+ * Listeners are called synchronously. When published in a transaction, plain event listeners take part in the
+ * transaction, transactional event listeners are called once it commits.
+ */
+@Component
+public class CurrencyChangePublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    public CurrencyChangePublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public void created(Currency currency) {
+        publish(CurrencyChangeEvent.Type.CREATED, currency.getTicker(), currency);
+    }
+
+    public void updated(Currency currency) {
+        publish(CurrencyChangeEvent.Type.UPDATED, currency.getTicker(), currency);
+    }
+
+    public void deleted(String ticker) {
+        publish(CurrencyChangeEvent.Type.DELETED, ticker, null);
+    }
+
+    private void publish(CurrencyChangeEvent.Type type, String ticker, Currency currency) {
+        applicationEventPublisher.publishEvent(new CurrencyChangeEvent(type, ticker, currency, System.currentTimeMillis()));
+    }
+}
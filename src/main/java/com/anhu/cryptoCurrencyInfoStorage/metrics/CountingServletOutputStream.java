@@ -0,0 +1,54 @@
+package com.anhu.cryptoCurrencyInfoStorage.metrics;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+
+/**
+ * ServletOutputStream that counts the bytes written through it to the wrapped stream.
+ */
+class CountingServletOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+    private long count;
+
+    CountingServletOutputStream(ServletOutputStream delegate) {
+        this.delegate = delegate;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        delegate.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        delegate.write(b, off, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+        return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        delegate.setWriteListener(writeListener);
+    }
+}
@@ -0,0 +1,84 @@
+package com.anhu.cryptoCurrencyInfoStorage.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * The PayloadSizeMetricsFilter records the size of the request and response bodies of the /api endpoints,
+ * tagged like http.server.requests with the uri template and method, so payload sizes can be related to latencies.
+ * Response bodies are counted as they are written, they are not buffered.
+ */
+@Component
+public class PayloadSizeMetricsFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public PayloadSizeMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            if (request.getContentLengthLong() > 0) {
+                summary("currency.api.request.size", uri, request.getMethod()).record(request.getContentLengthLong());
+            }
+            summary("currency.api.response.size", uri, request.getMethod()).record(countingResponse.getCount());
+        }
+    }
+
+    private DistributionSummary summary(String name, String uri, String method) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingServletOutputStream outputStream;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingServletOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private long getCount() {
+            return outputStream == null ? 0 : outputStream.getCount();
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package com.anhu.cryptoCurrencyInfoStorage.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.util.Objects;
 
 /**
  * Currency is the entity used to store records in the CurrencyRepository.
  */
 @Entity
-@Table(name = "currencies")
+@Table(name = "currencies", indexes = {
+        @Index(name = "idx_currencies_name", columnList = "name, ticker"),
+        @Index(name = "idx_currencies_number_of_coins", columnList = "number_of_coins, ticker"),
+        @Index(name = "idx_currencies_market_cap", columnList = "market_cap, ticker")})
 public class Currency {
 
+    /** The maximum number of characters of a ticker, the length of its column. */
+    public static final int MAX_TICKER_LENGTH = 10;
+
+    /** The maximum number of characters of a name, the length of its column. */
+    public static final int MAX_NAME_LENGTH = 250;
+
     @Id
-    @Column(name = "ticker")
+    @Column(name = "ticker", length = MAX_TICKER_LENGTH)
     private String ticker;
 
-    @Column(name = "name")
+    @Column(name = "name", length = MAX_NAME_LENGTH)
     private String name;
 
     @Column(name = "number_of_coins")
@@ -26,6 +39,10 @@ public class Currency {
     @Column(name = "market_cap")
     private long marketCap;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     public Currency() {
     }
 
@@ -34,6 +51,7 @@ public class Currency {
         this.name = builder.name;
         this.numberOfCoins = builder.numberOfCoins;
         this.marketCap = builder.marketCap;
+        this.version = builder.version;
     }
 
     public String getTicker() {
@@ -52,6 +70,52 @@ public class Currency {
         return marketCap;
     }
 
+    /**
+     * @return the number of times the record has been updated, used for optimistic locking and ETags
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param version The version of the stored record this record replaces
+     * @return a copy of this record with the given version
+     */
+    public Currency withVersion(long version) {
+        return new Builder()
+                .ticker(ticker)
+                .name(name)
+                .numberOfCoins(numberOfCoins)
+                .marketCap(marketCap)
+                .version(version)
+                .build();
+    }
+
+    /**
+     * @throws IllegalArgumentException with the reason if the record can not be stored
+     */
+    public void validate() {
+        if (ticker == null || ticker.isBlank()) {
+            throw new IllegalArgumentException("ticker is missing");
+        }
+        if (ticker.length() > MAX_TICKER_LENGTH) {
+            throw new IllegalArgumentException("ticker is longer than " + MAX_TICKER_LENGTH + " characters");
+        }
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is missing");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (numberOfCoins < 0) {
+            throw new IllegalArgumentException("numberOfCoins is negative");
+        }
+        if (marketCap < 0) {
+            throw new IllegalArgumentException("marketCap is negative");
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -76,8 +140,34 @@ public class Currency {
     }
 
     public String toJson() {
-        return "{\"ticker\":\"" + ticker + "\",\"name\":\"" + name +
-                "\",\"numberOfCoins\":" + numberOfCoins + ",\"marketCap\":" + marketCap + "}";
+        return "{\"ticker\":" + quote(ticker) + ",\"name\":" + quote(name) +
+                ",\"numberOfCoins\":" + numberOfCoins + ",\"marketCap\":" + marketCap + "}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                case '\b': quoted.append("\\b"); break;
+                case '\f': quoted.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
     }
 
     public static class Builder{
@@ -86,6 +176,7 @@ public class Currency {
         private String name;
         private long numberOfCoins;
         private long marketCap;
+        private long version;
 
         public Builder(){
         }
@@ -110,6 +201,11 @@ public class Currency {
             return this;
         }
 
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+
         public void setTicker(String ticker) {
             this.ticker = ticker;
         }
@@ -0,0 +1,77 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * CurrencyListing is the response of a request for a list of records, holding the records and paging info if
+ * paging was requested. Paging info that does not apply to the request is null and left out of the response.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"totalItems", "totalPages", "currentPage", "nextCursor", "currencies"})
+public class CurrencyListing {
+
+    private final List<Currency> currencies;
+    private final Long totalItems;
+    private final Integer totalPages;
+    private final Integer currentPage;
+    private final String nextCursor;
+
+    private CurrencyListing(List<Currency> currencies, Long totalItems, Integer totalPages, Integer currentPage,
+                            String nextCursor) {
+        this.currencies = currencies;
+        this.totalItems = totalItems;
+        this.totalPages = totalPages;
+        this.currentPage = currentPage;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @param currencies All requested records
+     * @return a listing without paging info
+     */
+    public static CurrencyListing of(List<Currency> currencies) {
+        return new CurrencyListing(currencies, null, null, null, null);
+    }
+
+    /**
+     * @param page A page of records retrieved by page number
+     * @return a listing of the records of the page with the page number, total number of records and pages
+     */
+    public static CurrencyListing ofPage(Page<Currency> page) {
+        return new CurrencyListing(page.getContent(), page.getTotalElements(), page.getTotalPages(), page.getNumber(), null);
+    }
+
+    /**
+     * @param currencies A page of records retrieved by cursor
+     * @param nextCursor The cursor of the next page, null if this is the last page
+     * @param totalItems The total number of records, null if they were not counted
+     * @return a listing of the records of the page with the cursor of the next page
+     */
+    public static CurrencyListing ofCursor(List<Currency> currencies, String nextCursor, Long totalItems) {
+        return new CurrencyListing(currencies, totalItems, null, null, nextCursor);
+    }
+
+    public List<Currency> getCurrencies() {
+        return currencies;
+    }
+
+    public Long getTotalItems() {
+        return totalItems;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public Integer getCurrentPage() {
+        return currentPage;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
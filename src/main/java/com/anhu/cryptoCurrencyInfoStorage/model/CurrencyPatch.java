@@ -0,0 +1,108 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CurrencyPatch holds the values a partial update changes, read from a sparse body or a JSON Merge Patch
+ * (RFC 7396). A field that is absent keeps its stored value. No field of a record can be removed, so a field set to
+ * null, like a field the record does not have, makes the patch invalid.
+ */
+public class CurrencyPatch {
+
+    private String ticker;
+    private String name;
+    private Long numberOfCoins;
+    private Long marketCap;
+    private final List<String> errors = new ArrayList<>();
+
+    public CurrencyPatch() {
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    /**
+     * @return the new name, null if the name is not changed
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the new number of coins, null if the number of coins is not changed
+     */
+    public Long getNumberOfCoins() {
+        return numberOfCoins;
+    }
+
+    /**
+     * @return the new market cap, null if the market cap is not changed
+     */
+    public Long getMarketCap() {
+        return marketCap;
+    }
+
+    public void setTicker(String ticker) {
+        if (ticker == null) {
+            errors.add("ticker can not be removed");
+        }
+        this.ticker = ticker;
+    }
+
+    public void setName(String name) {
+        if (name == null || name.isBlank()) {
+            errors.add("name can not be removed");
+        } else if (name.length() > Currency.MAX_NAME_LENGTH) {
+            errors.add("name is longer than " + Currency.MAX_NAME_LENGTH + " characters");
+        }
+        this.name = name;
+    }
+
+    public void setNumberOfCoins(Long numberOfCoins) {
+        if (numberOfCoins == null || numberOfCoins < 0) {
+            errors.add("numberOfCoins has to be zero or more");
+        }
+        this.numberOfCoins = numberOfCoins;
+    }
+
+    public void setMarketCap(Long marketCap) {
+        if (marketCap == null || marketCap < 0) {
+            errors.add("marketCap has to be zero or more");
+        }
+        this.marketCap = marketCap;
+    }
+
+    @JsonAnySetter
+    void setUnknown(String field, Object value) {
+        errors.add("a record has no field " + field);
+    }
+
+    /**
+     * @param ticker The ticker of the record the patch is applied to
+     * @throws IllegalArgumentException if the patch changes nothing, changes the ticker or has an invalid field
+     */
+    public void validate(String ticker) {
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", errors));
+        }
+        if (this.ticker != null && !this.ticker.equals(ticker)) {
+            throw new IllegalArgumentException("the ticker of a record can not be changed");
+        }
+        if (name == null && numberOfCoins == null && marketCap == null) {
+            throw new IllegalArgumentException("the patch changes no field");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyPatch{" +
+                "name='" + name + '\'' +
+                ", numberOfCoins=" + numberOfCoins +
+                ", marketCap=" + marketCap +
+                '}';
+    }
+}
@@ -0,0 +1,125 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+
+/**
+ * CurrencyRollup is the entity used to store the open, high, low and close market cap of a Currency
+ * and the number of market caps recorded within one bucket of a RollupInterval.
+ */
+@Entity
+@Table(name = "currency_rollups")
+@IdClass(CurrencyRollupId.class)
+public class CurrencyRollup {
+
+    @Id
+    @Column(name = "ticker")
+    private String ticker;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "bucket_interval")
+    private RollupInterval interval;
+
+    @Id
+    @Column(name = "bucket_start")
+    private long bucketStart;
+
+    @Column(name = "open_value")
+    private long open;
+
+    @Column(name = "high_value")
+    private long high;
+
+    @Column(name = "low_value")
+    private long low;
+
+    @Column(name = "close_value")
+    private long close;
+
+    @Column(name = "sample_count")
+    private long count;
+
+    public CurrencyRollup() {
+    }
+
+    /**
+     * @param ticker The ticker of the record
+     * @param interval The interval of the bucket
+     * @param bucketStart The start of the bucket in milliseconds since the epoch
+     * @param marketCap The first market cap of the bucket, its open, high, low and close
+     */
+    public CurrencyRollup(String ticker, RollupInterval interval, long bucketStart, long marketCap) {
+        this.ticker = ticker;
+        this.interval = interval;
+        this.bucketStart = bucketStart;
+        this.open = marketCap;
+        this.high = marketCap;
+        this.low = marketCap;
+        this.close = marketCap;
+        this.count = 1;
+    }
+
+    /**
+     * Adds a later market cap of the bucket, which becomes the close and the high or low if it exceeds them
+     * @param marketCap The market cap to be added
+     */
+    public void add(long marketCap) {
+        high = Math.max(high, marketCap);
+        low = Math.min(low, marketCap);
+        close = marketCap;
+        count++;
+    }
+
+    @JsonIgnore
+    public String getTicker() {
+        return ticker;
+    }
+
+    @JsonIgnore
+    public RollupInterval getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the start of the bucket in milliseconds since the epoch
+     */
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public long getClose() {
+        return close;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyRollup{" +
+                "ticker='" + ticker + '\'' +
+                ", interval=" + interval +
+                ", bucketStart=" + bucketStart +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", count=" + count +
+                '}';
+    }
+}
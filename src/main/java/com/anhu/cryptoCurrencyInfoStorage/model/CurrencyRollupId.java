@@ -0,0 +1,36 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The primary key of a CurrencyRollup.
+ */
+public class CurrencyRollupId implements Serializable {
+
+    private String ticker;
+    private RollupInterval interval;
+    private long bucketStart;
+
+    public CurrencyRollupId() {
+    }
+
+    public CurrencyRollupId(String ticker, RollupInterval interval, long bucketStart) {
+        this.ticker = ticker;
+        this.interval = interval;
+        this.bucketStart = bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CurrencyRollupId that = (CurrencyRollupId) o;
+        return bucketStart == that.bucketStart && ticker.equals(that.ticker) && interval == that.interval;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ticker, interval, bucketStart);
+    }
+}
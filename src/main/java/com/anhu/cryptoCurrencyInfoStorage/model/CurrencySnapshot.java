@@ -0,0 +1,78 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+
+/**
+ * CurrencySnapshot is the entity used to store the values of a Currency at the time it was created or updated.
+ * Snapshots are only appended, never changed.
+ */
+@Entity
+@Table(name = "currency_snapshots", indexes = {
+        @Index(name = "idx_currency_snapshots_ticker_recorded_at", columnList = "ticker, recorded_at")})
+public class CurrencySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_snapshots_seq")
+    // allocates ids in blocks, unlike identity columns this keeps JDBC batching of inserts possible
+    @SequenceGenerator(name = "currency_snapshots_seq", sequenceName = "currency_snapshots_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "ticker")
+    private String ticker;
+
+    @Column(name = "recorded_at")
+    private long recordedAt;
+
+    @Column(name = "number_of_coins")
+    private long numberOfCoins;
+
+    @Column(name = "market_cap")
+    private long marketCap;
+
+    public CurrencySnapshot() {
+    }
+
+    public CurrencySnapshot(Currency currency, long recordedAt) {
+        this.ticker = currency.getTicker();
+        this.recordedAt = recordedAt;
+        this.numberOfCoins = currency.getNumberOfCoins();
+        this.marketCap = currency.getMarketCap();
+    }
+
+    @JsonIgnore
+    public Long getId() {
+        return id;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    /**
+     * @return the time the snapshot was recorded in milliseconds since the epoch
+     */
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public long getNumberOfCoins() {
+        return numberOfCoins;
+    }
+
+    public long getMarketCap() {
+        return marketCap;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencySnapshot{" +
+                "ticker='" + ticker + '\'' +
+                ", recordedAt=" + recordedAt +
+                ", numberOfCoins=" + numberOfCoins +
+                ", marketCap=" + marketCap +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * MarketScan is the response of a request for the aggregates over the records within a range of market caps and
+ * numbers of coins. Sums are kept as BigInteger, as in MarketStats.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"count", "totalMarketCap", "totalNumberOfCoins", "meanMarketCap", "minMarketCap", "maxMarketCap", "tickers"})
+public class MarketScan {
+
+    private final long count;
+    private final BigInteger totalMarketCap;
+    private final BigInteger totalNumberOfCoins;
+    private final Long minMarketCap;
+    private final Long maxMarketCap;
+    private final List<String> tickers;
+
+    public MarketScan(long count, BigInteger totalMarketCap, BigInteger totalNumberOfCoins, Long minMarketCap, Long maxMarketCap) {
+        this(count, totalMarketCap, totalNumberOfCoins, minMarketCap, maxMarketCap, null);
+    }
+
+    private MarketScan(long count, BigInteger totalMarketCap, BigInteger totalNumberOfCoins, Long minMarketCap,
+                       Long maxMarketCap, List<String> tickers) {
+        this.count = count;
+        this.totalMarketCap = totalMarketCap;
+        this.totalNumberOfCoins = totalNumberOfCoins;
+        this.minMarketCap = minMarketCap;
+        this.maxMarketCap = maxMarketCap;
+        this.tickers = tickers;
+    }
+
+    /**
+     * @param tickers The tickers of some of the matching records
+     * @return these aggregates with the tickers
+     */
+    public MarketScan withTickers(List<String> tickers) {
+        return new MarketScan(count, totalMarketCap, totalNumberOfCoins, minMarketCap, maxMarketCap, tickers);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigInteger getTotalMarketCap() {
+        return totalMarketCap;
+    }
+
+    public BigInteger getTotalNumberOfCoins() {
+        return totalNumberOfCoins;
+    }
+
+    /**
+     * @return the mean market cap rounded to 2 decimals, null without matching records
+     */
+    public BigDecimal getMeanMarketCap() {
+        if (count == 0) {
+            return null;
+        }
+        return new BigDecimal(totalMarketCap).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @return the lowest market cap, null without matching records
+     */
+    public Long getMinMarketCap() {
+        return minMarketCap;
+    }
+
+    /**
+     * @return the highest market cap, null without matching records
+     */
+    public Long getMaxMarketCap() {
+        return maxMarketCap;
+    }
+
+    /**
+     * @return the tickers of some of the matching records, null unless requested
+     */
+    public List<String> getTickers() {
+        return tickers;
+    }
+}
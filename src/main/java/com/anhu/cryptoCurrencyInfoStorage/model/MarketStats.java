@@ -0,0 +1,81 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * MarketStats is the response of a request for the aggregates over all records. Sums are kept as BigInteger,
+ * as the market caps of many records can add up to more than a long holds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"count", "totalMarketCap", "totalNumberOfCoins", "meanMarketCap", "medianMarketCap", "shares"})
+public class MarketStats {
+
+    private final long count;
+    private final BigInteger totalMarketCap;
+    private final BigInteger totalNumberOfCoins;
+    private final BigDecimal medianMarketCap;
+    private final Map<String, BigDecimal> shares;
+
+    public MarketStats(long count, BigInteger totalMarketCap, BigInteger totalNumberOfCoins, BigDecimal medianMarketCap) {
+        this(count, totalMarketCap, totalNumberOfCoins, medianMarketCap, null);
+    }
+
+    private MarketStats(long count, BigInteger totalMarketCap, BigInteger totalNumberOfCoins, BigDecimal medianMarketCap,
+                        Map<String, BigDecimal> shares) {
+        this.count = count;
+        this.totalMarketCap = totalMarketCap;
+        this.totalNumberOfCoins = totalNumberOfCoins;
+        this.medianMarketCap = medianMarketCap;
+        this.shares = shares;
+    }
+
+    /**
+     * @param shares The share of the total market cap per ticker
+     * @return these aggregates with the shares of the records
+     */
+    public MarketStats withShares(Map<String, BigDecimal> shares) {
+        return new MarketStats(count, totalMarketCap, totalNumberOfCoins, medianMarketCap, shares);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigInteger getTotalMarketCap() {
+        return totalMarketCap;
+    }
+
+    public BigInteger getTotalNumberOfCoins() {
+        return totalNumberOfCoins;
+    }
+
+    /**
+     * @return the mean market cap rounded to 2 decimals, null without records
+     */
+    public BigDecimal getMeanMarketCap() {
+        if (count == 0) {
+            return null;
+        }
+        return new BigDecimal(totalMarketCap).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @return the median market cap, the mean of the middle two for an even number of records, null without records
+     */
+    public BigDecimal getMedianMarketCap() {
+        return medianMarketCap;
+    }
+
+    /**
+     * @return the share of the total market cap per ticker, as a fraction, null unless requested
+     */
+    public Map<String, BigDecimal> getShares() {
+        return shares;
+    }
+}
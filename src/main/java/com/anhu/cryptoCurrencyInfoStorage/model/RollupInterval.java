@@ -0,0 +1,44 @@
+package com.anhu.cryptoCurrencyInfoStorage.model;
+
+/**
+ * The granularities at which the market cap of a Currency is rolled up.
+ */
+public enum RollupInterval {
+    MINUTE("1m", 60_000L),
+    HOUR("1h", 3_600_000L),
+    DAY("1d", 86_400_000L);
+
+    private final String code;
+    private final long millis;
+
+    RollupInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @param timestamp A time in milliseconds since the epoch
+     * @return the start of the bucket of this interval the time falls in
+     */
+    public long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+
+    /**
+     * @param code The code of an interval, like 1h
+     * @return the interval with the given code
+     * @throws IllegalArgumentException when there is no interval with the given code
+     */
+    public static RollupInterval fromCode(String code) {
+        for (RollupInterval interval : values()) {
+            if (interval.code.equals(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("unknown interval " + code + ", expected 1m, 1h or 1d");
+    }
+}
@@ -1,10 +1,31 @@
 package com.anhu.cryptoCurrencyInfoStorage.repository;
 
 import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * The CurrencyRepository holds Currency information and is responsible for executing queries on this information.
  */
-public interface CurrencyRepository extends JpaRepository<Currency, String> {
+public interface CurrencyRepository extends JpaRepository<Currency, String>, CurrencyRepositoryCustom {
+
+    /**
+     * Streams all records with a JDBC cursor, so the records do not have to be held in memory at once.
+     * Has to be called in a transaction and the returned stream has to be closed.
+     * @param sort The order in which the records are streamed
+     * @return a stream over all records
+     */
+    @Query("select c from Currency c")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Currency> streamAll(Sort sort);
 }
@@ -0,0 +1,62 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyPatch;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries of the CurrencyRepository that can not be derived by Spring Data.
+ */
+public interface CurrencyRepositoryCustom {
+
+    /**
+     * Retrieves the records that come after a given position in a sort order, also known as keyset pagination.
+     * Unlike an offset the position is looked up through the sort, so every page costs the same and no count query runs.
+     * @param sort The sort of the records, should end in a unique property so the position of every record is unique
+     * @param after The values of the sort properties of the last record of the previous page, null for the first page
+     * @param limit The maximum number of records to retrieve
+     * @return the records after the given position, in sort order
+     */
+    List<Currency> findAllAfter(Sort sort, List<Object> after, int limit);
+
+    /**
+     * Inserts a new record with a single INSERT statement, without checking first whether the ticker is taken.
+     * The primary key of the table rejects a ticker that is already taken, also when two inserts race.
+     * @param currency The record to be inserted
+     * @return the inserted record
+     * @throws org.springframework.dao.DuplicateKeyException when a record with the same ticker already exists
+     */
+    Currency insert(Currency currency);
+
+    /**
+     * Updates the values of many records with one JDBC batch of UPDATE statements, without loading them first.
+     * Has to be called in a transaction; the records read afterwards in the transaction hold the updated values.
+     * @param currencies The new values of the records, by ticker
+     * @return per record 0 if there is no record for its ticker, another value if it was updated
+     */
+    int[] updateValuesInBatch(List<Currency> currencies);
+
+    /**
+     * Replaces the values of a record with a single UPDATE statement, without loading the record first. The updated
+     * record is read back by its primary key in the same transaction, so it holds exactly the values and the version
+     * written.
+     * @param currency The new values of the record, by ticker
+     * @param version The version the record must have, null to update any version
+     * @return the updated record, empty if there is no record for the ticker or it has another version
+     */
+    Optional<Currency> replaceValues(Currency currency, Long version);
+
+    /**
+     * Updates only the fields a patch changes, with an UPDATE statement generated for those columns, without
+     * loading the record first. The updated record is read back by its primary key in the same transaction, so it
+     * holds exactly the values written.
+     * @param ticker The ticker of the record
+     * @param version The version the record must have, null to update any version
+     * @param patch The changed fields, validated
+     * @return the updated record, empty if there is no record for the ticker or it has another version
+     */
+    Optional<Currency> updateFields(String ticker, Long version, CurrencyPatch patch);
+}
@@ -0,0 +1,194 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyPatch;
+import org.hibernate.Session;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.criteria.*;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the CurrencyRepositoryCustom queries, picked up by Spring Data through its name.
+ */
+public class CurrencyRepositoryCustomImpl implements CurrencyRepositoryCustom {
+
+    private static final String UNIQUE_VIOLATION = "23505"; // SQLSTATE of a unique or primary key violation
+    private static final String UPDATE_VALUES = "update currencies set name = ?, number_of_coins = ?, market_cap = ?," +
+            " version = version + 1 where ticker = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Currency> findAllAfter(Sort sort, List<Object> after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Currency> query = builder.createQuery(Currency.class);
+        Root<Currency> root = query.from(Currency.class);
+
+        if (after != null) {
+            query.where(isAfter(builder, root, new ArrayList<>(sort.toList()), after));
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public Currency insert(Currency currency) {
+        // persist does not look the ticker up like merge does, the flush sends the INSERT within this transaction
+        entityManager.persist(currency);
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateKeyException("a record with ticker " + currency.getTicker() + " already exists", e);
+            }
+            throw e;
+        }
+        return currency;
+    }
+
+    @Override
+    public int[] updateValuesInBatch(List<Currency> currencies) {
+        // send pending changes first, like the @Modifying updates of the CurrencyRepository do
+        entityManager.flush();
+        int[] updated = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_VALUES)) {
+                for (Currency currency : currencies) {
+                    statement.setString(1, currency.getName());
+                    statement.setLong(2, currency.getNumberOfCoins());
+                    statement.setLong(3, currency.getMarketCap());
+                    statement.setString(4, currency.getTicker());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        // a copy of a record in the persistence context would hold the values before the update
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Currency> replaceValues(Currency currency, Long version) {
+        String jpql = "update Currency c set c.version = c.version + 1, c.name = :name," +
+                " c.numberOfCoins = :numberOfCoins, c.marketCap = :marketCap where c.ticker = :ticker";
+        Query update = entityManager.createQuery(version == null ? jpql : jpql + " and c.version = :version")
+                .setParameter("ticker", currency.getTicker())
+                .setParameter("name", currency.getName())
+                .setParameter("numberOfCoins", currency.getNumberOfCoins())
+                .setParameter("marketCap", currency.getMarketCap());
+        if (version != null) {
+            update.setParameter("version", version);
+        }
+        return updateAndRead(update, currency.getTicker());
+    }
+
+    @Override
+    @Transactional
+    public Optional<Currency> updateFields(String ticker, Long version, CurrencyPatch patch) {
+        // one statement per combination of changed columns, so Hibernate reuses the plan of each
+        StringBuilder jpql = new StringBuilder("update Currency c set c.version = c.version + 1");
+        if (patch.getName() != null) {
+            jpql.append(", c.name = :name");
+        }
+        if (patch.getNumberOfCoins() != null) {
+            jpql.append(", c.numberOfCoins = :numberOfCoins");
+        }
+        if (patch.getMarketCap() != null) {
+            jpql.append(", c.marketCap = :marketCap");
+        }
+        jpql.append(" where c.ticker = :ticker");
+        if (version != null) {
+            jpql.append(" and c.version = :version");
+        }
+
+        Query update = entityManager.createQuery(jpql.toString()).setParameter("ticker", ticker);
+        if (patch.getName() != null) {
+            update.setParameter("name", patch.getName());
+        }
+        if (patch.getNumberOfCoins() != null) {
+            update.setParameter("numberOfCoins", patch.getNumberOfCoins());
+        }
+        if (patch.getMarketCap() != null) {
+            update.setParameter("marketCap", patch.getMarketCap());
+        }
+        if (version != null) {
+            update.setParameter("version", version);
+        }
+        return updateAndRead(update, ticker);
+    }
+
+    /**
+     * Runs an UPDATE of a single record and reads the record back, before the transaction commits, so no other
+     * write of the record can come in between
+     */
+    private Optional<Currency> updateAndRead(Query update, String ticker) {
+        entityManager.flush();
+        int updated = update.executeUpdate();
+        // a copy of the record in the persistence context would hold the values before the update
+        entityManager.clear();
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        Currency currency = entityManager.find(Currency.class, ticker);
+        entityManager.detach(currency);
+        return Optional.of(currency);
+    }
+
+    private static boolean isUniqueViolation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds (o1 > v1) OR (o1 = v1 AND o2 > v2) OR ... for orders o and values v, with < for descending orders.
+     */
+    private Predicate isAfter(CriteriaBuilder builder, Root<Currency> root, List<Sort.Order> orders, List<Object> values) {
+        if (orders.size() != values.size()) {
+            throw new IllegalArgumentException("expected " + orders.size() + " sort values, got " + values.size());
+        }
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (int index = 0; index < orders.size(); index++) {
+            Sort.Order order = orders.get(index);
+            Path<Comparable<Object>> path = root.get(order.getProperty());
+            Comparable<Object> value = toComparable(values.get(index));
+
+            List<Predicate> alternative = new ArrayList<>(equalPrefix);
+            alternative.add(order.isAscending() ? builder.greaterThan(path, value) : builder.lessThan(path, value));
+            alternatives.add(builder.and(alternative.toArray(new Predicate[0])));
+
+            equalPrefix.add(builder.equal(path, value));
+        }
+        return builder.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> toComparable(Object value) {
+        if (!(value instanceof Comparable)) {
+            throw new IllegalArgumentException("sort value " + value + " is not comparable");
+        }
+        return (Comparable<Object>) value;
+    }
+}
@@ -0,0 +1,28 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollup;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollupId;
+import com.anhu.cryptoCurrencyInfoStorage.model.RollupInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * The CurrencyRollupRepository holds the open, high, low and close market caps of the Currency records per interval.
+ */
+public interface CurrencyRollupRepository extends JpaRepository<CurrencyRollup, CurrencyRollupId>, CurrencyRollupRepositoryCustom {
+
+    /**
+     * @param ticker The ticker of the record
+     * @param interval The interval of the buckets
+     * @param from The start of the range in milliseconds since the epoch, inclusive
+     * @param to The end of the range in milliseconds since the epoch, exclusive
+     * @return the buckets starting in the range, oldest first
+     */
+    @Query("select r from CurrencyRollup r where r.ticker = :ticker and r.interval = :interval" +
+            " and r.bucketStart >= :from and r.bucketStart < :to order by r.bucketStart")
+    List<CurrencyRollup> findBuckets(@Param("ticker") String ticker, @Param("interval") RollupInterval interval,
+                                     @Param("from") long from, @Param("to") long to);
+}
@@ -0,0 +1,20 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollup;
+
+import java.util.Collection;
+
+/**
+ * Queries of the CurrencyRollupRepository that can not be derived by Spring Data.
+ */
+public interface CurrencyRollupRepositoryCustom {
+
+    /**
+     * Adds the market caps rolled up in buckets to the stored buckets, with one MERGE statement sent as a JDBC batch:
+     * a new bucket is inserted as it is, an existing bucket takes the close of the added bucket, the highest high and
+     * lowest low of both and the sum of their counts.
+     * @param buckets The buckets of the added market caps, at most one per ticker, interval and bucket start
+     * @return per bucket the number of changed buckets, 1
+     */
+    int[] mergeBuckets(Collection<CurrencyRollup> buckets);
+}
@@ -0,0 +1,51 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollup;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+
+/**
+ * Implementation of the CurrencyRollupRepositoryCustom queries, picked up by Spring Data through its name.
+ */
+public class CurrencyRollupRepositoryCustomImpl implements CurrencyRollupRepositoryCustom {
+
+    private static final String MERGE_BUCKET = "MERGE INTO currency_rollups r" +
+            " USING (SELECT CAST(? AS VARCHAR(10)) AS ticker, CAST(? AS VARCHAR(10)) AS bucket_interval," +
+            " CAST(? AS BIGINT) AS bucket_start, CAST(? AS BIGINT) AS open_value, CAST(? AS BIGINT) AS high_value," +
+            " CAST(? AS BIGINT) AS low_value, CAST(? AS BIGINT) AS close_value, CAST(? AS BIGINT) AS sample_count) s" +
+            " ON (r.ticker = s.ticker AND r.bucket_interval = s.bucket_interval AND r.bucket_start = s.bucket_start)" +
+            " WHEN MATCHED THEN UPDATE SET high_value = GREATEST(r.high_value, s.high_value)," +
+            " low_value = LEAST(r.low_value, s.low_value), close_value = s.close_value," +
+            " sample_count = r.sample_count + s.sample_count" +
+            " WHEN NOT MATCHED THEN INSERT (ticker, bucket_interval, bucket_start, open_value, high_value, low_value," +
+            " close_value, sample_count)" +
+            " VALUES (s.ticker, s.bucket_interval, s.bucket_start, s.open_value, s.high_value, s.low_value," +
+            " s.close_value, s.sample_count)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int[] mergeBuckets(Collection<CurrencyRollup> buckets) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_BUCKET)) {
+                for (CurrencyRollup bucket : buckets) {
+                    statement.setString(1, bucket.getTicker());
+                    statement.setString(2, bucket.getInterval().name());
+                    statement.setLong(3, bucket.getBucketStart());
+                    statement.setLong(4, bucket.getOpen());
+                    statement.setLong(5, bucket.getHigh());
+                    statement.setLong(6, bucket.getLow());
+                    statement.setLong(7, bucket.getClose());
+                    statement.setLong(8, bucket.getCount());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+}
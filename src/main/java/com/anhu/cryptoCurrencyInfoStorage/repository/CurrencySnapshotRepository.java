@@ -0,0 +1,34 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * The CurrencySnapshotRepository holds the history of the Currency records.
+ */
+public interface CurrencySnapshotRepository extends JpaRepository<CurrencySnapshot, Long> {
+
+    /**
+     * Streams the snapshots of a record in a time range with a JDBC cursor, using the (ticker, recorded_at) index.
+     * Has to be called in a transaction and the returned stream has to be closed.
+     * @param ticker The ticker of the record
+     * @param from The start of the range in milliseconds since the epoch, inclusive
+     * @param to The end of the range in milliseconds since the epoch, exclusive
+     * @return a stream over the snapshots in the range, oldest first
+     */
+    @Query("select s from CurrencySnapshot s where s.ticker = :ticker and s.recordedAt >= :from and s.recordedAt < :to" +
+            " order by s.recordedAt, s.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<CurrencySnapshot> streamByTickerBetween(@Param("ticker") String ticker, @Param("from") long from, @Param("to") long to);
+}
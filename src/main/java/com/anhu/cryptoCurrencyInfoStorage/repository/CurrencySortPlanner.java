@@ -0,0 +1,83 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The CurrencySortPlanner turns the sort parameters of a listing request into a Sort on indexed properties only.
+ * Every plan ends in the ticker, so the position of each record in the sort is unique, which matches the
+ * (column, ticker) indexes on the currencies table and is required for cursor paging.
+ * Plans are cached, as listings are requested with the same few sorts over and over.
+ */
+@Component
+public class CurrencySortPlanner {
+
+    public static final String TIEBREAKER = "ticker";
+
+    /** The sortable properties of a Currency and the columns they are stored in. */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "ticker", "ticker",
+            "name", "name",
+            "numberOfCoins", "number_of_coins",
+            "marketCap", "market_cap");
+
+    private static final int MAX_CACHED_PLANS = 256;
+
+    private final Map<String, Sort> plans = new ConcurrentHashMap<>();
+
+    /**
+     * @param fields The properties to sort on, in order of precedence
+     * @param direction "desc" for descending, any other value for ascending
+     * @return the Sort for the given properties followed by the ticker
+     * @throws IllegalArgumentException when one of the fields is not a sortable property
+     */
+    public Sort plan(String[] fields, String direction) {
+        String key = String.join(",", fields) + ':' + direction;
+        Sort sort = plans.get(key);
+        if (sort == null) {
+            sort = createPlan(fields, getSortDirection(direction));
+            if (plans.size() < MAX_CACHED_PLANS) {
+                plans.put(key, sort);
+            }
+        }
+        return sort;
+    }
+
+    /**
+     * @param property A sortable property
+     * @return the column the property is stored in
+     * @throws IllegalArgumentException when property is not a sortable property
+     */
+    public String getColumn(String property) {
+        String column = SORTABLE_COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("can not sort on " + property + ", sortable are " + SORTABLE_COLUMNS.keySet());
+        }
+        return column;
+    }
+
+    private Sort createPlan(String[] fields, Sort.Direction direction) {
+        Set<String> properties = new LinkedHashSet<>();
+        for (String field : fields) {
+            getColumn(field);
+            properties.add(field);
+        }
+        properties.add(TIEBREAKER);
+
+        List<Sort.Order> orders = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            orders.add(new Sort.Order(direction, property));
+        }
+        return Sort.by(orders);
+    }
+
+    private Sort.Direction getSortDirection(String direction) {
+        if (direction.equals("desc")) {
+            return Sort.Direction.DESC;
+        }
+        return Sort.Direction.ASC;
+    }
+}
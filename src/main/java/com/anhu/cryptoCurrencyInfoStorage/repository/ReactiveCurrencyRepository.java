@@ -0,0 +1,248 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyPatch;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencySnapshot;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The ReactiveCurrencyRepository is the non-blocking counterpart of the CurrencyRepository, used by the reactive
+ * profile. It reads and writes the same tables through R2DBC, so no thread waits while a query runs.
+ * Queries run with the back pressure of their subscriber: a Flux fetches rows as they are requested.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveCurrencyRepository {
+
+    private static final String COLUMNS = "ticker, name, number_of_coins, market_cap, version";
+    private static final String UNIQUE_VIOLATION = "23505"; // SQLSTATE of a unique or primary key violation
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @Autowired
+    CurrencySortPlanner currencySortPlanner;
+
+    public Mono<Currency> findById(String ticker) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM currencies WHERE ticker = :ticker")
+                .bind("ticker", ticker)
+                .map((row, metadata) -> toCurrency(row))
+                .one();
+    }
+
+    /**
+     * @param sort A sort planned by the CurrencySortPlanner
+     * @param offset The number of records to skip
+     * @param limit The maximum number of records, 0 for all records
+     * @return the records in sort order
+     */
+    public Flux<Currency> findAll(Sort sort, long offset, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM currencies ORDER BY " + orderBy(sort);
+        if (limit > 0) {
+            sql += " LIMIT " + limit + " OFFSET " + offset;
+        }
+        return databaseClient.sql(sql)
+                .map((row, metadata) -> toCurrency(row))
+                .all();
+    }
+
+    /**
+     * Retrieves the records that come after a given position in a sort order, like CurrencyRepository.findAllAfter
+     * @param sort A sort planned by the CurrencySortPlanner
+     * @param after The values of the sort properties of the last record of the previous page, null for the first page
+     * @param limit The maximum number of records to retrieve
+     * @return the records after the given position, in sort order
+     */
+    public Flux<Currency> findAllAfter(Sort sort, List<Object> after, int limit) {
+        List<Sort.Order> orders = sort.toList();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM currencies");
+        if (after != null) {
+            if (orders.size() != after.size()) {
+                return Flux.error(new IllegalArgumentException(
+                        "expected " + orders.size() + " sort values, got " + after.size()));
+            }
+            // (o1 > v1) OR (o1 = v1 AND o2 > v2) OR ..., with < for descending orders
+            sql.append(" WHERE ");
+            StringBuilder equalPrefix = new StringBuilder();
+            for (int index = 0; index < orders.size(); index++) {
+                Sort.Order order = orders.get(index);
+                String column = currencySortPlanner.getColumn(order.getProperty());
+                sql.append(index == 0 ? "(" : " OR (").append(equalPrefix)
+                        .append(column).append(order.isAscending() ? " > :v" : " < :v").append(index).append(')');
+                equalPrefix.append(column).append(" = :v").append(index).append(" AND ");
+            }
+        }
+        sql.append(" ORDER BY ").append(orderBy(sort)).append(" LIMIT ").append(limit);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        if (after != null) {
+            for (int index = 0; index < after.size(); index++) {
+                spec = spec.bind("v" + index, after.get(index));
+            }
+        }
+        return spec.map((row, metadata) -> toCurrency(row)).all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) FROM currencies")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Inserts a new record with a single INSERT statement, like CurrencyRepository.insert
+     * @param currency The record to be inserted
+     * @return the inserted record, or a DuplicateKeyException when a record with the same ticker already exists
+     */
+    public Mono<Currency> insert(Currency currency) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "INSERT INTO currencies (" + COLUMNS + ") VALUES (:ticker, :name, :numberOfCoins, :marketCap, 0)")
+                .bind("ticker", currency.getTicker());
+        spec = currency.getName() == null ? spec.bindNull("name", String.class) : spec.bind("name", currency.getName());
+        return spec.bind("numberOfCoins", currency.getNumberOfCoins())
+                .bind("marketCap", currency.getMarketCap())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(currency.withVersion(0))
+                .onErrorMap(ReactiveCurrencyRepository::isUniqueViolation, e -> new DuplicateKeyException(
+                        "a record with ticker " + currency.getTicker() + " already exists", e));
+    }
+
+    /**
+     * Replaces the values of a record in a single statement, like CurrencyRepository.replaceValues. The updated
+     * record is read in the same statement, from the H2 data change delta table of the UPDATE.
+     * @param currency The new values of the record
+     * @param version The version the record must have, null to update any version
+     * @return the updated record, empty if there is no record for the ticker or it has another version
+     */
+    public Mono<Currency> replaceValues(Currency currency, Long version) {
+        String sql = "SELECT " + COLUMNS + " FROM FINAL TABLE (UPDATE currencies SET name = :name," +
+                " number_of_coins = :numberOfCoins, market_cap = :marketCap, version = version + 1 WHERE ticker = :ticker";
+        if (version != null) {
+            sql += " AND version = :version";
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql + ")")
+                .bind("ticker", currency.getTicker())
+                .bind("numberOfCoins", currency.getNumberOfCoins())
+                .bind("marketCap", currency.getMarketCap());
+        spec = currency.getName() == null ? spec.bindNull("name", String.class) : spec.bind("name", currency.getName());
+        if (version != null) {
+            spec = spec.bind("version", version);
+        }
+        return spec.map((row, metadata) -> toCurrency(row)).one();
+    }
+
+    /**
+     * Updates only the fields a patch changes, like CurrencyRepository.updateFields. Without a transaction the
+     * updated record is read in the same statement, from the H2 data change delta table of the UPDATE.
+     * @param ticker The ticker of the record
+     * @param version The version the record must have, null to update any version
+     * @param patch The changed fields, validated
+     * @return the updated record, empty if there is no record for the ticker or it has another version
+     */
+    public Mono<Currency> updateFields(String ticker, Long version, CurrencyPatch patch) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM FINAL TABLE (UPDATE currencies SET version = version + 1");
+        if (patch.getName() != null) {
+            sql.append(", name = :name");
+        }
+        if (patch.getNumberOfCoins() != null) {
+            sql.append(", number_of_coins = :numberOfCoins");
+        }
+        if (patch.getMarketCap() != null) {
+            sql.append(", market_cap = :marketCap");
+        }
+        sql.append(" WHERE ticker = :ticker");
+        if (version != null) {
+            sql.append(" AND version = :version");
+        }
+        sql.append(')');
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("ticker", ticker);
+        if (patch.getName() != null) {
+            spec = spec.bind("name", patch.getName());
+        }
+        if (patch.getNumberOfCoins() != null) {
+            spec = spec.bind("numberOfCoins", patch.getNumberOfCoins());
+        }
+        if (patch.getMarketCap() != null) {
+            spec = spec.bind("marketCap", patch.getMarketCap());
+        }
+        if (version != null) {
+            spec = spec.bind("version", version);
+        }
+        return spec.map((row, metadata) -> toCurrency(row)).one();
+    }
+
+    /**
+     * @param ticker The ticker of the record
+     * @return the number of deleted records, 0 or 1
+     */
+    public Mono<Integer> deleteById(String ticker) {
+        return databaseClient.sql("DELETE FROM currencies WHERE ticker = :ticker")
+                .bind("ticker", ticker)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @param ticker The ticker of the record
+     * @param from The start of the range in milliseconds since the epoch, inclusive
+     * @param to The end of the range in milliseconds since the epoch, exclusive
+     * @return the snapshots of the record recorded in the range, oldest first
+     */
+    public Flux<CurrencySnapshot> findSnapshots(String ticker, long from, long to) {
+        return databaseClient.sql("SELECT ticker, recorded_at, number_of_coins, market_cap FROM currency_snapshots" +
+                        " WHERE ticker = :ticker AND recorded_at >= :from AND recorded_at < :to ORDER BY recorded_at, id")
+                .bind("ticker", ticker)
+                .bind("from", from)
+                .bind("to", to)
+                .map((row, metadata) -> new CurrencySnapshot(new Currency.Builder()
+                        .ticker(row.get("ticker", String.class))
+                        .numberOfCoins(row.get("number_of_coins", Long.class))
+                        .marketCap(row.get("market_cap", Long.class))
+                        .build(), row.get("recorded_at", Long.class)))
+                .all();
+    }
+
+    private String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            if (orderBy.length() > 0) {
+                orderBy.append(", ");
+            }
+            // only whitelisted columns end up in the statement
+            orderBy.append(currencySortPlanner.getColumn(order.getProperty())).append(order.isAscending() ? " ASC" : " DESC");
+        }
+        return orderBy.toString();
+    }
+
+    private static Currency toCurrency(Row row) {
+        return new Currency.Builder()
+                .ticker(row.get("ticker", String.class))
+                .name(row.get("name", String.class))
+                .numberOfCoins(row.get("number_of_coins", Long.class))
+                .marketCap(row.get("market_cap", Long.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    private static boolean isUniqueViolation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcException && UNIQUE_VIOLATION.equals(((R2dbcException) cause).getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
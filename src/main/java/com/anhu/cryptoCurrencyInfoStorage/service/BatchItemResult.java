@@ -0,0 +1,31 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+/**
+ * BatchItemResult holds the outcome of writing a single record of a batch.
+ */
+public class BatchItemResult {
+
+    private final String ticker;
+    private final BatchItemStatus status;
+
+    public BatchItemResult(String ticker, BatchItemStatus status) {
+        this.ticker = ticker;
+        this.status = status;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "ticker='" + ticker + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
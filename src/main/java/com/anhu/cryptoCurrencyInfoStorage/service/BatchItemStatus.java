@@ -0,0 +1,11 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+/**
+ * The outcome of writing a single record of a batch.
+ */
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    CONFLICT,
+    INVALID
+}
@@ -0,0 +1,107 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangePublisher;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+
+/**
+ * The CurrencyBatchService writes many records in a single transaction.
+ * Records are processed in chunks of the JDBC batch size: the existing records of a chunk are looked up with one query,
+ * after which the inserts and updates of the chunk are flushed as JDBC batches.
+ */
+@Service
+public class CurrencyBatchService {
+
+    @Autowired
+    CurrencyRepository currencyRepository;
+
+    @Autowired
+    CurrencyChangePublisher currencyChangePublisher;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    int chunkSize;
+
+    /**
+     * Creates all records that do not exist yet
+     * @param currencies The records to be created
+     * @return per record CREATED, CONFLICT if a record with the same ticker already exists or INVALID if the ticker
+     * or name is missing or longer than its column
+     */
+    @Transactional
+    public List<BatchItemResult> createAll(List<Currency> currencies) {
+        return writeAll(currencies, false);
+    }
+
+    /**
+     * Creates all records that do not exist yet and updates the others
+     * @param currencies The records to be created or updated
+     * @return per record CREATED, UPDATED or INVALID if the ticker or name is missing or longer than its column
+     */
+    @Transactional
+    public List<BatchItemResult> upsertAll(List<Currency> currencies) {
+        return writeAll(currencies, true);
+    }
+
+    private List<BatchItemResult> writeAll(List<Currency> currencies, boolean upsert) {
+        List<BatchItemResult> results = new ArrayList<>(currencies.size());
+        for (int start = 0; start < currencies.size(); start += chunkSize) {
+            List<Currency> chunk = currencies.subList(start, Math.min(start + chunkSize, currencies.size()));
+            writeChunk(chunk, upsert, results);
+            // send the batched statements and keep the persistence context small
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return results;
+    }
+
+    private void writeChunk(List<Currency> chunk, boolean upsert, List<BatchItemResult> results) {
+        Set<String> tickers = new HashSet<>();
+        for (Currency currency : chunk) {
+            if (isValid(currency)) {
+                tickers.add(currency.getTicker());
+            }
+        }
+        // loads the existing records into the persistence context, so merging them does not select again
+        Map<String, Currency> existingCurrencies = new HashMap<>();
+        for (Currency existing : currencyRepository.findAllById(tickers)) {
+            existingCurrencies.put(existing.getTicker(), existing);
+        }
+
+        for (Currency currency : chunk) {
+            if (!isValid(currency)) {
+                results.add(new BatchItemResult(currency.getTicker(), BatchItemStatus.INVALID));
+            } else if (!existingCurrencies.containsKey(currency.getTicker())) {
+                entityManager.persist(currency);
+                existingCurrencies.put(currency.getTicker(), currency);
+                currencyChangePublisher.created(currency);
+                results.add(new BatchItemResult(currency.getTicker(), BatchItemStatus.CREATED));
+            } else if (upsert) {
+                // an upsert replaces whatever version is stored, so it takes over the version of the stored record
+                Currency existing = existingCurrencies.get(currency.getTicker());
+                Currency merged = entityManager.merge(currency.withVersion(existing.getVersion()));
+                currencyChangePublisher.updated(merged);
+                results.add(new BatchItemResult(currency.getTicker(), BatchItemStatus.UPDATED));
+            } else {
+                results.add(new BatchItemResult(currency.getTicker(), BatchItemStatus.CONFLICT));
+            }
+        }
+    }
+
+    private boolean isValid(Currency currency) {
+        // a value longer than its column would fail the whole batch in the data base
+        return currency.getTicker() != null && !currency.getTicker().isBlank()
+                && currency.getTicker().length() <= Currency.MAX_TICKER_LENGTH
+                && currency.getName() != null && currency.getName().length() <= Currency.MAX_NAME_LENGTH;
+    }
+}
@@ -0,0 +1,85 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencySnapshotRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * The CurrencyExportService writes the full currency table or the history of a record as newline delimited JSON.
+ * Records are read with a database cursor and detached once written, so memory use does not grow with the table.
+ */
+@Service
+public class CurrencyExportService {
+
+    @Autowired
+    CurrencyRepository currencyRepository;
+
+    @Autowired
+    CurrencySnapshotRepository currencySnapshotRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * Writes all records as one JSON object per line
+     * @param sort The order in which the records are written
+     * @param outputStream The stream the records are written to, it is flushed but not closed
+     * @return The number of records written
+     * @throws IOException when writing to outputStream fails
+     */
+    @Transactional(readOnly = true)
+    public long writeNdjson(Sort sort, OutputStream outputStream) throws IOException {
+        try (Stream<?> currencies = currencyRepository.streamAll(sort)) {
+            return writeNdjson(currencies, outputStream);
+        }
+    }
+
+    /**
+     * Writes the snapshots of a record in a time range as one JSON object per line, oldest first
+     * @param ticker The ticker of the record
+     * @param from The start of the range in milliseconds since the epoch, inclusive
+     * @param to The end of the range in milliseconds since the epoch, exclusive
+     * @param outputStream The stream the snapshots are written to, it is flushed but not closed
+     * @return The number of snapshots written
+     * @throws IOException when writing to outputStream fails
+     */
+    @Transactional(readOnly = true)
+    public long writeHistoryNdjson(String ticker, long from, long to, OutputStream outputStream) throws IOException {
+        try (Stream<?> snapshots = currencySnapshotRepository.streamByTickerBetween(ticker, from, to)) {
+            return writeNdjson(snapshots, outputStream);
+        }
+    }
+
+    private long writeNdjson(Stream<?> entities, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<?> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                Object entity = iterator.next();
+                generator.writeObject(entity);
+                generator.writeRaw('\n');
+                entityManager.detach(entity);
+                count++;
+            }
+            generator.flush();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.event.CommittedChanges;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeEvent;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencySnapshot;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencySnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CurrencyHistoryService appends a CurrencySnapshot for every created or updated record.
+ * The snapshots of a transaction are written together once it commits, in a transaction of their own, so a failure
+ * to record the history is logged instead of failing the change.
+ */
+@Service
+public class CurrencyHistoryService {
+
+    @Autowired
+    CurrencySnapshotRepository currencySnapshotRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private CommittedChanges committedChanges;
+
+    @PostConstruct
+    void start() {
+        committedChanges = new CommittedChanges("history", transactionManager, this::recordAll);
+    }
+
+    @EventListener
+    public void record(CurrencyChangeEvent event) {
+        if (event.getType() != CurrencyChangeEvent.Type.DELETED) {
+            committedChanges.add(event);
+        }
+    }
+
+    private void recordAll(List<CurrencyChangeEvent> events) {
+        List<CurrencySnapshot> snapshots = new ArrayList<>(events.size());
+        for (CurrencyChangeEvent event : events) {
+            snapshots.add(new CurrencySnapshot(event.getCurrency(), event.getTimestamp()));
+        }
+        currencySnapshotRepository.saveAll(snapshots);
+    }
+}
@@ -0,0 +1,558 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The CurrencyImportService creates or updates the records of a CSV or newline delimited JSON file of any size.
+ * The file is read as a stream and passes a pipeline of stages connected by bounded queues:
+ * <ol>
+ *     <li>the calling thread reads chunks of lines,</li>
+ *     <li>parsers turn the lines of a chunk into valid records in parallel, rejecting the lines that are not,</li>
+ *     <li>a dispatcher puts the chunks back in file order and divides their records by ticker over the writers,</li>
+ *     <li>writers upsert batches of records through the CurrencyBatchService, each in a transaction of its own.</li>
+ * </ol>
+ * The number of chunks between reading and dispatching is limited, as are the queues of the writers, so memory use
+ * depends on the chunk size and the number of stages, not on the size of the file. A ticker always goes to the same
+ * writer, in file order, so when a file holds a ticker twice the last line wins.
+ * A batch that can not be written is written again record by record, rejecting the lines of the records that fail;
+ * when none of them can be written the import stops and reports what it wrote before.
+ * Parsing scales with the cores; the number of writers should stay within what the data base can write concurrently.
+ */
+@Service
+public class CurrencyImportService {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final List<String> DEFAULT_COLUMNS = List.of("ticker", "name", "numberOfCoins", "marketCap");
+    private static final int[] DEFAULT_COLUMN_INDEXES = {0, 1, 2, 3};
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyImportService.class);
+
+    @Autowired
+    CurrencyBatchService currencyBatchService;
+
+    @Autowired
+    CurrencyCache currencyCache;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /** The number of parser threads, 0 for one per available processor. */
+    @Value("${currency.import.parsers:0}")
+    int parsers;
+
+    @Value("${currency.import.writers:2}")
+    int writers;
+
+    /** The number of lines per chunk, and of records per batch written in one transaction. */
+    @Value("${currency.import.chunk-size:1000}")
+    int chunkSize;
+
+    @Value("${currency.import.max-rejected-lines:100}")
+    int maxRejectedLines;
+
+    private final AtomicLong importIds = new AtomicLong();
+    private final Map<Long, ImportProgress> runningImports = new ConcurrentHashMap<>();
+
+    /**
+     * @return the progress of the imports that are running, oldest first
+     */
+    public List<ImportProgress> getRunningImports() {
+        List<ImportProgress> imports = new ArrayList<>(runningImports.values());
+        imports.sort(Comparator.comparingLong(ImportProgress::getId));
+        return imports;
+    }
+
+    /**
+     * Creates or updates the records of a file, returning once all of them are written
+     * @param input The file, UTF-8 encoded; it is read to the end but not closed
+     * @param format The format of the file: CSV, whose first line may name the columns in any order, or
+     *               newline delimited JSON; blank lines are skipped
+     * @return the final counters of the import, including the first rejected lines with their reason; FAILED with the
+     * error if writing the records failed, the records counted as created or updated stay written
+     * @throws IllegalArgumentException if the header of a CSV file lacks one of the columns
+     * @throws IOException if the file can not be read
+     * @throws IllegalStateException if the import is interrupted
+     */
+    public ImportProgress importCurrencies(InputStream input, ImportFormat format) throws IOException {
+        ImportProgress progress = new ImportProgress(importIds.incrementAndGet(), format, maxRejectedLines);
+        runningImports.put(progress.getId(), progress);
+        try {
+            new Pipeline(progress, format).run(input);
+            progress.complete();
+            log.info("Import {} completed: {}", progress.getId(), progress);
+            return progress;
+        } catch (ImportWriteException e) {
+            progress.fail(e.getMessage());
+            log.warn("Import {} failed: {}", progress.getId(), progress);
+            return progress;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.fail("interrupted");
+            throw new IllegalStateException("Import " + progress.getId() + " was interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            progress.fail(String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            runningImports.remove(progress.getId());
+        }
+    }
+
+    /**
+     * A piece of work of the pipeline, which stops when interrupted.
+     */
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private static final class LineChunk {
+        /** The chunk telling a parser there are no more chunks. */
+        static final LineChunk END = new LineChunk(-1, -1, List.of());
+
+        final long sequence;
+        final long firstLineNumber;
+        final List<String> lines;
+
+        LineChunk(long sequence, long firstLineNumber, List<String> lines) {
+            this.sequence = sequence;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+        }
+    }
+
+    private static final class ParsedChunk {
+        final long sequence;
+        /** The valid records of the chunk, null for the chunk telling the dispatcher how many chunks there are. */
+        final List<ParsedLine> lines;
+
+        ParsedChunk(long sequence, List<ParsedLine> lines) {
+            this.sequence = sequence;
+            this.lines = lines;
+        }
+    }
+
+    private static final class ParsedLine {
+        final long lineNumber;
+        final Currency currency;
+
+        ParsedLine(long lineNumber, Currency currency) {
+            this.lineNumber = lineNumber;
+            this.currency = currency;
+        }
+    }
+
+    /**
+     * Stops an import whose records can not be written.
+     */
+    private static final class ImportWriteException extends RuntimeException {
+        ImportWriteException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * The pipeline of a single import.
+     */
+    private final class Pipeline {
+
+        /** The batch telling a writer there are no more batches, compared by identity. */
+        private final List<ParsedLine> noMoreBatches = new ArrayList<>(0);
+
+        private final ImportProgress progress;
+        private final ImportFormat format;
+        private final int parserCount;
+        private final int writerCount;
+        private final Semaphore chunksInFlight;
+        private final BlockingQueue<LineChunk> lineChunks;
+        private final BlockingQueue<ParsedChunk> parsedChunks;
+        private final List<BlockingQueue<List<ParsedLine>>> batches = new ArrayList<>();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        private final ExecutorService executor;
+        private final ObjectReader builderReader = objectMapper.readerFor(Currency.Builder.class);
+        /** The index of the ticker, name, numberOfCoins and marketCap column of a CSV file. */
+        private int[] columns = DEFAULT_COLUMN_INDEXES;
+
+        Pipeline(ImportProgress progress, ImportFormat format) {
+            this.progress = progress;
+            this.format = format;
+            parserCount = parsers > 0 ? parsers : Runtime.getRuntime().availableProcessors();
+            writerCount = Math.max(1, writers);
+            // every parser can hold two chunks: one it parses and one waiting for it
+            int window = 2 * parserCount;
+            chunksInFlight = new Semaphore(window);
+            lineChunks = new ArrayBlockingQueue<>(window + parserCount);
+            parsedChunks = new ArrayBlockingQueue<>(window + 1);
+            for (int writer = 0; writer < writerCount; writer++) {
+                batches.add(new ArrayBlockingQueue<>(2));
+            }
+            AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(parserCount + 1 + writerCount, runnable -> {
+                Thread thread = new Thread(runnable, "currency-import-" + progress.getId() + "-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void run(InputStream input) throws IOException, InterruptedException {
+            List<Future<?>> stages = new ArrayList<>();
+            try {
+                for (int parser = 0; parser < parserCount; parser++) {
+                    stages.add(start(this::parse));
+                }
+                stages.add(start(this::dispatch));
+                for (BlockingQueue<List<ParsedLine>> writerBatches : batches) {
+                    stages.add(start(() -> write(writerBatches)));
+                }
+                long chunks = read(input);
+                if (chunks >= 0) {
+                    for (int parser = 0; parser < parserCount; parser++) {
+                        lineChunks.put(LineChunk.END);
+                    }
+                    parsedChunks.put(new ParsedChunk(chunks, null));
+                }
+                for (Future<?> stage : stages) {
+                    try {
+                        stage.get();
+                    } catch (ExecutionException | CancellationException e) {
+                        // the stages report their failures themselves
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            if (failure.get() instanceof ImportWriteException) {
+                throw (ImportWriteException) failure.get();
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException("Import " + progress.getId() + " failed", failure.get());
+            }
+        }
+
+        private Future<?> start(Stage stage) {
+            return executor.submit(() -> {
+                try {
+                    stage.run();
+                } catch (InterruptedException e) {
+                    // another stage failed and stopped the pipeline
+                } catch (Exception e) {
+                    if (failure.compareAndSet(null, e)) {
+                        log.warn("Import " + progress.getId() + " failed", e);
+                    }
+                    executor.shutdownNow();
+                }
+            });
+        }
+
+        /**
+         * @return the number of chunks read, -1 if the pipeline stopped before the end of the input
+         */
+        private long read(InputStream input) throws IOException, InterruptedException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+            long sequence = 0;
+            long lineNumber = 0;
+            long firstLineNumber = 1;
+            long lastLog = System.nanoTime();
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    line = withoutByteOrderMark(line);
+                    if (format == ImportFormat.CSV && isHeader(line)) {
+                        columns = columnsOf(line);
+                        progress.addLinesRead(1);
+                        continue;
+                    }
+                }
+                if (lines.isEmpty()) {
+                    firstLineNumber = lineNumber;
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    if (!submit(new LineChunk(sequence++, firstLineNumber, lines))) {
+                        return -1;
+                    }
+                    lines = new ArrayList<>(chunkSize);
+                    if (System.nanoTime() - lastLog > PROGRESS_LOG_INTERVAL_NANOS) {
+                        log.info("Import {} running: {}", progress.getId(), progress);
+                        lastLog = System.nanoTime();
+                    }
+                }
+            }
+            if (!lines.isEmpty() && !submit(new LineChunk(sequence++, firstLineNumber, lines))) {
+                return -1;
+            }
+            return sequence;
+        }
+
+        /**
+         * Waits for room in the pipeline, checking whether it stopped
+         * @return false if the pipeline stopped
+         */
+        private boolean submit(LineChunk chunk) throws InterruptedException {
+            while (!chunksInFlight.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    return false;
+                }
+            }
+            lineChunks.put(chunk);
+            progress.addLinesRead(chunk.lines.size());
+            return true;
+        }
+
+        private void parse() throws InterruptedException {
+            for (LineChunk chunk = lineChunks.take(); chunk != LineChunk.END; chunk = lineChunks.take()) {
+                // read after a chunk is taken, so the header is known
+                int[] columnIndexes = columns;
+                int fieldCount = Arrays.stream(columnIndexes).max().orElse(0) + 1;
+                List<ParsedLine> parsed = new ArrayList<>(chunk.lines.size());
+                long lineNumber = chunk.firstLineNumber;
+                for (String line : chunk.lines) {
+                    if (!line.isBlank()) {
+                        try {
+                            parsed.add(new ParsedLine(lineNumber, validate(format == ImportFormat.CSV
+                                    ? parseCsv(line, columnIndexes, fieldCount)
+                                    : parseNdjson(line))));
+                        } catch (IllegalArgumentException e) {
+                            progress.reject(lineNumber, e.getMessage());
+                        }
+                    }
+                    lineNumber++;
+                }
+                parsedChunks.put(new ParsedChunk(chunk.sequence, parsed));
+            }
+        }
+
+        private void dispatch() throws InterruptedException {
+            Map<Long, ParsedChunk> waiting = new HashMap<>();
+            List<List<ParsedLine>> openBatches = new ArrayList<>();
+            for (int writer = 0; writer < writerCount; writer++) {
+                openBatches.add(new ArrayList<>(chunkSize));
+            }
+            long next = 0;
+            long chunks = -1;
+            while (chunks < 0 || next < chunks) {
+                ParsedChunk parsed = parsedChunks.take();
+                if (parsed.lines == null) {
+                    chunks = parsed.sequence;
+                    continue;
+                }
+                waiting.put(parsed.sequence, parsed);
+                for (ParsedChunk ready = waiting.remove(next); ready != null; ready = waiting.remove(++next)) {
+                    for (ParsedLine line : ready.lines) {
+                        int writer = Math.floorMod(line.currency.getTicker().hashCode(), writerCount);
+                        List<ParsedLine> batch = openBatches.get(writer);
+                        batch.add(line);
+                        if (batch.size() == chunkSize) {
+                            batches.get(writer).put(batch);
+                            openBatches.set(writer, new ArrayList<>(chunkSize));
+                        }
+                    }
+                    chunksInFlight.release();
+                }
+            }
+            for (int writer = 0; writer < writerCount; writer++) {
+                if (!openBatches.get(writer).isEmpty()) {
+                    batches.get(writer).put(openBatches.get(writer));
+                }
+                batches.get(writer).put(noMoreBatches);
+            }
+        }
+
+        private void write(BlockingQueue<List<ParsedLine>> writerBatches) throws InterruptedException {
+            for (List<ParsedLine> batch = writerBatches.take(); batch != noMoreBatches; batch = writerBatches.take()) {
+                List<Currency> currencies = new ArrayList<>(batch.size());
+                for (ParsedLine line : batch) {
+                    currencies.add(line.currency);
+                }
+                List<BatchItemResult> results;
+                try {
+                    results = currencyBatchService.upsertAll(currencies);
+                } catch (RuntimeException e) {
+                    log.warn("Import " + progress.getId() + " could not write a batch of " + batch.size() +
+                            " records, writing them one by one", e);
+                    writeOneByOne(batch);
+                    continue;
+                }
+                for (int index = 0; index < batch.size(); index++) {
+                    count(batch.get(index), results.get(index));
+                }
+            }
+        }
+
+        /**
+         * Writes the records of a failed batch in a transaction each, rejecting the lines of those that fail
+         * @throws ImportWriteException if none of them can be written
+         */
+        private void writeOneByOne(List<ParsedLine> batch) {
+            int written = 0;
+            RuntimeException lastFailure = null;
+            for (ParsedLine line : batch) {
+                try {
+                    count(line, currencyBatchService.upsertAll(List.of(line.currency)).get(0));
+                    written++;
+                } catch (RuntimeException e) {
+                    lastFailure = e;
+                    progress.reject(line.lineNumber, "could not be written: " + mostSpecificMessage(e));
+                }
+            }
+            if (written == 0 && batch.size() > 1) {
+                // not a record of the batch, but the data base fails
+                throw new ImportWriteException("Stopped at a batch of " + batch.size() + " records of which none" +
+                        " could be written: " + mostSpecificMessage(lastFailure), lastFailure);
+            }
+        }
+
+        private void count(ParsedLine line, BatchItemResult result) {
+            if (result.getStatus() == BatchItemStatus.CREATED) {
+                progress.addCreated();
+            } else if (result.getStatus() == BatchItemStatus.UPDATED) {
+                progress.addUpdated();
+                currencyCache.invalidate(result.getTicker());
+            } else {
+                progress.reject(line.lineNumber, "rejected by the data base: " + result.getStatus());
+            }
+        }
+
+        private Currency.Builder parseCsv(String line, int[] indexes, int fieldCount) {
+            List<String> fields = splitCsv(line);
+            if (fields.size() < fieldCount) {
+                throw new IllegalArgumentException("expected " + fieldCount + " fields, found " + fields.size());
+            }
+            return new Currency.Builder()
+                    .ticker(fields.get(indexes[0]).trim())
+                    .name(fields.get(indexes[1]).trim())
+                    .numberOfCoins(parseLong(fields.get(indexes[2]), "numberOfCoins"))
+                    .marketCap(parseLong(fields.get(indexes[3]), "marketCap"));
+        }
+
+        private Currency.Builder parseNdjson(String line) {
+            try {
+                return builderReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the record of a builder, if it can be stored
+     * @throws IllegalArgumentException with the reason otherwise
+     */
+    static Currency validate(Currency.Builder builder) {
+        if (builder == null) {
+            // the JSON line null
+            throw new IllegalArgumentException("not a record");
+        }
+        Currency currency = builder.build();
+        currency.validate();
+        return currency;
+    }
+
+    /**
+     * Splits a line of comma separated values; a value in double quotes may hold commas, and two double quotes for
+     * a double quote
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(DEFAULT_COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < line.length(); index++) {
+            char c = line.charAt(index);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (index + 1 < line.length() && line.charAt(index + 1) == '"') {
+                    field.append('"');
+                    index++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * @return whether a line names one of the columns, which a line of values can not do for the number columns
+     */
+    private static boolean isHeader(String line) {
+        for (String field : splitCsv(line)) {
+            for (String column : DEFAULT_COLUMNS) {
+                if (field.trim().equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index of the ticker, name, numberOfCoins and marketCap column in a header
+     * @throws IllegalArgumentException if the header lacks one of them
+     */
+    private static int[] columnsOf(String header) {
+        List<String> fields = splitCsv(header);
+        int[] indexes = new int[DEFAULT_COLUMNS.size()];
+        for (int column = 0; column < DEFAULT_COLUMNS.size(); column++) {
+            indexes[column] = -1;
+            for (int index = 0; index < fields.size(); index++) {
+                if (fields.get(index).trim().equalsIgnoreCase(DEFAULT_COLUMNS.get(column))) {
+                    indexes[column] = index;
+                }
+            }
+            if (indexes[column] < 0) {
+                throw new IllegalArgumentException("The CSV header has no column " + DEFAULT_COLUMNS.get(column));
+            }
+        }
+        return indexes;
+    }
+
+    private static long parseLong(String value, String column) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: '" + value.trim() + "'");
+        }
+    }
+
+    private static String mostSpecificMessage(Exception e) {
+        return String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+    }
+
+    private static String withoutByteOrderMark(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+}
@@ -0,0 +1,82 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.event.CommittedChanges;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeEvent;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollup;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyRollupId;
+import com.anhu.cryptoCurrencyInfoStorage.model.RollupInterval;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CurrencyRollupService maintains the open, high, low and close market cap of every record per minute, hour and day.
+ * Buckets are updated incrementally as records are created and updated, so reading a range costs one row per bucket
+ * instead of one row per recorded market cap.
+ * The market caps of a transaction are rolled up in memory once it commits, and added to the stored buckets with one
+ * batch of MERGE statements in a transaction of their own, one statement per touched bucket. All intervals are then
+ * updated together or not at all, and a batch write is not interrupted by a statement per record.
+ */
+@Service
+public class CurrencyRollupService {
+
+    @Autowired
+    CurrencyRollupRepository currencyRollupRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private CommittedChanges committedChanges;
+
+    @PostConstruct
+    void start() {
+        committedChanges = new CommittedChanges("rollups", transactionManager, this::addSamples);
+    }
+
+    @EventListener
+    public void record(CurrencyChangeEvent event) {
+        if (event.getType() != CurrencyChangeEvent.Type.DELETED) {
+            committedChanges.add(event);
+        }
+    }
+
+    /**
+     * @param ticker The ticker of the record
+     * @param interval The interval of the buckets
+     * @param from The start of the range in milliseconds since the epoch, inclusive
+     * @param to The end of the range in milliseconds since the epoch, exclusive
+     * @return the buckets starting in the range, oldest first
+     */
+    public List<CurrencyRollup> getBuckets(String ticker, RollupInterval interval, long from, long to) {
+        return currencyRollupRepository.findBuckets(ticker, interval, from, to);
+    }
+
+    private void addSamples(List<CurrencyChangeEvent> events) {
+        Map<CurrencyRollupId, CurrencyRollup> buckets = new LinkedHashMap<>();
+        for (CurrencyChangeEvent event : events) {
+            rollUp(buckets, event.getTicker(), event.getTimestamp(), event.getCurrency().getMarketCap());
+        }
+        currencyRollupRepository.mergeBuckets(buckets.values());
+    }
+
+    private static void rollUp(Map<CurrencyRollupId, CurrencyRollup> buckets, String ticker, long timestamp, long marketCap) {
+        for (RollupInterval interval : RollupInterval.values()) {
+            long bucketStart = interval.bucketStart(timestamp);
+            CurrencyRollupId id = new CurrencyRollupId(ticker, interval, bucketStart);
+            CurrencyRollup bucket = buckets.get(id);
+            if (bucket == null) {
+                buckets.put(id, new CurrencyRollup(ticker, interval, bucketStart, marketCap));
+            } else {
+                // the events of a transaction are in the order they were published, so this market cap is later
+                bucket.add(marketCap);
+            }
+        }
+    }
+}
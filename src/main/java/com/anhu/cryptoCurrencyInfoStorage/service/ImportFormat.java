@@ -0,0 +1,38 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * ImportFormat is the format of a file imported by the CurrencyImportService.
+ */
+public enum ImportFormat {
+    /** Comma separated values, by default in the columns ticker, name, numberOfCoins and marketCap. */
+    CSV(new MediaType("text", "csv")),
+    /** Newline delimited JSON, one record per line. */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param contentType The content type of the file, its parameters like the charset are ignored
+     * @return the format of the file
+     * @throws IllegalArgumentException if the content type is not text/csv or application/x-ndjson
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Can not import " + contentType);
+    }
+}
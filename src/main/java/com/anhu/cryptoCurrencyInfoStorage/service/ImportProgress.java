@@ -0,0 +1,167 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ImportProgress holds the counters of an import by the CurrencyImportService. The stages of the import update it
+ * while it runs, so it can be reported during the import as well as after it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportProgress {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final long id;
+    private final ImportFormat format;
+    private final long startedAt = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final int maxRejectedLines;
+
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<RejectedLine> rejectedLines = new ArrayList<>();
+
+    private volatile State state = State.RUNNING;
+    private volatile long elapsedNanos = -1;
+    private volatile String error;
+
+    ImportProgress(long id, ImportFormat format, int maxRejectedLines) {
+        this.id = id;
+        this.format = format;
+        this.maxRejectedLines = maxRejectedLines;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return the start of the import in milliseconds since the epoch
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return the duration of the import so far, or in total once it ended
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos() / 1_000_000;
+    }
+
+    public long getLinesRead() {
+        return linesRead.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    public long getUpdated() {
+        return updated.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of records created or updated per second
+     */
+    public long getRowsPerSecond() {
+        long nanos = Math.max(1, elapsedNanos());
+        return (created.get() + updated.get()) * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * @return the first rejected lines with their reason, by line number; all rejected lines are counted
+     */
+    public List<RejectedLine> getRejectedLines() {
+        List<RejectedLine> lines;
+        synchronized (rejectedLines) {
+            lines = new ArrayList<>(rejectedLines);
+        }
+        lines.sort(Comparator.comparingLong(RejectedLine::getLineNumber));
+        return lines;
+    }
+
+    /**
+     * @return why the import failed, null if it did not
+     */
+    public String getError() {
+        return error;
+    }
+
+    void addLinesRead(long lines) {
+        linesRead.addAndGet(lines);
+    }
+
+    void addCreated() {
+        created.incrementAndGet();
+    }
+
+    void addUpdated() {
+        updated.incrementAndGet();
+    }
+
+    void reject(long lineNumber, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejectedLines) {
+            if (rejectedLines.size() < maxRejectedLines) {
+                rejectedLines.add(new RejectedLine(lineNumber, reason));
+            }
+        }
+    }
+
+    void complete() {
+        end(State.COMPLETED);
+    }
+
+    void fail(String reason) {
+        error = reason;
+        end(State.FAILED);
+    }
+
+    private void end(State endState) {
+        elapsedNanos = System.nanoTime() - startNanos;
+        state = endState;
+    }
+
+    private long elapsedNanos() {
+        long elapsed = elapsedNanos;
+        return elapsed < 0 ? System.nanoTime() - startNanos : elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportProgress{" +
+                "id=" + id +
+                ", format=" + format +
+                ", state=" + state +
+                ", linesRead=" + getLinesRead() +
+                ", created=" + getCreated() +
+                ", updated=" + getUpdated() +
+                ", rejected=" + getRejected() +
+                ", rowsPerSecond=" + getRowsPerSecond() +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+/**
+ * RejectedLine holds a line of an imported file that could not be turned into a valid record, and why.
+ */
+public class RejectedLine {
+
+    private final long lineNumber;
+    private final String reason;
+
+    public RejectedLine(long lineNumber, String reason) {
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "RejectedLine{" +
+                "lineNumber=" + lineNumber +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
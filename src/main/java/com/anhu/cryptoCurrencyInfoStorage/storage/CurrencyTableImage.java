@@ -0,0 +1,256 @@
+package com.anhu.cryptoCurrencyInfoStorage.storage;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The CurrencyTableImage is a compact binary copy of the currency table, written when the application shuts down and
+ * read back, memory mapped, when it starts, so the in-memory views and the cache are filled without hydrating every
+ * entity through Hibernate. The image is deleted once read: after a crash there is no image, and the views are
+ * rebuilt from the data base instead, so a stale image is never used.
+ * The records are written by descending market cap, so the first records read are the ones most likely requested.
+ * <p>
+ * Layout, big endian: the magic number and format version as int, then per record the ticker and name as length
+ * prefixed UTF-8, a name length of -1 for no name, followed by the number of coins, the market cap and the version as
+ * long; after the records the number of records as int and the CRC32 of the records as long.
+ */
+@Component
+@ConditionalOnProperty(name = "currency.table-image.enabled", havingValue = "true")
+public class CurrencyTableImage {
+
+    private static final int MAGIC = 0x43544931;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 12;
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyTableImage.class);
+
+    @Autowired
+    CurrencyRepository currencyRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired(required = false)
+    CurrencyWriteBehindBuffer currencyWriteBehindBuffer;
+
+    @Value("${currency.table-image.path:currencies.image}")
+    Path path;
+
+    /**
+     * Writes the image once the web server has stopped taking requests and before the data base is closed, after
+     * the buffered updates, if any, are written to the data base.
+     */
+    @PreDestroy
+    public void writeOnShutdown() {
+        try {
+            if (currencyWriteBehindBuffer != null) {
+                currencyWriteBehindBuffer.drain();
+            }
+            long start = System.nanoTime();
+            long written = write();
+            log.info("Wrote {} records to {} in {} ms", written, path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the table image " + path + ", the next start rebuilds from the data base", e);
+        }
+    }
+
+    /**
+     * Writes all records of the data base to the image, replacing the previous image at once
+     * @return the number of records written
+     * @throws IOException if the image can not be written
+     */
+    public long write() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 checksum = new CRC32();
+            long written;
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                DataOutputStream header = new DataOutputStream(file);
+                header.writeInt(MAGIC);
+                header.writeInt(FORMAT_VERSION);
+                DataOutputStream records = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(file, checksum), 1 << 16));
+                written = writeRecords(records);
+                records.flush();
+                header.writeInt((int) written);
+                header.writeLong(checksum.getValue());
+                header.flush();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads the image, if there is a valid one for the current data base, and deletes it
+     * @param consumer Receives every record of the image, by descending market cap
+     * @return the number of records read, -1 if there is no valid image and the records have to be read from the
+     * data base; consumer may have received some records then
+     */
+    public long load(Consumer<Currency> consumer) {
+        if (!Files.isRegularFile(path)) {
+            log.info("No table image at {}", path);
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer image = validImage(channel);
+            long count = image == null ? -1 : image.getInt(image.limit() - TRAILER_SIZE);
+            if (count >= 0 && count != currencyRepository.count()) {
+                log.warn("Table image {} holds {} records, the data base another number", path, count);
+                count = -1;
+            }
+            if (count >= 0) {
+                image.position(HEADER_SIZE);
+                for (long index = 0; index < count; index++) {
+                    consumer.accept(readRecord(image));
+                }
+            }
+            return count;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read the table image " + path, e);
+            return -1;
+        } finally {
+            discard();
+        }
+    }
+
+    /**
+     * Deletes the image, if present, once it no longer matches the data base
+     */
+    public void discard() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete the table image " + path, e);
+        }
+    }
+
+    private long writeRecords(DataOutputStream records) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long written;
+        try {
+            written = readOnly.execute(status -> {
+                long count = 0;
+                Sort byMarketCap = Sort.by(Sort.Direction.DESC, "marketCap").and(Sort.by(Sort.Direction.ASC, "ticker"));
+                try (Stream<Currency> currencies = currencyRepository.streamAll(byMarketCap)) {
+                    for (Currency currency : (Iterable<Currency>) currencies::iterator) {
+                        writeRecord(records, currency);
+                        entityManager.detach(currency);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new ImageException(e);
+                }
+                return count;
+            });
+        } catch (ImageException e) {
+            throw (IOException) e.getCause();
+        }
+        return written == null ? 0 : written;
+    }
+
+    private static void writeRecord(DataOutputStream records, Currency currency) throws IOException {
+        byte[] ticker = currency.getTicker().getBytes(StandardCharsets.UTF_8);
+        records.writeShort(ticker.length);
+        records.write(ticker);
+        if (currency.getName() == null) {
+            records.writeShort(-1);
+        } else {
+            byte[] name = currency.getName().getBytes(StandardCharsets.UTF_8);
+            records.writeShort(name.length);
+            records.write(name);
+        }
+        records.writeLong(currency.getNumberOfCoins());
+        records.writeLong(currency.getMarketCap());
+        records.writeLong(currency.getVersion());
+    }
+
+    private static Currency readRecord(ByteBuffer image) {
+        String ticker = readString(image, image.getShort());
+        short nameLength = image.getShort();
+        String name = nameLength < 0 ? null : readString(image, nameLength);
+        return new Currency.Builder()
+                .ticker(ticker)
+                .name(name)
+                .numberOfCoins(image.getLong())
+                .marketCap(image.getLong())
+                .version(image.getLong())
+                .build();
+    }
+
+    private static String readString(ByteBuffer image, int length) {
+        byte[] bytes = new byte[length];
+        image.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the mapped image if its header and checksum are valid, null otherwise
+     */
+    private ByteBuffer validImage(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+            log.warn("Table image {} has an invalid size of {} bytes", path, size);
+            return null;
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+            log.warn("Table image {} has an unknown format", path);
+            return null;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(mapped.slice(HEADER_SIZE, (int) size - HEADER_SIZE - TRAILER_SIZE));
+        if (checksum.getValue() != mapped.getLong((int) size - 8)) {
+            log.warn("Table image {} is corrupt", path);
+            return null;
+        }
+        return mapped;
+    }
+
+    /**
+     * Carries an IOException out of the transaction callback.
+     */
+    private static class ImageException extends RuntimeException {
+        ImageException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.anhu.cryptoCurrencyInfoStorage.storage;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangePublisher;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The CurrencyWriteBehindBuffer holds updates of records in memory and writes them to the data base later, in
+ * batches, so a record updated many times per second is written once per flush instead of once per update.
+ * Only the latest update per ticker is kept. The buffer is divided in stripes by ticker, each with a lock of its own,
+ * so concurrent updates of different tickers rarely wait for each other.
+ * <p>
+ * A flush runs every flush interval, and as soon as flush size tickers are buffered. It writes the buffered records
+ * with JDBC batches of UPDATE statements in a transaction per batch, publishing the updates in that transaction, and
+ * only then removes them from the buffer, so a read that checks the buffer before the data base never sees an older
+ * value. An update that was accepted can be lost when the application crashes before the next flush: the durability
+ * window is the flush interval plus the time of a flush. On shutdown the buffer is drained, before the table image is
+ * written; from then on an update is written by the thread that puts it.
+ * <p>
+ * The buffer is meant for feeds of unconditional updates: a buffered update replaces what other writes stored for
+ * the same ticker in the meantime. A buffered update of a record that is deleted before the flush is dropped. When a
+ * batch fails, its updates are written one by one and those the data base rejects are dropped; when none of them can
+ * be written, they stay buffered for the next flush.
+ */
+@Component
+@ConditionalOnProperty(name = "currency.write-behind.enabled", havingValue = "true")
+public class CurrencyWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyWriteBehindBuffer.class);
+
+    @Autowired
+    CurrencyRepository currencyRepository;
+
+    @Autowired
+    CurrencyChangePublisher currencyChangePublisher;
+
+    @Autowired
+    CurrencyCache currencyCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${currency.write-behind.stripes:16}")
+    int stripeCount;
+
+    /** The number of buffered tickers that starts a flush, and the number of records per batch of a flush. */
+    @Value("${currency.write-behind.flush-size:500}")
+    int flushSize;
+
+    /** The longest time an accepted update waits for a flush. */
+    @Value("${currency.write-behind.flush-interval-millis:100}")
+    long flushIntervalMillis;
+
+    /** The number of buffered tickers at which updates flush themselves, so the buffer can not outgrow the writes. */
+    @Value("${currency.write-behind.max-buffered:100000}")
+    int maxBuffered;
+
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    /** Held while a batch is written, so a buffered update is never written after a later write of its ticker. */
+    private final Object flushLock = new Object();
+    private volatile boolean draining;
+    private List<Map<String, Currency>> stripes;
+    private ScheduledExecutorService flusher;
+    private Timer flushTimer;
+    private Counter coalesced;
+
+    @PostConstruct
+    void start() {
+        stripes = new ArrayList<>(stripeCount);
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            stripes.add(new HashMap<>());
+        }
+        Gauge.builder("currency.write-behind.buffered", buffered, AtomicInteger::get)
+                .description("The number of tickers with an update that is not written yet")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("currency.write-behind.flush")
+                .description("The time to write a batch of buffered updates")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        coalesced = Counter.builder("currency.write-behind.coalesced")
+                .description("The updates replaced by a later update of the same ticker before they were written")
+                .register(meterRegistry);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "currency-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled, updates are written within {} ms plus the time of a flush", flushIntervalMillis);
+    }
+
+    /**
+     * Buffers an update, replacing a buffered update of the same ticker. Once the buffer drains, the update is
+     * written before this returns.
+     * @param currency The new values of an existing record
+     */
+    public void put(Currency currency) {
+        Map<String, Currency> stripe = stripeOf(currency.getTicker());
+        Currency replaced;
+        synchronized (stripe) {
+            replaced = stripe.put(currency.getTicker(), currency);
+        }
+        if (replaced != null) {
+            coalesced.increment();
+        } else {
+            buffered.incrementAndGet();
+        }
+        if (draining) {
+            // the flusher is shut down, so nothing would write the update later
+            flush(currency.getTicker());
+            return;
+        }
+        if (replaced != null) {
+            return;
+        }
+        int count = buffered.get();
+        if (count >= maxBuffered) {
+            // the data base does not keep up, so the writer waits for a flush instead of growing the buffer
+            flush();
+        } else if (count >= flushSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * @param ticker The ticker of a record
+     * @return the buffered update of the record, empty if it has none
+     */
+    public Optional<Currency> get(String ticker) {
+        Map<String, Currency> stripe = stripeOf(ticker);
+        synchronized (stripe) {
+            return Optional.ofNullable(stripe.get(ticker));
+        }
+    }
+
+    /**
+     * Drops the buffered update of a record that is deleted
+     * @param ticker The ticker of the record
+     */
+    public void discard(String ticker) {
+        Map<String, Currency> stripe = stripeOf(ticker);
+        boolean removed;
+        synchronized (stripe) {
+            removed = stripe.remove(ticker) != null;
+        }
+        if (removed) {
+            buffered.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of tickers with a buffered update
+     */
+    public int size() {
+        return buffered.get();
+    }
+
+    /**
+     * Writes all updates buffered at the call, waiting for a batch that is being written
+     * @return the number of records written
+     */
+    public int flush() {
+        flushRequested.set(false);
+        List<Currency> pending = new ArrayList<>(buffered.get());
+        for (Map<String, Currency> stripe : stripes) {
+            synchronized (stripe) {
+                pending.addAll(stripe.values());
+            }
+        }
+        int written = 0;
+        for (int start = 0; start < pending.size(); start += flushSize) {
+            written += writeBuffered(pending.subList(start, Math.min(start + flushSize, pending.size())));
+        }
+        return written;
+    }
+
+    /**
+     * Writes the buffered update of a single record, if it has one, so a write of the record that is not buffered
+     * can follow it; the other buffered updates wait for the next flush
+     * @param ticker The ticker of the record
+     * @return whether an update was written
+     */
+    public boolean flush(String ticker) {
+        Optional<Currency> pending = get(ticker);
+        return pending.isPresent() && writeBuffered(List.of(pending.get())) > 0;
+    }
+
+    /**
+     * Stops the scheduled flushes and writes what is buffered; later updates are written as they are put.
+     */
+    @PreDestroy
+    public void drain() {
+        draining = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush();
+        if (written > 0) {
+            log.info("Drained {} buffered updates", written);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not write " + buffered.get() + " buffered updates, retrying with the next flush", e);
+        }
+    }
+
+    /**
+     * Writes the updates that are still buffered, skipping those written, replaced or discarded since they were read
+     * @return the number of records written
+     */
+    private int writeBuffered(List<Currency> candidates) {
+        synchronized (flushLock) {
+            List<Currency> batch = new ArrayList<>(candidates.size());
+            for (Currency currency : candidates) {
+                Map<String, Currency> stripe = stripeOf(currency.getTicker());
+                synchronized (stripe) {
+                    if (stripe.get(currency.getTicker()) == currency) {
+                        batch.add(currency);
+                    }
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                flushTimer.record(() -> write(batch));
+                return batch.size();
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    drop(batch.get(0), e);
+                    return 0;
+                }
+                log.warn("Could not write a batch of " + batch.size() + " buffered updates, writing them one by one", e);
+                return writeOneByOne(batch);
+            }
+        }
+    }
+
+    /**
+     * Writes the updates of a failed batch in a transaction each, dropping those that fail, so an update the data
+     * base rejects can not hold back the others
+     * @return the number of records written
+     * @throws RuntimeException if none of them can be written, which keeps them buffered for the next flush
+     */
+    private int writeOneByOne(List<Currency> batch) {
+        int written = 0;
+        List<Currency> failed = new ArrayList<>();
+        RuntimeException lastFailure = null;
+        for (Currency currency : batch) {
+            try {
+                flushTimer.record(() -> write(List.of(currency)));
+                written++;
+            } catch (RuntimeException e) {
+                failed.add(currency);
+                lastFailure = e;
+            }
+        }
+        if (written == 0) {
+            // not an update of the batch, but the data base fails
+            throw lastFailure;
+        }
+        for (Currency currency : failed) {
+            drop(currency, lastFailure);
+        }
+        return written;
+    }
+
+    private void drop(Currency currency, RuntimeException failure) {
+        log.warn("Dropped the buffered update {}, it could not be written: {}", currency,
+                NestedExceptionUtils.getMostSpecificCause(failure).getMessage());
+        Map<String, Currency> stripe = stripeOf(currency.getTicker());
+        boolean removed;
+        synchronized (stripe) {
+            removed = stripe.remove(currency.getTicker(), currency);
+        }
+        if (removed) {
+            buffered.decrementAndGet();
+        }
+        currencyCache.invalidate(currency.getTicker());
+    }
+
+    private void write(List<Currency> batch) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int[] updated = currencyRepository.updateValuesInBatch(batch);
+            List<String> updatedTickers = new ArrayList<>(batch.size());
+            for (int index = 0; index < batch.size(); index++) {
+                if (updated[index] != 0) {
+                    updatedTickers.add(batch.get(index).getTicker());
+                } else {
+                    log.debug("Dropped the buffered update of {}, the record was deleted", batch.get(index).getTicker());
+                }
+            }
+            // read back in the transaction that holds the row locks, so the changes are published with their versions
+            for (Currency written : currencyRepository.findAllById(updatedTickers)) {
+                currencyChangePublisher.updated(written);
+            }
+        });
+        for (Currency currency : batch) {
+            Map<String, Currency> stripe = stripeOf(currency.getTicker());
+            boolean removed;
+            synchronized (stripe) {
+                // a later update of the ticker stays buffered for the next flush
+                removed = stripe.remove(currency.getTicker(), currency);
+            }
+            if (removed) {
+                buffered.decrementAndGet();
+            }
+            currencyCache.invalidate(currency.getTicker());
+        }
+    }
+
+    private Map<String, Currency> stripeOf(String ticker) {
+        return stripes.get(Math.floorMod(ticker.hashCode(), stripes.size()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+/**
+ * A ColumnFilter selects the records of the CurrencyColumns within a range of market caps and a range of numbers of
+ * coins, all bounds inclusive.
+ */
+public final class ColumnFilter {
+
+    private final long minMarketCap;
+    private final long maxMarketCap;
+    private final long minNumberOfCoins;
+    private final long maxNumberOfCoins;
+
+    public ColumnFilter(long minMarketCap, long maxMarketCap, long minNumberOfCoins, long maxNumberOfCoins) {
+        this.minMarketCap = minMarketCap;
+        this.maxMarketCap = maxMarketCap;
+        this.minNumberOfCoins = minNumberOfCoins;
+        this.maxNumberOfCoins = maxNumberOfCoins;
+    }
+
+    /**
+     * @return a filter selecting every record
+     */
+    public static ColumnFilter all() {
+        return new ColumnFilter(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    boolean matches(long marketCap, long numberOfCoins) {
+        return marketCap >= minMarketCap && marketCap <= maxMarketCap
+                && numberOfCoins >= minNumberOfCoins && numberOfCoins <= maxNumberOfCoins;
+    }
+
+    @Override
+    public String toString() {
+        return "marketCap " + minMarketCap + ".." + maxMarketCap + ", numberOfCoins " + minNumberOfCoins + ".." + maxNumberOfCoins;
+    }
+}
@@ -0,0 +1,126 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketStats;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CurrencyAggregates keeps the count, sums and median of the records up to date with every write, so the aggregates
+ * are read in constant time. Sums change in O(1) per write; the median is kept between two ordered halves of the
+ * market caps, the lower half at most one larger than the upper half, which costs O(log n) per write.
+ * Every write publishes a new immutable MarketStats, so readers never see a half applied write.
+ */
+@Component
+public class CurrencyAggregates implements CurrencyView {
+
+    private static final MathContext SHARE_PRECISION = MathContext.DECIMAL64;
+
+    /** The stored records, by ticker, readable while they are written for the shares. */
+    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
+    private final TreeSet<RankKey> lowerHalf = new TreeSet<>();
+    private final TreeSet<RankKey> upperHalf = new TreeSet<>();
+    private BigInteger totalMarketCap = BigInteger.ZERO;
+    private BigInteger totalNumberOfCoins = BigInteger.ZERO;
+
+    private volatile MarketStats stats = new MarketStats(0, BigInteger.ZERO, BigInteger.ZERO, null);
+
+    /**
+     * @return the aggregates over all records
+     */
+    public MarketStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Costs time linear in the number of records, unlike the other aggregates
+     * @return the aggregates over all records with the share of the total market cap of every record
+     */
+    public MarketStats getStatsWithShares() {
+        MarketStats current = stats;
+        Map<String, BigDecimal> shares = new TreeMap<>();
+        if (current.getTotalMarketCap().signum() != 0) {
+            BigDecimal total = new BigDecimal(current.getTotalMarketCap());
+            for (Currency currency : currencies.values()) {
+                shares.put(currency.getTicker(), BigDecimal.valueOf(currency.getMarketCap()).divide(total, SHARE_PRECISION));
+            }
+        }
+        return current.withShares(shares);
+    }
+
+    @Override
+    public void clear() {
+        currencies.clear();
+        lowerHalf.clear();
+        upperHalf.clear();
+        totalMarketCap = BigInteger.ZERO;
+        totalNumberOfCoins = BigInteger.ZERO;
+        publish();
+    }
+
+    @Override
+    public void put(Currency currency) {
+        Currency previous = currencies.put(currency.getTicker(), currency);
+        if (previous != null) {
+            subtract(previous);
+            rebalance();
+        }
+        totalMarketCap = totalMarketCap.add(BigInteger.valueOf(currency.getMarketCap()));
+        totalNumberOfCoins = totalNumberOfCoins.add(BigInteger.valueOf(currency.getNumberOfCoins()));
+        RankKey key = new RankKey(currency.getMarketCap(), currency.getTicker());
+        if (lowerHalf.isEmpty() || key.compareTo(lowerHalf.last()) <= 0) {
+            lowerHalf.add(key);
+        } else {
+            upperHalf.add(key);
+        }
+        rebalance();
+        publish();
+    }
+
+    @Override
+    public void remove(String ticker) {
+        Currency previous = currencies.remove(ticker);
+        if (previous != null) {
+            subtract(previous);
+            rebalance();
+            publish();
+        }
+    }
+
+    private void subtract(Currency previous) {
+        totalMarketCap = totalMarketCap.subtract(BigInteger.valueOf(previous.getMarketCap()));
+        totalNumberOfCoins = totalNumberOfCoins.subtract(BigInteger.valueOf(previous.getNumberOfCoins()));
+        RankKey key = new RankKey(previous.getMarketCap(), previous.getTicker());
+        if (!lowerHalf.remove(key)) {
+            upperHalf.remove(key);
+        }
+    }
+
+    private void rebalance() {
+        // an update removes and adds a market cap, which can leave the halves apart by more than one
+        while (lowerHalf.size() > upperHalf.size() + 1) {
+            upperHalf.add(lowerHalf.pollLast());
+        }
+        while (upperHalf.size() > lowerHalf.size()) {
+            lowerHalf.add(upperHalf.pollFirst());
+        }
+    }
+
+    private void publish() {
+        int count = lowerHalf.size() + upperHalf.size();
+        BigDecimal median = null;
+        if (count % 2 == 1) {
+            median = BigDecimal.valueOf(lowerHalf.last().getValue());
+        } else if (count > 0) {
+            median = BigDecimal.valueOf(lowerHalf.last().getValue())
+                    .add(BigDecimal.valueOf(upperHalf.first().getValue()))
+                    .divide(BigDecimal.valueOf(2));
+        }
+        stats = new MarketStats(count, totalMarketCap, totalNumberOfCoins, median);
+    }
+}
@@ -0,0 +1,278 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketScan;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * CurrencyColumns keeps the numbers of the records column by column, in primitive arrays, so filtering and
+ * aggregating them reads two long arrays front to back instead of a Currency per record with its strings.
+ * The ticker column is dictionary encoded: a row holds the int code of its ticker, the dictionary the ticker of a
+ * code. Writes patch the columns in place: an update overwrites the row of the ticker, a delete moves the last row
+ * into the gap, so the rows stay dense. The code of a deleted ticker is freed and handed to the next new ticker, so
+ * the dictionary holds no more codes than there were rows at once, however many tickers come and go.
+ * Scans share a read lock and run in parallel chunks for large tables; writes take the write lock for O(1) work.
+ */
+@Component
+public class CurrencyColumns implements CurrencyView {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    /** The number of rows a single thread scans; larger tables are scanned by parallel chunks of this size. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] dictionary = new String[INITIAL_CAPACITY];
+    private int[] rowOfCode = noRows(INITIAL_CAPACITY);
+    /** The number of codes handed out, in use or free. */
+    private int codeCount;
+    /** The freed codes, a stack of freeCodeCount entries. */
+    private int[] freeCodes = new int[INITIAL_CAPACITY];
+    private int freeCodeCount;
+
+    private int[] tickerColumn = new int[INITIAL_CAPACITY];
+    private long[] numberOfCoinsColumn = new long[INITIAL_CAPACITY];
+    private long[] marketCapColumn = new long[INITIAL_CAPACITY];
+    private int rows;
+
+    /**
+     * Aggregates the records selected by a filter
+     * @param filter The ranges of market caps and numbers of coins of the records
+     * @return the number of matching records, the totals of their market caps and numbers of coins and the lowest and
+     * highest market cap
+     */
+    public MarketScan scan(ColumnFilter filter) {
+        lock.readLock().lock();
+        try {
+            int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream chunkIndexes = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                chunkIndexes = chunkIndexes.parallel();
+            }
+            return chunkIndexes
+                    .mapToObj(chunk -> scanRows(chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE), filter))
+                    .reduce(new Accumulator(), Accumulator::combine)
+                    .toScan();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes the tickers of the first records selected by a filter, in no particular order
+     * @param filter The ranges of market caps and numbers of coins of the records
+     * @param limit The maximum number of tickers
+     * @return the tickers of at most limit matching records
+     */
+    public List<String> tickers(ColumnFilter filter, int limit) {
+        lock.readLock().lock();
+        try {
+            List<String> tickers = new ArrayList<>(Math.min(limit, rows));
+            for (int row = 0; row < rows && tickers.size() < limit; row++) {
+                if (filter.matches(marketCapColumn[row], numberOfCoinsColumn[row])) {
+                    tickers.add(dictionary[tickerColumn[row]]);
+                }
+            }
+            return tickers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            codes.clear();
+            dictionary = new String[INITIAL_CAPACITY];
+            rowOfCode = noRows(INITIAL_CAPACITY);
+            codeCount = 0;
+            freeCodes = new int[INITIAL_CAPACITY];
+            freeCodeCount = 0;
+            tickerColumn = new int[INITIAL_CAPACITY];
+            numberOfCoinsColumn = new long[INITIAL_CAPACITY];
+            marketCapColumn = new long[INITIAL_CAPACITY];
+            rows = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Currency currency) {
+        lock.writeLock().lock();
+        try {
+            int code = codeOf(currency.getTicker());
+            int row = rowOfCode[code];
+            if (row < 0) {
+                row = rows++;
+                ensureRowCapacity(rows);
+                tickerColumn[row] = code;
+                rowOfCode[code] = row;
+            }
+            numberOfCoinsColumn[row] = currency.getNumberOfCoins();
+            marketCapColumn[row] = currency.getMarketCap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String ticker) {
+        lock.writeLock().lock();
+        try {
+            Integer code = codes.remove(ticker);
+            if (code == null) {
+                return;
+            }
+            int row = rowOfCode[code];
+            int last = --rows;
+            if (row != last) {
+                tickerColumn[row] = tickerColumn[last];
+                numberOfCoinsColumn[row] = numberOfCoinsColumn[last];
+                marketCapColumn[row] = marketCapColumn[last];
+                rowOfCode[tickerColumn[row]] = row;
+            }
+            rowOfCode[code] = -1;
+            dictionary[code] = null;
+            if (freeCodeCount == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, freeCodeCount * 2);
+            }
+            freeCodes[freeCodeCount++] = code;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Accumulator scanRows(int from, int to, ColumnFilter filter) {
+        long[] marketCaps = marketCapColumn;
+        long[] numbersOfCoins = numberOfCoinsColumn;
+        Accumulator accumulator = new Accumulator();
+        for (int row = from; row < to; row++) {
+            long marketCap = marketCaps[row];
+            long numberOfCoins = numbersOfCoins[row];
+            if (filter.matches(marketCap, numberOfCoins)) {
+                accumulator.add(marketCap, numberOfCoins);
+            }
+        }
+        return accumulator;
+    }
+
+    private int codeOf(String ticker) {
+        Integer code = codes.get(ticker);
+        if (code == null) {
+            if (freeCodeCount > 0) {
+                code = freeCodes[--freeCodeCount];
+            } else {
+                code = codeCount++;
+                if (code == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, code * 2);
+                    int previousLength = rowOfCode.length;
+                    rowOfCode = Arrays.copyOf(rowOfCode, code * 2);
+                    Arrays.fill(rowOfCode, previousLength, rowOfCode.length, -1);
+                }
+            }
+            dictionary[code] = ticker;
+            codes.put(ticker, code);
+        }
+        return code;
+    }
+
+    /**
+     * @return the number of codes handed out, in use or free
+     */
+    int codeCount() {
+        lock.readLock().lock();
+        try {
+            return codeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] noRows(int capacity) {
+        int[] rowOfCode = new int[capacity];
+        Arrays.fill(rowOfCode, -1);
+        return rowOfCode;
+    }
+
+    private void ensureRowCapacity(int capacity) {
+        if (capacity > tickerColumn.length) {
+            int length = Math.max(capacity, tickerColumn.length * 2);
+            tickerColumn = Arrays.copyOf(tickerColumn, length);
+            numberOfCoinsColumn = Arrays.copyOf(numberOfCoinsColumn, length);
+            marketCapColumn = Arrays.copyOf(marketCapColumn, length);
+        }
+    }
+
+    /**
+     * Sums the values in a high and a low part of 32 bits each, which can not overflow before 2^31 rows,
+     * and turns them into a BigInteger only once.
+     */
+    private static final class Accumulator {
+        long count;
+        long marketCapHigh;
+        long marketCapLow;
+        long numberOfCoinsHigh;
+        long numberOfCoinsLow;
+        long minMarketCap = Long.MAX_VALUE;
+        long maxMarketCap = Long.MIN_VALUE;
+
+        void add(long marketCap, long numberOfCoins) {
+            count++;
+            marketCapHigh += marketCap >> 32;
+            marketCapLow += marketCap & 0xFFFFFFFFL;
+            numberOfCoinsHigh += numberOfCoins >> 32;
+            numberOfCoinsLow += numberOfCoins & 0xFFFFFFFFL;
+            minMarketCap = Math.min(minMarketCap, marketCap);
+            maxMarketCap = Math.max(maxMarketCap, marketCap);
+        }
+
+        Accumulator combine(Accumulator other) {
+            Accumulator combined = new Accumulator();
+            combined.count = count + other.count;
+            combined.marketCapHigh = marketCapHigh + other.marketCapHigh;
+            combined.marketCapLow = marketCapLow + other.marketCapLow;
+            combined.numberOfCoinsHigh = numberOfCoinsHigh + other.numberOfCoinsHigh;
+            combined.numberOfCoinsLow = numberOfCoinsLow + other.numberOfCoinsLow;
+            combined.minMarketCap = Math.min(minMarketCap, other.minMarketCap);
+            combined.maxMarketCap = Math.max(maxMarketCap, other.maxMarketCap);
+            return combined;
+        }
+
+        MarketScan toScan() {
+            if (count == 0) {
+                return new MarketScan(0, BigInteger.ZERO, BigInteger.ZERO, null, null);
+            }
+            return new MarketScan(count, sum(marketCapHigh, marketCapLow), sum(numberOfCoinsHigh, numberOfCoinsLow),
+                    minMarketCap, maxMarketCap);
+        }
+
+        private static BigInteger sum(long high, long low) {
+            return BigInteger.valueOf(high).shiftLeft(32).add(BigInteger.valueOf(low));
+        }
+    }
+}
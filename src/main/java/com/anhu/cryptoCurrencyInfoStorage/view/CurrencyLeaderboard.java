@@ -0,0 +1,89 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The CurrencyLeaderboard ranks the records by market cap and by number of coins, highest first and by ticker for
+ * equal values, in a RankIndex per property. The top n is read in O(n) and the rank of a record in O(log n),
+ * without locking and without touching the data base. Writes derive new indexes and publish them together.
+ */
+@Component
+public class CurrencyLeaderboard implements CurrencyView {
+
+    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
+    private volatile Map<RankedBy, RankIndex<Currency>> indexes = emptyIndexes();
+
+    /**
+     * @param rankedBy The property to rank by
+     * @param n The maximum number of records
+     * @return the n highest ranked records, highest first
+     */
+    public List<Currency> top(RankedBy rankedBy, int n) {
+        return indexes.get(rankedBy).first(n);
+    }
+
+    /**
+     * @param rankedBy The property to rank by
+     * @param ticker The ticker of a record
+     * @return the rank of the record, 1 for the highest, empty if there is no record for the ticker
+     */
+    public OptionalInt rank(RankedBy rankedBy, String ticker) {
+        Currency currency = currencies.get(ticker);
+        if (currency == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(indexes.get(rankedBy).countBefore(currency) + 1);
+    }
+
+    /**
+     * @return the number of ranked records
+     */
+    public int size() {
+        return indexes.get(RankedBy.MARKET_CAP).size();
+    }
+
+    @Override
+    public void clear() {
+        currencies.clear();
+        indexes = emptyIndexes();
+    }
+
+    @Override
+    public void put(Currency currency) {
+        Currency previous = currencies.get(currency.getTicker());
+        Map<RankedBy, RankIndex<Currency>> next = new EnumMap<>(RankedBy.class);
+        indexes.forEach((rankedBy, index) -> next.put(rankedBy, (previous == null ? index : index.without(previous)).with(currency)));
+        indexes = next;
+        currencies.put(currency.getTicker(), currency);
+    }
+
+    @Override
+    public void remove(String ticker) {
+        Currency previous = currencies.remove(ticker);
+        if (previous != null) {
+            Map<RankedBy, RankIndex<Currency>> next = new EnumMap<>(RankedBy.class);
+            indexes.forEach((rankedBy, index) -> next.put(rankedBy, index.without(previous)));
+            indexes = next;
+        }
+    }
+
+    private static Map<RankedBy, RankIndex<Currency>> emptyIndexes() {
+        Map<RankedBy, RankIndex<Currency>> indexes = new EnumMap<>(RankedBy.class);
+        for (RankedBy rankedBy : RankedBy.values()) {
+            indexes.put(rankedBy, new RankIndex<>(highestFirst(rankedBy)));
+        }
+        return indexes;
+    }
+
+    private static Comparator<Currency> highestFirst(RankedBy rankedBy) {
+        return Comparator.comparingLong(rankedBy::valueOf).reversed().thenComparing(Currency::getTicker);
+    }
+}
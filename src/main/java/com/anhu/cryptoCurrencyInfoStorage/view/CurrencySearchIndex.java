@@ -0,0 +1,258 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The CurrencySearchIndex finds records by the start of their ticker, their name or a word of their name, ignoring
+ * case, and optionally by a ticker, name or word within a few typing errors. The lower case terms are kept in a
+ * sorted map, which doubles as a trie: the terms starting with the query are one range of the map, and the terms
+ * within an edit distance are found by walking the map as a trie, skipping every range of terms whose common prefix
+ * is already too far from the query. A search costs O(limit log n) for prefixes and O(visited prefixes log n) for
+ * typing errors, independent of the number of records matching in total.
+ */
+@Component
+public class CurrencySearchIndex implements CurrencyView {
+
+    /** How many more candidates than requested a prefix search ranks, so shorter matches can move up. */
+    private static final int CANDIDATES_PER_RESULT = 4;
+
+    private enum MatchKind {
+        TICKER, TERM, TICKER_PREFIX, TERM_PREFIX, FUZZY
+    }
+
+    private static final class Match {
+        final Currency currency;
+        final MatchKind kind;
+        final int distance;
+        final int termLength;
+
+        Match(Currency currency, MatchKind kind, int distance, int termLength) {
+            this.currency = currency;
+            this.kind = kind;
+            this.distance = distance;
+            this.termLength = termLength;
+        }
+    }
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparing((Match match) -> match.kind)
+            .thenComparingInt(match -> match.distance)
+            .thenComparingInt(match -> match.termLength)
+            .thenComparing(Comparator.comparingLong((Match match) -> match.currency.getMarketCap()).reversed())
+            .thenComparing(match -> match.currency.getTicker());
+
+    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> terms = new ConcurrentSkipListMap<>();
+
+    /**
+     * Ranks the matches: the record with the query as ticker first, then those with the query as name or word, then
+     * those whose ticker starts with the query, then those whose name or a word of it does, then those within the
+     * edit distance. Ties go to the shorter term, then to the larger market cap.
+     * @param query The text to search, case is ignored
+     * @param limit The maximum number of records
+     * @param fuzzy Whether terms within an edit distance of the query match too: 1 for queries of 3 to 5 characters,
+     *              2 for longer ones, none for shorter ones; the first 1 or 2 characters have to match
+     * @return the best matching records, best first
+     */
+    public List<Currency> search(String query, int limit, boolean fuzzy) {
+        String normalized = normalize(query);
+        Map<String, Match> matches = new HashMap<>();
+        if (!normalized.isEmpty()) {
+            // saturated, so a large limit can not overflow into a negative number of candidates
+            int candidates = (int) Math.min((long) limit * CANDIDATES_PER_RESULT, Integer.MAX_VALUE);
+            findPrefixed(normalized, candidates, matches);
+            int maxDistance = maxDistance(normalized);
+            if (fuzzy && maxDistance > 0 && matches.size() < candidates) {
+                findSimilar(normalized, maxDistance, matches);
+            }
+        }
+        List<Match> ranked = new ArrayList<>(matches.values());
+        ranked.sort(RANKING);
+        List<Currency> results = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int index = 0; index < ranked.size() && index < limit; index++) {
+            results.add(ranked.get(index).currency);
+        }
+        return results;
+    }
+
+    @Override
+    public void clear() {
+        currencies.clear();
+        terms.clear();
+    }
+
+    @Override
+    public void put(Currency currency) {
+        Currency previous = currencies.put(currency.getTicker(), currency);
+        if (previous != null) {
+            Set<String> previousTerms = termsOf(previous);
+            previousTerms.removeAll(termsOf(currency));
+            removeTerms(previousTerms, previous.getTicker());
+        }
+        for (String term : termsOf(currency)) {
+            terms.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(currency.getTicker());
+        }
+    }
+
+    @Override
+    public void remove(String ticker) {
+        Currency previous = currencies.remove(ticker);
+        if (previous != null) {
+            removeTerms(termsOf(previous), ticker);
+        }
+    }
+
+    private void findPrefixed(String prefix, int maxCandidates, Map<String, Match> matches) {
+        for (Map.Entry<String, Set<String>> entry : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            String term = entry.getKey();
+            for (String ticker : entry.getValue()) {
+                Currency currency = currencies.get(ticker);
+                if (currency == null) {
+                    continue;
+                }
+                boolean isTicker = term.equals(normalize(ticker));
+                boolean isWhole = term.length() == prefix.length();
+                MatchKind kind = isTicker
+                        ? (isWhole ? MatchKind.TICKER : MatchKind.TICKER_PREFIX)
+                        : (isWhole ? MatchKind.TERM : MatchKind.TERM_PREFIX);
+                addMatch(matches, new Match(currency, kind, 0, term.length()));
+            }
+            if (matches.size() >= maxCandidates) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Walks the sorted terms as a trie, computing the Levenshtein table one row per character. Consecutive terms share
+     * the rows of their common prefix; once no cell of a row is within maxDistance, no term with that prefix can be,
+     * and the walk jumps past all of them. Typing errors are rarely made in the first characters, so as search engines
+     * do, only the terms starting with the first maxDistance characters of the query are walked, each of which divides
+     * the walk by the size of the alphabet.
+     */
+    private void findSimilar(String query, int maxDistance, Map<String, Match> matches) {
+        List<int[]> rows = new ArrayList<>();
+        int[] firstRow = new int[query.length() + 1];
+        for (int column = 0; column <= query.length(); column++) {
+            firstRow[column] = column;
+        }
+        rows.add(firstRow);
+        String previous = "";
+        String first = query.substring(0, maxDistance);
+        String term = terms.ceilingKey(first);
+        while (term != null && term.startsWith(first)) {
+            int depth = commonPrefixLength(previous, term);
+            int pruneDepth = 0;
+            while (depth < term.length() && pruneDepth == 0) {
+                int[] row = nextRow(rows.get(depth), query, term.charAt(depth));
+                depth++;
+                if (rows.size() == depth) {
+                    rows.add(row);
+                } else {
+                    rows.set(depth, row);
+                }
+                if (min(row) > maxDistance) {
+                    pruneDepth = depth;
+                }
+            }
+            previous = term.substring(0, depth);
+            if (pruneDepth > 0) {
+                term = terms.higherKey(term.substring(0, pruneDepth) + Character.MAX_VALUE);
+                continue;
+            }
+            int distance = rows.get(depth)[query.length()];
+            if (distance <= maxDistance) {
+                for (String ticker : terms.getOrDefault(term, Set.of())) {
+                    Currency currency = currencies.get(ticker);
+                    if (currency != null) {
+                        addMatch(matches, new Match(currency, MatchKind.FUZZY, distance, term.length()));
+                    }
+                }
+            }
+            term = terms.higherKey(term);
+        }
+    }
+
+    private void removeTerms(Set<String> removed, String ticker) {
+        for (String term : removed) {
+            Set<String> tickers = terms.get(term);
+            if (tickers != null) {
+                tickers.remove(ticker);
+                if (tickers.isEmpty()) {
+                    terms.remove(term, tickers);
+                }
+            }
+        }
+    }
+
+    private static void addMatch(Map<String, Match> matches, Match match) {
+        matches.merge(match.currency.getTicker(), match, (current, added) -> RANKING.compare(added, current) < 0 ? added : current);
+    }
+
+    /**
+     * @return the lower case ticker, name and words of the name of a record
+     */
+    private static Set<String> termsOf(Currency currency) {
+        Set<String> termsOfCurrency = new HashSet<>();
+        String ticker = normalize(currency.getTicker());
+        if (!ticker.isEmpty()) {
+            termsOfCurrency.add(ticker);
+        }
+        if (currency.getName() != null) {
+            String name = normalize(currency.getName());
+            if (!name.isEmpty()) {
+                termsOfCurrency.add(name);
+            }
+            for (String word : name.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    termsOfCurrency.add(word);
+                }
+            }
+        }
+        return termsOfCurrency;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int maxDistance(String query) {
+        if (query.length() < 3) {
+            return 0;
+        }
+        return query.length() <= 5 ? 1 : 2;
+    }
+
+    private static int[] nextRow(int[] row, String query, char c) {
+        int[] next = new int[row.length];
+        next[0] = row[0] + 1;
+        for (int column = 1; column < row.length; column++) {
+            int substitution = row[column - 1] + (query.charAt(column - 1) == c ? 0 : 1);
+            next[column] = Math.min(substitution, Math.min(row[column] + 1, next[column - 1] + 1));
+        }
+        return next;
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int index = 0; index < length; index++) {
+            if (a.charAt(index) != b.charAt(index)) {
+                return index;
+            }
+        }
+        return length;
+    }
+}
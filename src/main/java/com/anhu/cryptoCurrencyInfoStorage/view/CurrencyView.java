@@ -0,0 +1,28 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+
+/**
+ * A CurrencyView is an in-memory structure derived from the currency table, answering a kind of query without
+ * touching the data base. Views are filled and kept up to date by the CurrencyViewMaintainer, which calls them
+ * from one thread at a time; queries may run concurrently with these calls.
+ */
+public interface CurrencyView {
+
+    /**
+     * Removes all records, ahead of a rebuild
+     */
+    void clear();
+
+    /**
+     * Adds a record, or replaces the record with the same ticker
+     * @param currency The record as stored
+     */
+    void put(Currency currency);
+
+    /**
+     * Removes a record, if present
+     * @param ticker The ticker of the record
+     */
+    void remove(String ticker);
+}
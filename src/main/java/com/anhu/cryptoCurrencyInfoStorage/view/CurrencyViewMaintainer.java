@@ -0,0 +1,169 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeEvent;
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeGeneration;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.storage.CurrencyTableImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The CurrencyViewMaintainer fills every CurrencyView from the data base once the application is ready and applies
+ * each committed CurrencyChangeEvent to them. Rebuilds and changes are applied one at a time, so a change committed
+ * while a rebuild streams the table is applied once the rebuild is done; changes carry the full record, so applying
+ * one the rebuild already read does no harm.
+ * <p>
+ * The listeners of transactions that commit at the same time can run in another order than the commits, so the
+ * version of the record applied last is kept per ticker and a change with a version that is not higher is dropped.
+ * After a delete of a ticker only its creation is applied, so a late update can not bring the record back.
+ * With a CurrencyTableImage the views are filled from the image written at the previous shutdown instead, and the
+ * cache is filled with the records of the highest market caps.
+ */
+@Component
+public class CurrencyViewMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyViewMaintainer.class);
+    private static final long DELETED = Long.MAX_VALUE;
+
+    @Autowired
+    List<CurrencyView> currencyViews;
+
+    @Autowired
+    CurrencyRepository currencyRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    CurrencyCache currencyCache;
+
+    @Autowired
+    CurrencyChangeGeneration currencyChangeGeneration;
+
+    @Autowired(required = false)
+    CurrencyTableImage currencyTableImage;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /** The version of the record applied last per ticker, DELETED after a delete; guarded by this. */
+    private final Map<String, Long> appliedVersions = new HashMap<>();
+
+    /**
+     * Fills every view once the application is ready, from the table image if there is a valid one, from the data
+     * base otherwise, and reports the time from the start of the JVM until the views are filled
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        long start = System.nanoTime();
+        long count = currencyTableImage == null ? -1 : loadImage();
+        String source = "table image";
+        if (count < 0) {
+            count = rebuild();
+            source = "data base";
+        }
+        log.info("Warmed up from the {} with {} records in {} ms, ready {} ms after the start of the JVM", source, count,
+                (System.nanoTime() - start) / 1_000_000, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Refills every view from the data base
+     * @return the number of records read
+     */
+    public synchronized long rebuild() {
+        long start = System.nanoTime();
+        currencyViews.forEach(CurrencyView::clear);
+        appliedVersions.clear();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long count = readOnly.execute(status -> {
+            long read = 0;
+            try (Stream<Currency> currencies = currencyRepository.streamAll(Sort.by(Sort.Direction.ASC, "ticker"))) {
+                for (Currency currency : (Iterable<Currency>) currencies::iterator) {
+                    for (CurrencyView view : currencyViews) {
+                        view.put(currency);
+                    }
+                    appliedVersions.put(currency.getTicker(), currency.getVersion());
+                    entityManager.detach(currency);
+                    read++;
+                }
+            }
+            return read;
+        });
+        log.info("Rebuilt {} views from {} records in {} ms", currencyViews.size(), count, (System.nanoTime() - start) / 1_000_000);
+        return count == null ? 0 : count;
+    }
+
+    private long loadImage() {
+        long generation = currencyChangeGeneration.current();
+        if (generation != 0) {
+            // a record changed since the start, so the image written at the previous shutdown misses a change
+            currencyTableImage.discard();
+            return -1;
+        }
+        currencyViews.forEach(CurrencyView::clear);
+        appliedVersions.clear();
+        int cacheSize = currencyCache.getMaxSize();
+        long[] read = new long[1];
+        long count = currencyTableImage.load(currency -> {
+            for (CurrencyView view : currencyViews) {
+                view.put(currency);
+            }
+            appliedVersions.put(currency.getTicker(), currency.getVersion());
+            // the image is ordered by market cap, so the cache gets the records most likely requested
+            if (read[0]++ < cacheSize) {
+                currencyCache.put(currency);
+            }
+        });
+        if (count < 0 || currencyChangeGeneration.current() != generation) {
+            // a record changed while the image was read might have been cached before its older copy from the image
+            currencyCache.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Applies a committed change to every view, unless a later change of the record was applied already
+     * @param event The change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void apply(CurrencyChangeEvent event) {
+        if (event.getType() == CurrencyChangeEvent.Type.DELETED) {
+            appliedVersions.put(event.getTicker(), DELETED);
+            for (CurrencyView view : currencyViews) {
+                view.remove(event.getTicker());
+            }
+            return;
+        }
+        Currency currency = event.getCurrency();
+        Long applied = appliedVersions.get(event.getTicker());
+        boolean recreated = event.getType() == CurrencyChangeEvent.Type.CREATED && applied != null && applied == DELETED;
+        if (applied != null && !recreated && currency.getVersion() <= applied) {
+            log.debug("Dropped {} of version {}, version {} was applied already", event.getType(), currency.getVersion(),
+                    applied == DELETED ? "DELETED" : applied);
+            return;
+        }
+        appliedVersions.put(event.getTicker(), currency.getVersion());
+        for (CurrencyView view : currencyViews) {
+            view.put(currency);
+        }
+    }
+}
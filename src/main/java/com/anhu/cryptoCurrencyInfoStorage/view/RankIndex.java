@@ -0,0 +1,169 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A RankIndex is an immutable ordered set that knows the position of every key: a treap whose nodes count the keys
+ * below them. Adding or removing a key copies only the O(log n) nodes on its path and returns a new index, so an
+ * index can be read by any number of threads while a writer derives the next one.
+ * Looking up the rank of a key costs O(log n), reading the first n keys O(log n + n).
+ * @param <K> The type of the keys
+ */
+final class RankIndex<K> {
+
+    private static final class Node<K> {
+        final K key;
+        final int priority;
+        final Node<K> left;
+        final Node<K> right;
+        final int size;
+
+        Node(K key, int priority, Node<K> left, Node<K> right) {
+            this.key = key;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node<K> with(Node<K> left, Node<K> right) {
+            return new Node<>(key, priority, left, right);
+        }
+    }
+
+    /** The parts of a tree split around a key. */
+    private static final class Split<K> {
+        final Node<K> before;
+        final Node<K> after;
+
+        Split(Node<K> before, Node<K> after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K> root;
+
+    RankIndex(Comparator<? super K> comparator) {
+        this(comparator, null);
+    }
+
+    private RankIndex(Comparator<? super K> comparator, Node<K> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * @param key A key that is not in this index
+     * @return an index with the keys of this index and key
+     */
+    RankIndex<K> with(K key) {
+        Split<K> parts = split(root, key, false);
+        Node<K> single = new Node<>(key, priority(key), null, null);
+        return new RankIndex<>(comparator, merge(merge(parts.before, single), parts.after));
+    }
+
+    /**
+     * @param key A key
+     * @return an index with the keys of this index except key
+     */
+    RankIndex<K> without(K key) {
+        Split<K> parts = split(root, key, false);
+        Split<K> rest = split(parts.after, key, true);
+        if (rest.before == null) {
+            return this;
+        }
+        return new RankIndex<>(comparator, merge(parts.before, rest.after));
+    }
+
+    /**
+     * @param key A key, in this index or not
+     * @return the number of keys in this index ordered before key
+     */
+    int countBefore(K key) {
+        int count = 0;
+        Node<K> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param n The maximum number of keys
+     * @return the first n keys in order
+     */
+    List<K> first(int n) {
+        List<K> keys = new ArrayList<>(Math.min(n, size()));
+        Deque<Node<K>> path = new ArrayDeque<>();
+        Node<K> node = root;
+        while ((node != null || !path.isEmpty()) && keys.size() < n) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            keys.add(node.key);
+            node = node.right;
+        }
+        return keys;
+    }
+
+    /**
+     * Splits a tree into the keys before key and the others; with inclusive the key itself goes before.
+     */
+    private Split<K> split(Node<K> node, K key, boolean inclusive) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        int comparison = comparator.compare(node.key, key);
+        if (comparison < 0 || (inclusive && comparison == 0)) {
+            Split<K> parts = split(node.right, key, inclusive);
+            return new Split<>(node.with(node.left, parts.before), parts.after);
+        }
+        Split<K> parts = split(node.left, key, inclusive);
+        return new Split<>(parts.before, node.with(parts.after, node.right));
+    }
+
+    /**
+     * Merges two trees of which all keys of before are ordered before those of after.
+     */
+    private Node<K> merge(Node<K> before, Node<K> after) {
+        if (before == null) {
+            return after;
+        }
+        if (after == null) {
+            return before;
+        }
+        if (before.priority >= after.priority) {
+            return before.with(before.left, merge(before.right, after));
+        }
+        return after.with(merge(before, after.left), after.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * A fixed pseudo-random priority per key keeps the treap balanced in expectation, whatever the insert order.
+     */
+    private static int priority(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,44 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import java.util.Objects;
+
+/**
+ * A RankKey orders records by a value and then by ticker, so records with the same value have a unique position.
+ */
+final class RankKey implements Comparable<RankKey> {
+
+    private final long value;
+    private final String ticker;
+
+    RankKey(long value, String ticker) {
+        this.value = value;
+        this.ticker = ticker;
+    }
+
+    long getValue() {
+        return value;
+    }
+
+    String getTicker() {
+        return ticker;
+    }
+
+    @Override
+    public int compareTo(RankKey other) {
+        int byValue = Long.compare(value, other.value);
+        return byValue != 0 ? byValue : ticker.compareTo(other.ticker);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RankKey rankKey = (RankKey) o;
+        return value == rankKey.value && ticker.equals(rankKey.ticker);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, ticker);
+    }
+}
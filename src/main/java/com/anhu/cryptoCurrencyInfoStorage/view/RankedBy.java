@@ -0,0 +1,43 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * The properties the CurrencyLeaderboard ranks the records by.
+ */
+public enum RankedBy {
+    MARKET_CAP("marketCap", Currency::getMarketCap),
+    NUMBER_OF_COINS("numberOfCoins", Currency::getNumberOfCoins);
+
+    private final String property;
+    private final ToLongFunction<Currency> value;
+
+    RankedBy(String property, ToLongFunction<Currency> value) {
+        this.property = property;
+        this.value = value;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    long valueOf(Currency currency) {
+        return value.applyAsLong(currency);
+    }
+
+    /**
+     * @param property The name of a property of a Currency
+     * @return the ranking by that property
+     * @throws IllegalArgumentException when the records are not ranked by the property
+     */
+    public static RankedBy fromProperty(String property) {
+        for (RankedBy rankedBy : values()) {
+            if (rankedBy.property.equals(property)) {
+                return rankedBy;
+            }
+        }
+        throw new IllegalArgumentException("can not rank by " + property + ", expected marketCap or numberOfCoins");
+    }
+}
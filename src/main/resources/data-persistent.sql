@@ -0,0 +1,7 @@
+INSERT INTO currencies (ticker, name, number_of_coins, market_cap)
+SELECT * FROM (VALUES
+('BTC', 'Bitcoin', 16770000, 189580000000),
+('ETH', 'Ethereum', 96710000, 69280000000),
+('XRP', 'Ripple', 38590000000, 64750000000),
+('BCH', 'BitcoinCash', 16670000, 69020000000))
+WHERE NOT EXISTS (SELECT 1 FROM currencies);
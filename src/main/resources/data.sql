@@ -1,10 +1,42 @@
 DROP TABLE IF EXISTS currencies;
+DROP TABLE IF EXISTS currency_snapshots;
+DROP SEQUENCE IF EXISTS currency_snapshots_seq;
+DROP TABLE IF EXISTS currency_rollups;
 
 CREATE TABLE currencies (
                            ticker VARCHAR(10) PRIMARY KEY NOT NULL,
                            name VARCHAR(250) NOT NULL,
                            number_of_coins long NOT NULL,
-                           market_cap long NOT NULL
+                           market_cap long NOT NULL,
+                           version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX idx_currencies_name ON currencies (name, ticker);
+CREATE INDEX idx_currencies_number_of_coins ON currencies (number_of_coins, ticker);
+CREATE INDEX idx_currencies_market_cap ON currencies (market_cap, ticker);
+
+CREATE TABLE currency_snapshots (
+                           id BIGINT PRIMARY KEY NOT NULL,
+                           ticker VARCHAR(10) NOT NULL,
+                           recorded_at BIGINT NOT NULL,
+                           number_of_coins BIGINT NOT NULL,
+                           market_cap BIGINT NOT NULL
+);
+
+CREATE SEQUENCE currency_snapshots_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX idx_currency_snapshots_ticker_recorded_at ON currency_snapshots (ticker, recorded_at);
+
+CREATE TABLE currency_rollups (
+                           ticker VARCHAR(10) NOT NULL,
+                           bucket_interval VARCHAR(10) NOT NULL,
+                           bucket_start BIGINT NOT NULL,
+                           open_value BIGINT NOT NULL,
+                           high_value BIGINT NOT NULL,
+                           low_value BIGINT NOT NULL,
+                           close_value BIGINT NOT NULL,
+                           sample_count BIGINT NOT NULL,
+                           PRIMARY KEY (ticker, bucket_interval, bucket_start)
 );
 
 INSERT INTO currencies (ticker, name, number_of_coins, market_cap) VALUES
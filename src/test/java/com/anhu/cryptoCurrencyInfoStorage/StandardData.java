@@ -37,4 +37,28 @@ public class StandardData {
         }
         return currencies;
     }
+
+    /**
+     * @param ticker The ticker of the record
+     * @param marketCap The market capitalization of the record
+     * @return a record named after its ticker, with 1000 coins
+     */
+    public static Currency currency(String ticker, long marketCap) {
+        return currency(ticker, marketCap, 1000);
+    }
+
+    /**
+     * @param ticker The ticker of the record
+     * @param marketCap The market capitalization of the record
+     * @param numberOfCoins The number of coins of the record
+     * @return a record named after its ticker
+     */
+    public static Currency currency(String ticker, long marketCap, long numberOfCoins) {
+        return new Currency.Builder()
+                .ticker(ticker)
+                .name(ticker + " coin")
+                .numberOfCoins(numberOfCoins)
+                .marketCap(marketCap)
+                .build();
+    }
 }
@@ -0,0 +1,82 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveLimitTest {
+
+    private static final long TARGET_NANOS = 1_000_000_000L;
+
+    @Test
+    public void testTryAcquire_limitReached_shouldRejectUntilReleased() {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, TARGET_NANOS, 0.5);
+
+        //when
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+        limit.release(0, false);
+        boolean afterRelease = limit.tryAcquire();
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(afterRelease).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRelease_fastResponsesOfFullLimit_shouldRaiseLimit() {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, TARGET_NANOS, 0.5);
+
+        //when
+        for (int round = 0; round < 20; round++) {
+            while (limit.tryAcquire()) {
+            }
+            int admitted = limit.getInFlight();
+            for (int response = 0; response < admitted; response++) {
+                limit.release(TARGET_NANOS / 2, false);
+            }
+        }
+
+        //then
+        assertThat(limit.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    public void testRelease_slowResponses_shouldDecreaseLimitOncePerTargetLatency() {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(8, 2, 10, TARGET_NANOS, 0.5);
+        for (int request = 0; request < 8; request++) {
+            limit.tryAcquire();
+        }
+
+        //when
+        for (int response = 0; response < 8; response++) {
+            limit.release(2 * TARGET_NANOS, false);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testRelease_serverErrors_shouldNotGoBelowMinLimit() throws Exception {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(8, 3, 10, 1, 0.5);
+
+        //when
+        for (int response = 0; response < 5; response++) {
+            limit.tryAcquire();
+            Thread.sleep(1);
+            limit.release(0, true);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,87 @@
+package com.anhu.cryptoCurrencyInfoStorage.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Every request names its client, so the tests do not share a token bucket.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admissiontest",
+        "currency.admission.enabled=true",
+        "currency.admission.point-read.initial-limit=8",
+        "currency.admission.point-read.min-limit=8",
+        "currency.admission.retry-after-seconds=2",
+        "currency.admission.client.requests-per-second=0.01",
+        "currency.admission.client.burst=2",
+        "currency.admission.client.header=X-Client-Id"})
+@AutoConfigureMockMvc
+public class AdmissionControlFilterTest {
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+    @Test
+    public void testFilter_pointReadLimitReached_shouldShedPointReadsOnly() throws Exception {
+        //given
+        AdaptiveLimit limit = admissionControlFilter.getLimit(EndpointClass.POINT_READ);
+        int taken = 0;
+        while (limit.tryAcquire()) {
+            taken++;
+        }
+
+        //when
+        MockHttpServletResponse pointRead;
+        MockHttpServletResponse listing;
+        MockHttpServletResponse health;
+        try {
+            pointRead = mockMvc.perform(get("/api/currencies/BTC").header(CLIENT_HEADER, "shed-1"))
+                    .andReturn().getResponse();
+            listing = mockMvc.perform(get("/api/currencies").header(CLIENT_HEADER, "shed-2"))
+                    .andReturn().getResponse();
+            health = mockMvc.perform(get("/actuator/health")).andReturn().getResponse();
+        } finally {
+            for (int release = 0; release < taken; release++) {
+                limit.release(0, false);
+            }
+        }
+
+        //then
+        assertThat(pointRead.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(pointRead.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(listing.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(health.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void testFilter_clientOverRate_shouldGiveTooManyRequestsStatus() throws Exception {
+        //given
+        mockMvc.perform(get("/api/currencies/BTC").header(CLIENT_HEADER, "rate"));
+        mockMvc.perform(get("/api/currencies/BTC").header(CLIENT_HEADER, "rate"));
+
+        //when
+        MockHttpServletResponse overRate = mockMvc.perform(get("/api/currencies/BTC").header(CLIENT_HEADER, "rate"))
+                .andReturn().getResponse();
+        MockHttpServletResponse otherClient = mockMvc.perform(get("/api/currencies/BTC").header(CLIENT_HEADER, "other"))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(overRate.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(Long.parseLong(overRate.getHeader(HttpHeaders.RETRY_AFTER))).isGreaterThan(1);
+        assertThat(otherClient.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+}
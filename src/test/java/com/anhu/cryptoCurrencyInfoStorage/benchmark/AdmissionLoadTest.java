@@ -0,0 +1,176 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the admission control. The servlet stack is overloaded twice, first without and then with admission
+ * control, by connections that send their next request as soon as the previous one is answered. Four out of five
+ * requests get a single record, the others a deep page of records sorted by name, which holds a JDBC connection for
+ * long. A probe meanwhile gets the health endpoint ten times per second.
+ * Per run the p99 of the answered point reads, listings and health checks is printed, next to the number of requests
+ * shed with 503 or 429. Without admission control every request queues for the pools; with it the requests over the
+ * limits are shed at once, and the answered ones keep a p99 close to that of a server without overload.
+ * Arguments: [connections=2000] [seconds=30] [rows=100000], started like the benchmarks with
+ * -Dbenchmark.main=com.anhu.cryptoCurrencyInfoStorage.benchmark.AdmissionLoadTest -Djmh.args="2000 30".
+ */
+public class AdmissionLoadTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int WARM_UP_SECONDS = 10;
+    private static final long PROBE_INTERVAL_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        run(false, connections, seconds, rows);
+        run(true, connections, seconds, rows);
+    }
+
+    private static void run(boolean admission, int connections, int seconds, int rows) throws Exception {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET, rows,
+                List.of("currency.admission.enabled=" + admission));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+
+            load(client, baseUrl, connections, WARM_UP_SECONDS, rows);
+            Outcome outcome = load(client, baseUrl, connections, seconds, rows);
+            String name = admission ? "admission" : "none";
+            print(name, "point", outcome.pointReads, seconds);
+            print(name, "listing", outcome.listings, seconds);
+            print(name, "health", outcome.health, seconds);
+            System.out.printf("%-9s %d requests shed, %d errors%n", name, outcome.shed, outcome.pointReads.errors);
+        } finally {
+            executor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static void print(String name, String kind, HttpLoadGenerator.Result result, int seconds) {
+        System.out.printf("%-9s %-7s %8.0f answered/s, p50 %7.2f ms, p99 %8.2f ms, max %8.2f ms%n",
+                name, kind, result.completed / (double) seconds, result.percentile(0.5), result.percentile(0.99),
+                result.percentile(1.0));
+    }
+
+    private static Outcome load(HttpClient client, String baseUrl, int connections, int seconds, int rows)
+            throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(connections);
+        List<HttpLoadGenerator.LatencyLog> pointReads = new ArrayList<>(connections);
+        List<HttpLoadGenerator.LatencyLog> listings = new ArrayList<>(connections);
+        AtomicLong shed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        for (int connection = 0; connection < connections; connection++) {
+            Connection logs = new Connection();
+            pointReads.add(logs.pointReads);
+            listings.add(logs.listings);
+            sendNext(client, baseUrl, rows, end, logs, shed, errors, done);
+        }
+
+        HttpLoadGenerator.LatencyLog health = new HttpLoadGenerator.LatencyLog();
+        long healthErrors = 0;
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(30)).GET().build();
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(probe, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    health.add(System.nanoTime() - start);
+                } else {
+                    healthErrors++;
+                }
+            } catch (Exception e) {
+                healthErrors++;
+            }
+            Thread.sleep(PROBE_INTERVAL_MILLIS);
+        }
+
+        done.await(seconds + 60L, TimeUnit.SECONDS);
+        return new Outcome(
+                new HttpLoadGenerator.Result(pointReads, errors.get()),
+                new HttpLoadGenerator.Result(listings, errors.get()),
+                new HttpLoadGenerator.Result(List.of(health), healthErrors),
+                shed.get());
+    }
+
+    private static void sendNext(HttpClient client, String baseUrl, int rows, long end, Connection connection,
+                                 AtomicLong shed, AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= end) {
+            done.countDown();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean pointRead = random.nextInt(5) > 0;
+        String path;
+        if (pointRead) {
+            path = "/api/currencies/" + BenchmarkApplication.ticker(random.nextInt(rows));
+        } else {
+            // the last pages by offset, so the data base reads most of the index for every page
+            int pages = (rows + PAGE_SIZE - 1) / PAGE_SIZE;
+            path = "/api/currencies?page=" + (pages - 1 - random.nextInt(Math.max(1, pages / 10))) + "&size=" + PAGE_SIZE +
+                    "&sort=name&sortDirection=asc";
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        errors.incrementAndGet();
+                    } else if (response.statusCode() == 503 || response.statusCode() == 429) {
+                        shed.incrementAndGet();
+                    } else if (response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    } else {
+                        (pointRead ? connection.pointReads : connection.listings).add(System.nanoTime() - start);
+                    }
+                    sendNext(client, baseUrl, rows, end, connection, shed, errors, done);
+                });
+    }
+
+    /**
+     * The latencies of a single connection by kind of request.
+     */
+    private static final class Connection {
+        private final HttpLoadGenerator.LatencyLog pointReads = new HttpLoadGenerator.LatencyLog();
+        private final HttpLoadGenerator.LatencyLog listings = new HttpLoadGenerator.LatencyLog();
+    }
+
+    private static final class Outcome {
+
+        private final HttpLoadGenerator.Result pointReads;
+        private final HttpLoadGenerator.Result listings;
+        private final HttpLoadGenerator.Result health;
+        private final long shed;
+
+        private Outcome(HttpLoadGenerator.Result pointReads, HttpLoadGenerator.Result listings,
+                        HttpLoadGenerator.Result health, long shed) {
+            this.pointReads = pointReads;
+            this.listings = listings;
+            this.health = health;
+            this.shed = shed;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.CryptoCurrencyInfoStorageApplication;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyViewMaintainer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the application on its own in-memory data base, filled with a given number of generated records.
+ */
+final class BenchmarkApplication {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int rows, String... profiles) {
+        return start(webApplicationType, rows, List.of(), profiles);
+    }
+
+    /**
+     * @param properties Properties in addition to those of the benchmark, as name=value
+     */
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int rows, List<String> properties,
+                                                String... profiles) {
+        String database = "benchmark" + System.nanoTime();
+        if (Arrays.asList(profiles).contains("reactive")) {
+            // JDBC and R2DBC share the data base, so it has to outlive the closing of the connections of either
+            database += ";DB_CLOSE_DELAY=-1";
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CryptoCurrencyInfoStorageApplication.class)
+                .web(webApplicationType)
+                .profiles(profiles)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database,
+                        "spring.r2dbc.url=r2dbc:h2:mem:///" + database,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "server.port=0")
+                .properties(properties.toArray(new String[0]))
+                .run();
+        fill(context.getBean(JdbcTemplate.class), rows);
+        // the records are inserted behind the back of the views, which were built at startup
+        context.getBean(CurrencyViewMaintainer.class).rebuild();
+        return context;
+    }
+
+    /**
+     * @param index The index of a generated record, 0 &lt;= index &lt; rows
+     * @return the ticker of the generated record
+     */
+    static String ticker(int index) {
+        return "B" + Integer.toString(index, 36).toUpperCase();
+    }
+
+    static long numberOfCoins(int index) {
+        return 1_000_000L + index * 31L;
+    }
+
+    static long marketCap(int index) {
+        // spread the market caps, so sorting on them does not follow the insert order
+        return (index * 7919L % 1_000_003L) * 1_000_000L;
+    }
+
+    /**
+     * Replaces all records with the given number of generated records
+     */
+    static void fill(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.update("DELETE FROM currencies");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int index = 0; index < rows; index++) {
+            batch.add(new Object[]{ticker(index), "Coin " + index, numberOfCoins(index), marketCap(index)});
+            if (batch.size() == INSERT_BATCH_SIZE || index == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO currencies (ticker, name, number_of_coins, market_cap) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
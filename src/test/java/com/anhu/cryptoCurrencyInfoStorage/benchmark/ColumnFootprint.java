@@ -0,0 +1,41 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyColumns;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the retained heap of the generated records as a list of Currency, as the repository returns them, and as
+ * CurrencyColumns, measured by walking the object graphs with JOL. The entities are measured detached: managed
+ * entities also hold a loaded state array and an entity entry in the persistence context.
+ * Arguments: [rows=1000000]
+ */
+public class ColumnFootprint {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Currency> currencies = new ArrayList<>(rows);
+        CurrencyColumns columns = new CurrencyColumns();
+        for (int index = 0; index < rows; index++) {
+            Currency currency = new Currency.Builder()
+                    .ticker(BenchmarkApplication.ticker(index))
+                    .name("Coin " + index)
+                    .numberOfCoins(BenchmarkApplication.numberOfCoins(index))
+                    .marketCap(BenchmarkApplication.marketCap(index))
+                    .build();
+            currencies.add(currency);
+            columns.put(currency);
+        }
+
+        long entityBytes = GraphLayout.parseInstance(currencies).totalSize();
+        // the ticker strings are shared with the entities, so they are counted once for the columns as well
+        long columnBytes = GraphLayout.parseInstance(columns).totalSize();
+        System.out.printf("rows                %,d%n", rows);
+        System.out.printf("List<Currency>      %,d bytes, %d bytes per row%n", entityBytes, entityBytes / rows);
+        System.out.printf("CurrencyColumns     %,d bytes, %d bytes per row%n", columnBytes, columnBytes / rows);
+        System.out.printf("numeric columns     %,d bytes, %d bytes per row%n", rows * 16L, 16);
+    }
+}
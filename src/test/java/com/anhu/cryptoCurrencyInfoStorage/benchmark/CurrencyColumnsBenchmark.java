@@ -0,0 +1,73 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketScan;
+import com.anhu.cryptoCurrencyInfoStorage.view.ColumnFilter;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a filtered aggregate over the generated records, comparing a stream over the entities with a scan of
+ * CurrencyColumns. Both are filled directly, neither involves the data base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencyColumnsBenchmark {
+
+    private static final long MIN_MARKET_CAP = 250_000L * 1_000_000L;
+    private static final long MAX_NUMBER_OF_COINS = 20_000_000L;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private List<Currency> currencies;
+    private CurrencyColumns columns;
+    private ColumnFilter filter;
+
+    @Setup
+    public void setUp() {
+        currencies = new ArrayList<>(rows);
+        columns = new CurrencyColumns();
+        for (int index = 0; index < rows; index++) {
+            Currency currency = new Currency.Builder()
+                    .ticker(BenchmarkApplication.ticker(index))
+                    .name("Coin " + index)
+                    .numberOfCoins(BenchmarkApplication.numberOfCoins(index))
+                    .marketCap(BenchmarkApplication.marketCap(index))
+                    .build();
+            currencies.add(currency);
+            columns.put(currency);
+        }
+        filter = new ColumnFilter(MIN_MARKET_CAP, Long.MAX_VALUE, Long.MIN_VALUE, MAX_NUMBER_OF_COINS);
+    }
+
+    @Benchmark
+    public BigInteger entities() {
+        return currencies.stream()
+                .filter(currency -> currency.getMarketCap() >= MIN_MARKET_CAP && currency.getNumberOfCoins() <= MAX_NUMBER_OF_COINS)
+                .map(currency -> BigInteger.valueOf(currency.getMarketCap()))
+                .reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    @Benchmark
+    public BigInteger entitiesParallel() {
+        return currencies.parallelStream()
+                .filter(currency -> currency.getMarketCap() >= MIN_MARKET_CAP && currency.getNumberOfCoins() <= MAX_NUMBER_OF_COINS)
+                .map(currency -> BigInteger.valueOf(currency.getMarketCap()))
+                .reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    @Benchmark
+    public MarketScan columns() {
+        return columns.scan(filter);
+    }
+}
@@ -0,0 +1,65 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures full CurrencyController requests, including filters and message conversion, through MockMvc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencyControllerBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"4", "10000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET, rows);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getCurrencyByTicker() throws Exception {
+        String ticker = BenchmarkApplication.ticker(ThreadLocalRandom.current().nextInt(rows));
+        return mockMvc.perform(get("/api/currencies/" + ticker).accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getFirstPageByMarketCap() throws Exception {
+        return mockMvc.perform(get("/api/currencies?page=0&size=" + PAGE_SIZE + "&sort=marketCap&sortDirection=desc")
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getLastPageByMarketCap() throws Exception {
+        int lastPage = (rows - 1) / PAGE_SIZE;
+        return mockMvc.perform(get("/api/currencies?page=" + lastPage + "&size=" + PAGE_SIZE + "&sort=marketCap&sortDirection=desc")
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+}
@@ -0,0 +1,67 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures creates per second from concurrent threads, comparing the check-then-save sequence the controller used to
+ * run, findById and a merging save, with the single INSERT of CurrencyRepository.insert.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencyCreateBenchmark {
+
+    @Param({"4", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CurrencyRepository repository;
+    private final AtomicLong nextTicker = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, rows);
+        repository = context.getBean(CurrencyRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Currency checkThenSave() {
+        Currency currency = newCurrency();
+        if (repository.findById(currency.getTicker()).isPresent()) {
+            return null;
+        }
+        return repository.save(currency);
+    }
+
+    @Benchmark
+    public Currency insert() {
+        return repository.insert(newCurrency());
+    }
+
+    private Currency newCurrency() {
+        // the generated records start with B, so these tickers never collide with them
+        String ticker = "N" + Long.toString(nextTicker.getAndIncrement(), 36).toUpperCase();
+        return new Currency.Builder()
+                .ticker(ticker)
+                .name(ticker + " coin")
+                .numberOfCoins(1000)
+                .marketCap(1000)
+                .build();
+    }
+}
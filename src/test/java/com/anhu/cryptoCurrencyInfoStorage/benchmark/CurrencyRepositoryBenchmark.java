@@ -0,0 +1,63 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CurrencyRepository queries used by the controller against the embedded H2 data base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencyRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"4", "10000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CurrencyRepository repository;
+    private Sort marketCapSort;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, rows);
+        repository = context.getBean(CurrencyRepository.class);
+        marketCapSort = Sort.by(Sort.Direction.DESC, "marketCap", "ticker");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Currency> findById() {
+        return repository.findById(BenchmarkApplication.ticker(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public Page<Currency> findAllFirstPage() {
+        return repository.findAll(PageRequest.of(0, PAGE_SIZE, marketCapSort));
+    }
+
+    @Benchmark
+    public Page<Currency> findAllRandomPage() {
+        int pages = (rows + PAGE_SIZE - 1) / PAGE_SIZE;
+        return repository.findAll(PageRequest.of(ThreadLocalRandom.current().nextInt(pages), PAGE_SIZE, marketCapSort));
+    }
+}
@@ -0,0 +1,59 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencySearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searches of the CurrencySearchIndex filled with the generated records, by ticker prefix, by name word and
+ * with a typing error. The index is filled directly, the search does not involve the data base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencySearchBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private CurrencySearchIndex index;
+    private String tickerPrefix;
+    private String misspelledTicker;
+
+    @Setup
+    public void setUp() {
+        index = new CurrencySearchIndex();
+        for (int row = 0; row < rows; row++) {
+            index.put(new Currency.Builder()
+                    .ticker(BenchmarkApplication.ticker(row))
+                    .name("Coin " + row)
+                    .numberOfCoins(BenchmarkApplication.numberOfCoins(row))
+                    .marketCap(BenchmarkApplication.marketCap(row))
+                    .build());
+        }
+        String ticker = BenchmarkApplication.ticker(rows / 2);
+        tickerPrefix = ticker.substring(0, ticker.length() - 1);
+        misspelledTicker = ticker.substring(0, ticker.length() - 1) + "_";
+    }
+
+    @Benchmark
+    public List<Currency> tickerPrefix() {
+        return index.search(tickerPrefix, 10, false);
+    }
+
+    @Benchmark
+    public List<Currency> nameWord() {
+        return index.search("coin", 10, false);
+    }
+
+    @Benchmark
+    public List<Currency> fuzzyTicker() {
+        return index.search(misspelledTicker, 10, true);
+    }
+}
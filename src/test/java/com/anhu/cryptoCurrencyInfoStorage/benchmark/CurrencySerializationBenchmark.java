@@ -0,0 +1,52 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation and JSON serialization of a single Currency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CurrencySerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Currency currency;
+    private Currency.Builder builder;
+
+    @Setup
+    public void setUp() {
+        currency = StandardData.getStandardCurrencies()[0];
+        builder = new Currency.Builder()
+                .ticker(currency.getTicker())
+                .name(currency.getName())
+                .numberOfCoins(currency.getNumberOfCoins())
+                .marketCap(currency.getMarketCap());
+    }
+
+    @Benchmark
+    public String toJson() {
+        return currency.toJson();
+    }
+
+    @Benchmark
+    public Currency build() {
+        return builder.build();
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(currency);
+    }
+}
@@ -0,0 +1,164 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the servlet stack against the reactive stack over real HTTP connections. Every connection is a client
+ * that sends its next request as soon as the previous one is answered, so the number of connections is the number of
+ * requests in flight. Four out of five requests get a single record, the others a page of records by market cap.
+ * Throughput and latency percentiles are printed per stack after a warm up.
+ * Arguments: [connections=1000] [seconds=30] [rows=10000] [stack=both|mvc|reactive], started like the benchmarks
+ * with -Dbenchmark.main=com.anhu.cryptoCurrencyInfoStorage.benchmark.HttpLoadGenerator -Djmh.args="1000 30".
+ */
+public class HttpLoadGenerator {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int WARM_UP_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        String stack = args.length > 3 ? args[3] : "both";
+
+        if (!stack.equals("reactive")) {
+            run("mvc", WebApplicationType.SERVLET, connections, seconds, rows);
+        }
+        if (!stack.equals("mvc")) {
+            run("reactive", WebApplicationType.REACTIVE, connections, seconds, rows, "reactive");
+        }
+    }
+
+    private static void run(String name, WebApplicationType webApplicationType, int connections, int seconds, int rows,
+                            String... profiles) throws InterruptedException {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(webApplicationType, rows, profiles);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+
+            load(client, baseUrl, connections, WARM_UP_SECONDS, rows);
+            Result result = load(client, baseUrl, connections, seconds, rows);
+            System.out.printf("%-8s %5d connections: %8.0f requests/s, p50 %6.2f ms, p99 %7.2f ms, p99.9 %7.2f ms," +
+                            " max %7.2f ms, %d errors%n",
+                    name, connections, result.completed / (double) seconds, result.percentile(0.5), result.percentile(0.99),
+                    result.percentile(0.999), result.percentile(1.0), result.errors);
+        } finally {
+            executor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static Result load(HttpClient client, String baseUrl, int connections, int seconds, int rows)
+            throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(connections);
+        List<LatencyLog> logs = new ArrayList<>(connections);
+        AtomicLong errors = new AtomicLong();
+        for (int connection = 0; connection < connections; connection++) {
+            LatencyLog log = new LatencyLog();
+            logs.add(log);
+            sendNext(client, baseUrl, rows, end, log, errors, done);
+        }
+        done.await(seconds + 60L, TimeUnit.SECONDS);
+        return new Result(logs, errors.get());
+    }
+
+    private static void sendNext(HttpClient client, String baseUrl, int rows, long end, LatencyLog log,
+                                 AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= end) {
+            done.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(nextRequest(baseUrl, rows), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null || response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    } else {
+                        log.add(System.nanoTime() - start);
+                    }
+                    sendNext(client, baseUrl, rows, end, log, errors, done);
+                });
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, int rows) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path;
+        if (random.nextInt(5) > 0) {
+            path = "/currencies/" + BenchmarkApplication.ticker(random.nextInt(rows));
+        } else {
+            int pages = (rows + PAGE_SIZE - 1) / PAGE_SIZE;
+            path = "/currencies?page=" + random.nextInt(pages) + "&size=" + PAGE_SIZE + "&sort=marketCap&sortDirection=desc";
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    /**
+     * The latencies of a single connection, which only has one request in flight, so it needs no synchronization.
+     */
+    static final class LatencyLog {
+
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void add(long latency) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latency;
+        }
+    }
+
+    static final class Result {
+
+        private final long[] sortedNanos;
+        final long completed;
+        final long errors;
+
+        Result(List<LatencyLog> logs, long errors) {
+            int total = 0;
+            for (LatencyLog log : logs) {
+                total += log.size;
+            }
+            long[] nanos = new long[total];
+            int offset = 0;
+            for (LatencyLog log : logs) {
+                System.arraycopy(log.nanos, 0, nanos, offset, log.size);
+                offset += log.size;
+            }
+            Arrays.sort(nanos);
+            this.sortedNanos = nanos;
+            this.completed = total;
+            this.errors = errors;
+        }
+
+        double percentile(double percentile) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.CryptoCurrencyInfoStorageApplication;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyImportService;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportFormat;
+import com.anhu.cryptoCurrencyInfoStorage.service.ImportProgress;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * Measures the rows per second of the import pipeline for a generated CSV file, for 1 parser and writer up to the
+ * given numbers, each on a fresh in-memory data base. The file is generated while it is read, so it is never held in
+ * memory, and the heap in use after the import is printed to show the pipeline does not hold on to the file.
+ * Arguments: [rows=1000000] [maxParsers=available processors] [maxWriters=4]
+ */
+public class ImportThroughputTimer {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxParsers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int maxWriters = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        System.out.printf("rows %,d%n", rows);
+        System.out.println("parsers  writers      rows/s   used heap MB");
+        for (int parsers = 1; parsers <= maxParsers; parsers *= 2) {
+            for (int writers = 1; writers <= maxWriters; writers *= 2) {
+                try (ConfigurableApplicationContext context = start(parsers, writers)) {
+                    System.gc();
+                    ImportProgress report = context.getBean(CurrencyImportService.class)
+                            .importCurrencies(csv(rows), ImportFormat.CSV);
+                    Runtime runtime = Runtime.getRuntime();
+                    System.out.printf("%7d  %7d  %,10d   %,12d%n", parsers, writers, report.getRowsPerSecond(),
+                            (runtime.totalMemory() - runtime.freeMemory()) / (1 << 20));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a CSV file of rows generated records, one line generated per read
+     */
+    private static InputStream csv(int rows) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int row;
+
+            @Override
+            public boolean hasMoreElements() {
+                return row < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String line = BenchmarkApplication.ticker(row) + ",Coin " + row + "," +
+                        BenchmarkApplication.numberOfCoins(row) + "," + BenchmarkApplication.marketCap(row) + "\n";
+                row++;
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private static ConfigurableApplicationContext start(int parsers, int writers) {
+        return new SpringApplicationBuilder(CryptoCurrencyInfoStorageApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:import" + parsers + "x" + writers,
+                        "spring.jpa.show-sql=false",
+                        "currency.import.parsers=" + parsers,
+                        "currency.import.writers=" + writers,
+                        "logging.level.root=WARN",
+                        "server.port=0")
+                .run();
+    }
+}
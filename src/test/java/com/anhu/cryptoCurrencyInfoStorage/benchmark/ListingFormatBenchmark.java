@@ -0,0 +1,103 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyJsonWriter;
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyProtobuf;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the encoding of the response of getAllCurrencies and the decoding of its records per format of the content
+ * negotiation: JSON as written by the CurrencyJsonWriter and read by Jackson, Smile and CBOR through Jackson, and
+ * Protobuf through CurrencyProtobuf. The bytes on the wire per format, plain and gzipped, are printed at the setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListingFormatBenchmark {
+
+    @Param({"20", "10000"})
+    public int rows;
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    public String format;
+
+    private final CurrencyJsonWriter currencyJsonWriter = new CurrencyJsonWriter(8192);
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectMapper objectMapper;
+    private CurrencyListing listing;
+    private byte[] encoded;
+
+    /**
+     * The records of a listing, as a client reads them.
+     */
+    public static class Body {
+        public List<Currency.Builder> currencies;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Currency> currencies = new ArrayList<>(rows);
+        for (int index = 0; index < rows; index++) {
+            currencies.add(new Currency.Builder()
+                    .ticker(BenchmarkApplication.ticker(index))
+                    .name("Coin " + index)
+                    .numberOfCoins(BenchmarkApplication.numberOfCoins(index))
+                    .marketCap(BenchmarkApplication.marketCap(index))
+                    .build());
+        }
+        listing = CurrencyListing.ofCursor(currencies, BenchmarkApplication.ticker(rows), (long) rows);
+        switch (format) {
+            case "smile": objectMapper = Jackson2ObjectMapperBuilder.smile().build(); break;
+            case "cbor": objectMapper = Jackson2ObjectMapperBuilder.cbor().build(); break;
+            default: objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encode(out);
+        encoded = out.toByteArray();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%-8s %7d rows: %10d bytes, %10d bytes gzipped%n", format, rows, encoded.length, gzipped.size());
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        encode(sink);
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        if (format.equals("protobuf")) {
+            return CurrencyProtobuf.readCurrencies(new ByteArrayInputStream(encoded)).size();
+        }
+        return objectMapper.readValue(encoded, Body.class).currencies.size();
+    }
+
+    private void encode(OutputStream out) throws IOException {
+        switch (format) {
+            case "json": currencyJsonWriter.write(listing, out); break;
+            case "protobuf": CurrencyProtobuf.write(listing, out); break;
+            default: objectMapper.writeValue(out, listing);
+        }
+    }
+}
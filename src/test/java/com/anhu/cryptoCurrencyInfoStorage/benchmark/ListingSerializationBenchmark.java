@@ -0,0 +1,71 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyJsonWriter;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of the response of getAllCurrencies for a table of a given size:
+ * the former Jackson mapping of a response map, Jackson mapping of a CurrencyListing and the CurrencyJsonWriter.
+ * Run with -prof gc to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListingSerializationBenchmark {
+
+    @Param({"4", "10000", "1000000"})
+    public int rows;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CurrencyJsonWriter currencyJsonWriter = new CurrencyJsonWriter(8192);
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private Map<String, Object> response;
+    private CurrencyListing listing;
+
+    @Setup
+    public void setUp() {
+        List<Currency> currencies = new ArrayList<>(rows);
+        for (int index = 0; index < rows; index++) {
+            currencies.add(new Currency.Builder()
+                    .ticker(BenchmarkApplication.ticker(index))
+                    .name("Coin " + index)
+                    .numberOfCoins(BenchmarkApplication.numberOfCoins(index))
+                    .marketCap(BenchmarkApplication.marketCap(index))
+                    .build());
+        }
+        response = new HashMap<>();
+        response.put("currencies", currencies);
+        listing = CurrencyListing.of(currencies);
+    }
+
+    @Benchmark
+    public void jacksonResponseMap() throws IOException {
+        objectMapper.writeValue(sink, response);
+    }
+
+    @Benchmark
+    public void jacksonListing() throws IOException {
+        objectMapper.writeValue(sink, listing);
+    }
+
+    @Benchmark
+    public void currencyJsonWriterListing() throws IOException {
+        currencyJsonWriter.write(listing, sink);
+    }
+}
@@ -0,0 +1,64 @@
+package com.anhu.cryptoCurrencyInfoStorage.benchmark;
+
+import com.anhu.cryptoCurrencyInfoStorage.CryptoCurrencyInfoStorageApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from the start of the application until it is ready, views filled, with the persistent profile
+ * on a data base file with a given number of generated records: once warming up from the data base and once from the
+ * table image written at the previous shutdown. Every start runs in this JVM, so class loading is only paid by the
+ * first, which only fills the data base.
+ * Arguments: [rows=1000000]
+ */
+public class WarmRestartTimer {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("warm-restart");
+        try {
+            try (ConfigurableApplicationContext context = start(directory, false)) {
+                BenchmarkApplication.fill(context.getBean(JdbcTemplate.class), rows);
+            }
+            long fromDataBase = timeStart(directory, false);
+            // this start has the image enabled, so its shutdown writes the image
+            timeStart(directory, true);
+            long fromImage = timeStart(directory, true);
+            System.out.printf("rows                  %,d%n", rows);
+            System.out.printf("ready from data base  %,d ms%n", fromDataBase);
+            System.out.printf("ready from image      %,d ms%n", fromImage);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static long timeStart(Path directory, boolean tableImage) {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = start(directory, tableImage)) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path directory, boolean tableImage) {
+        return new SpringApplicationBuilder(CryptoCurrencyInfoStorageApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("persistent")
+                .properties(
+                        "currency.storage.directory=" + directory.toAbsolutePath(),
+                        "currency.table-image.enabled=" + tableImage,
+                        "logging.level.root=WARN",
+                        "logging.level.com.anhu.cryptoCurrencyInfoStorage.view=INFO",
+                        "server.port=0")
+                .run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.anhu.cryptoCurrencyInfoStorage.cache;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testGet_afterPut_shouldHitAndReturnCurrency() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency currency = StandardData.getStandardCurrencies()[0];
+
+        //when
+        cache.put(currency);
+
+        //then
+        assertThat(cache.get(currency.getTicker())).contains(currency);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isZero();
+    }
+
+    @Test
+    public void testGet_unknownTicker_shouldMiss() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+
+        //when
+        boolean present = cache.get("nonExistentTicker").isPresent();
+
+        //then
+        assertThat(present).isFalse();
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPut_overMaxSize_shouldEvictLeastRecentlyUsed() {
+        //given
+        CurrencyCache cache = new CurrencyCache(2, 1000, now::get);
+        Currency[] currencies = StandardData.getStandardCurrencies();
+        cache.put(currencies[0]);
+        cache.put(currencies[1]);
+        cache.get(currencies[0].getTicker());
+
+        //when
+        cache.put(currencies[2]);
+
+        //then
+        assertThat(cache.get(currencies[1].getTicker())).isEmpty();
+        assertThat(cache.get(currencies[0].getTicker())).contains(currencies[0]);
+        assertThat(cache.get(currencies[2].getTicker())).contains(currencies[2]);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+        assertThat(cache.stats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGet_afterTtl_shouldExpireEntry() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency currency = StandardData.getStandardCurrencies()[0];
+        cache.put(currency);
+
+        //when
+        now.addAndGet(1_000_000_000L);
+
+        //then
+        assertThat(cache.get(currency.getTicker())).isEmpty();
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+        assertThat(cache.stats().getSize()).isZero();
+    }
+
+    @Test
+    public void testInvalidate_shouldRemoveEntry() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency currency = StandardData.getStandardCurrencies()[0];
+        cache.put(currency);
+
+        //when
+        cache.invalidate(currency.getTicker());
+
+        //then
+        assertThat(cache.get(currency.getTicker())).isEmpty();
+    }
+
+    @Test
+    public void testPutIfNotInvalidated_afterInvalidate_shouldDropFill() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency currency = StandardData.getStandardCurrencies()[0];
+        long fillToken = cache.fillToken();
+        cache.invalidate(currency.getTicker());
+
+        //when
+        boolean stored = cache.putIfNotInvalidated(currency, fillToken);
+
+        //then
+        assertThat(stored).isFalse();
+        assertThat(cache.get(currency.getTicker())).isEmpty();
+    }
+
+    @Test
+    public void testPutIfNotInvalidated_otherTickerInvalidated_shouldStoreFill() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency[] currencies = StandardData.getStandardCurrencies();
+        long fillToken = cache.fillToken();
+        cache.invalidate(currencies[1].getTicker());
+
+        //when
+        boolean stored = cache.putIfNotInvalidated(currencies[0], fillToken);
+
+        //then
+        assertThat(stored).isTrue();
+        assertThat(cache.get(currencies[0].getTicker())).contains(currencies[0]);
+    }
+
+    @Test
+    public void testPutIfNotInvalidated_invalidationNoLongerKept_shouldDropFill() {
+        //given
+        CurrencyCache cache = new CurrencyCache(2, 1000, now::get);
+        Currency[] currencies = StandardData.getStandardCurrencies();
+        long fillToken = cache.fillToken();
+        cache.invalidate(currencies[0].getTicker());
+        cache.invalidate(currencies[1].getTicker());
+        cache.invalidate(currencies[2].getTicker());
+
+        //when
+        boolean stored = cache.putIfNotInvalidated(currencies[0], fillToken);
+
+        //then
+        assertThat(stored).isFalse();
+    }
+
+    @Test
+    public void testPut_olderVersion_shouldKeepNewerRecord() {
+        //given
+        CurrencyCache cache = new CurrencyCache(10, 1000, now::get);
+        Currency currency = StandardData.getStandardCurrencies()[0];
+        Currency updated = currency.withVersion(2);
+        cache.put(updated);
+
+        //when
+        cache.put(currency.withVersion(1));
+        boolean stored = cache.putIfNotInvalidated(currency.withVersion(1), cache.fillToken());
+
+        //then
+        assertThat(stored).isFalse();
+        assertThat(cache.get(currency.getTicker()).get().getVersion()).isEqualTo(2);
+    }
+}
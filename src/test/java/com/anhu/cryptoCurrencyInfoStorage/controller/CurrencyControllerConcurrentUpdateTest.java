@@ -0,0 +1,167 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrentupdatetest",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+public class CurrencyControllerConcurrentUpdateTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CurrencyRepository repository;
+
+    @Test
+    public void testUpdate_concurrentIncrementsWithIfMatch_shouldLoseNoUpdates() throws Exception {
+        //given
+        int incrementsPerThread = 25;
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency("CAS", 0).toJson()));
+
+        //when
+        runConcurrently(thread -> {
+            for (int increment = 0; increment < incrementsPerThread; increment++) {
+                incrementMarketCap("CAS");
+            }
+        });
+
+        //then
+        Currency stored = repository.findById("CAS").orElseThrow();
+        assertThat(stored.getMarketCap()).isEqualTo(THREADS * incrementsPerThread);
+        assertThat(stored.getVersion()).isEqualTo(THREADS * incrementsPerThread);
+    }
+
+    @Test
+    public void testUpdate_staleIfMatch_shouldGivePreconditionFailedStatus() throws Exception {
+        //given
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency("OLD", 1).toJson()));
+        String eTag = mockMvc.perform(get("/api/currencies/OLD")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/api/currencies/OLD").contentType(MediaType.APPLICATION_JSON).content(currency("OLD", 2).toJson()));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/OLD")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).content(currency("OLD", 3).toJson())).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+        assertThat(repository.findById("OLD").orElseThrow().getMarketCap()).isEqualTo(2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    public void testUpdate_singleStatementVersusFindAndSave_throughput() throws Exception {
+        //given
+        int updatesPerThread = 5_000;
+        for (int thread = 0; thread < THREADS; thread++) {
+            repository.save(currency("U" + thread, 0));
+        }
+
+        //when
+        long start = System.nanoTime();
+        runConcurrently(thread -> {
+            String ticker = "U" + thread;
+            for (int update = 1; update <= updatesPerThread; update++) {
+                Currency currency = repository.findById(ticker).orElseThrow();
+                repository.save(currency(ticker, update).withVersion(currency.getVersion()));
+            }
+        });
+        long findAndSaveNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        runConcurrently(thread -> {
+            String ticker = "U" + thread;
+            for (int update = 1; update <= updatesPerThread; update++) {
+                repository.replaceValues(currency(ticker, update), null).orElseThrow();
+            }
+        });
+        long replaceValuesNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        runConcurrently(thread -> {
+            String ticker = "U" + thread;
+            for (int update = 1; update <= updatesPerThread; update++) {
+                MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/" + ticker)
+                        .contentType(MediaType.APPLICATION_JSON).content(currency(ticker, update).toJson()))
+                        .andReturn().getResponse();
+                assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            }
+        });
+        long putNanos = System.nanoTime() - start;
+
+        //then
+        int updates = THREADS * updatesPerThread;
+        printThroughput("findById and save", updates, findAndSaveNanos);
+        printThroughput("replaceValues", updates, replaceValuesNanos);
+        printThroughput("PUT /api/currencies/{ticker}", updates, putNanos);
+    }
+
+    private static void printThroughput(String name, int updates, long nanos) {
+        System.out.printf("%s: %d updates in %d ms, %.0f updates/s%n",
+                name, updates, nanos / 1_000_000, updates / (nanos / 1e9));
+    }
+
+    private void incrementMarketCap(String ticker) throws Exception {
+        while (true) {
+            MockHttpServletResponse current = mockMvc.perform(get("/api/currencies/" + ticker)).andReturn().getResponse();
+            JsonNode currency = objectMapper.readTree(current.getContentAsString());
+            MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/" + ticker)
+                    .header(HttpHeaders.IF_MATCH, current.getHeader(HttpHeaders.ETAG))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(currency(ticker, currency.get("marketCap").asLong() + 1).toJson())).andReturn().getResponse();
+            if (response.getStatus() == HttpStatus.OK.value()) {
+                return;
+            }
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    task.run(index);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etagtest")
+@AutoConfigureMockMvc
+public class CurrencyControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetCurrency_matchingIfNoneMatch_shouldGiveNotModifiedStatus() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/currencies/BTC")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/BTC").header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        //then
+        assertThat(eTag).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getContentAsString()).isEmpty();
+    }
+
+    @Test
+    public void testGetCurrency_afterUpdate_shouldGiveNewETag() throws Exception {
+        //given
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency(100).toJson()));
+        String eTag = mockMvc.perform(get("/api/currencies/DOT")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/api/currencies/DOT").contentType(MediaType.APPLICATION_JSON).content(currency(200).toJson()));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/DOT").header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+        assertThat(response.getContentAsString()).isEqualTo(currency(200).toJson());
+    }
+
+    @Test
+    public void testUpdateCurrency_withoutIfMatch_shouldGiveETagOfTheCommittedVersion() throws Exception {
+        //given
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"LTC\",\"name\":\"Litecoin\",\"numberOfCoins\":1000,\"marketCap\":100}"));
+
+        //when
+        MockHttpServletResponse updated = mockMvc.perform(put("/api/currencies/LTC").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"LTC\",\"name\":\"Litecoin\",\"numberOfCoins\":1000,\"marketCap\":200}"))
+                .andReturn().getResponse();
+        MockHttpServletResponse current = mockMvc.perform(get("/api/currencies/LTC")).andReturn().getResponse();
+
+        //then
+        assertThat(updated.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(updated.getHeader(HttpHeaders.ETAG)).isNotNull().isEqualTo(current.getHeader(HttpHeaders.ETAG));
+        assertThat(CurrencyETags.versionOf(updated.getHeader(HttpHeaders.ETAG))).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetCurrency_otherRepresentation_shouldGiveOtherETagVaryingByAccept() throws Exception {
+        //given
+        MockHttpServletResponse json = mockMvc.perform(get("/api/currencies/BTC")
+                .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        String jsonETag = json.getHeader(HttpHeaders.ETAG);
+
+        //when
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/currencies/BTC")
+                .accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonETag)).andReturn().getResponse();
+
+        //then
+        assertThat(cbor.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(cbor.getHeader(HttpHeaders.ETAG)).isNotEqualTo(jsonETag);
+        assertThat(CurrencyETags.versionOf(cbor.getHeader(HttpHeaders.ETAG))).isEqualTo(CurrencyETags.versionOf(jsonETag));
+        assertThat(json.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(cbor.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT).contains(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void testRepresentationOf_acceptHeader_shouldPickMostPreferredServedType() {
+        assertThat(CurrencyETags.representationOf((String) null)).isEqualTo("json");
+        assertThat(CurrencyETags.representationOf("*/*")).isEqualTo("json");
+        assertThat(CurrencyETags.representationOf("application/x-protobuf;q=0.5, application/cbor")).isEqualTo("cbor");
+        assertThat(CurrencyETags.representationOf("text/html, application/x-jackson-smile;q=0.9")).isEqualTo("smile");
+        assertThat(CurrencyETags.representationOf("not a media type")).isEqualTo("json");
+    }
+
+    @Test
+    public void testGetAllCurrencies_noChangeSinceListing_shouldGiveNotModifiedStatus() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/currencies")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies").header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        //then
+        assertThat(eTag).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    public void testGetAllCurrencies_changeSinceListing_shouldGiveOkStatus() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/currencies")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/api/currencies/ETH").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"ETH\",\"name\":\"Ethereum\",\"numberOfCoins\":96710001,\"marketCap\":69280000000}"));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies").header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    private static Currency currency(long marketCap) {
+        return new Currency.Builder()
+                .ticker("DOT")
+                .name("Polkadot")
+                .numberOfCoins(1000)
+                .marketCap(marketCap)
+                .build();
+    }
+}
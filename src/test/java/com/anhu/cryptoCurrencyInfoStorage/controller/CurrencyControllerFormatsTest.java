@@ -0,0 +1,97 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.converter.CurrencyProtobuf;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:formatstest")
+@AutoConfigureMockMvc
+public class CurrencyControllerFormatsTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String CBOR = "application/cbor";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetCurrency_acceptSmile_shouldGiveSmileBody() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/BTC").accept(SMILE))
+                .andReturn().getResponse();
+
+        //then
+        JsonNode currency = new ObjectMapper(new SmileFactory()).readTree(response.getContentAsByteArray());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).startsWith(SMILE);
+        assertThat(currency.get("ticker").asText()).isEqualTo("BTC");
+    }
+
+    @Test
+    public void testCreateCurrency_cborBody_shouldCreateRecordAndGiveCborBody() throws Exception {
+        //given
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] body = cbor.writeValueAsBytes(new Currency.Builder()
+                .ticker("ADA").name("Cardano").numberOfCoins(100).marketCap(200).build());
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/api/currencies")
+                .contentType(CBOR).accept(CBOR).content(body)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(cbor.readTree(response.getContentAsByteArray()).get("name").asText()).isEqualTo("Cardano");
+    }
+
+    @Test
+    public void testCreateAndList_protobuf_shouldRoundTrip() throws Exception {
+        //given
+        Currency currency = new Currency.Builder().ticker("SOL").name("Solana").numberOfCoins(300).marketCap(400).build();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CurrencyProtobuf.write(currency, body);
+
+        //when
+        MockHttpServletResponse created = mockMvc.perform(post("/api/currencies")
+                .contentType(CurrencyProtobuf.APPLICATION_PROTOBUF).accept(CurrencyProtobuf.APPLICATION_PROTOBUF)
+                .content(body.toByteArray())).andReturn().getResponse();
+        MockHttpServletResponse listing = mockMvc.perform(get("/api/currencies")
+                .accept(CurrencyProtobuf.APPLICATION_PROTOBUF)).andReturn().getResponse();
+
+        //then
+        assertThat(created.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(CurrencyProtobuf.readCurrency(new ByteArrayInputStream(created.getContentAsByteArray())).build())
+                .isEqualTo(currency);
+        List<Currency.Builder> currencies = CurrencyProtobuf.readCurrencies(
+                new ByteArrayInputStream(listing.getContentAsByteArray()));
+        assertThat(currencies).extracting(builder -> builder.build().getTicker()).contains("BTC", "SOL");
+    }
+
+    @Test
+    public void testGetCurrency_noAccept_shouldStillGiveJson() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/BTC")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getHeader(HttpHeaders.CONTENT_TYPE)).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:historytest")
+@AutoConfigureMockMvc
+public class CurrencyControllerHistoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testHistory_afterCreateAndUpdates_shouldGiveSnapshotsOldestFirst() throws Exception {
+        //given
+        long start = System.currentTimeMillis();
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency(100).toJson()));
+        mockMvc.perform(put("/api/currencies/SOL").contentType(MediaType.APPLICATION_JSON).content(currency(200).toJson()));
+        mockMvc.perform(put("/api/currencies/SOL").contentType(MediaType.APPLICATION_JSON).content(currency(300).toJson()));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/SOL/history?from=" + start).accept(MediaType.APPLICATION_NDJSON)).andReturn().getResponse();
+
+        //then
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(lines).hasSize(3);
+        long previousRecordedAt = start;
+        for (int index = 0; index < lines.length; index++) {
+            JsonNode snapshot = objectMapper.readTree(lines[index]);
+            assertThat(snapshot.get("marketCap").asLong()).isEqualTo(100L * (index + 1));
+            assertThat(snapshot.get("recordedAt").asLong()).isGreaterThanOrEqualTo(previousRecordedAt);
+            previousRecordedAt = snapshot.get("recordedAt").asLong();
+        }
+    }
+
+    @Test
+    public void testHistory_fromAfterTo_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/BTC/history?from=10&to=5").accept(MediaType.APPLICATION_NDJSON)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private static Currency currency(long marketCap) {
+        return new Currency.Builder()
+                .ticker("SOL")
+                .name("Solana")
+                .numberOfCoins(1000)
+                .marketCap(marketCap)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Tests the import pipeline with small chunks and several parsers and writers, so a file passes many chunks and
+ * batches, on a data base of its own.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importtest",
+        "spring.jpa.show-sql=false",
+        "currency.import.parsers=3",
+        "currency.import.writers=2",
+        "currency.import.chunk-size=7"})
+@AutoConfigureMockMvc
+public class CurrencyControllerImportTest {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CurrencyRepository repository;
+
+    @Test
+    public void testImport_csvWithHeader_shouldWriteValidLinesAndReportRejectedLines() throws Exception {
+        //given
+        String csv = "marketCap,ticker,name,numberOfCoins\n" +
+                "100,CSVA,\"Coin A, the first\",10\n" +
+                "not a number,CSVB,Coin B,20\n" +
+                "\n" +
+                "300,CSVC,Coin C\n" +
+                "400,CSVD,Coin D,40\n";
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/api/currencies/import")
+                .contentType(TEXT_CSV).content(csv)).andReturn().getResponse();
+
+        //then
+        JsonNode report = objectMapper.readTree(response.getContentAsString());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(report.get("state").asText()).isEqualTo("COMPLETED");
+        assertThat(report.get("linesRead").asLong()).isEqualTo(6);
+        assertThat(report.get("created").asLong()).isEqualTo(2);
+        assertThat(report.get("rejected").asLong()).isEqualTo(2);
+        assertThat(report.get("rejectedLines").get(0).get("lineNumber").asLong()).isEqualTo(3);
+        assertThat(report.get("rejectedLines").get(1).get("lineNumber").asLong()).isEqualTo(5);
+        assertThat(repository.findById("CSVA")).contains(currency("CSVA", "Coin A, the first", 10, 100));
+        assertThat(repository.findById("CSVB")).isEmpty();
+    }
+
+    @Test
+    public void testImport_tickerRepeatedOverManyChunks_shouldKeepTheLastLine() throws Exception {
+        //given
+        int tickers = 13;
+        int lines = 1000;
+        StringBuilder ndjson = new StringBuilder();
+        for (int line = 0; line < lines; line++) {
+            ndjson.append(currency("REP" + line % tickers, "Repeated", line, line).toJson()).append('\n');
+        }
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/api/currencies/import")
+                .contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString().getBytes(StandardCharsets.UTF_8)))
+                .andReturn().getResponse();
+
+        //then
+        JsonNode report = objectMapper.readTree(response.getContentAsString());
+        assertThat(report.get("created").asLong()).isEqualTo(tickers);
+        assertThat(report.get("updated").asLong()).isEqualTo(lines - tickers);
+        for (int ticker = 0; ticker < tickers; ticker++) {
+            long lastLine = lines - tickers + (ticker - lines % tickers + tickers) % tickers;
+            assertThat(repository.findById("REP" + ticker)).get()
+                    .extracting(Currency::getMarketCap).isEqualTo(lastLine);
+        }
+    }
+
+    @Test
+    public void testImport_importedRecord_shouldBeReadFresh() throws Exception {
+        //given
+        mockMvc.perform(post("/api/currencies/import").contentType(TEXT_CSV).content("CACHED,Cached,1,1\n"));
+        mockMvc.perform(get("/api/currencies/CACHED"));
+
+        //when
+        mockMvc.perform(post("/api/currencies/import").contentType(TEXT_CSV).content("CACHED,Cached,1,2\n"));
+        JsonNode currency = objectMapper.readTree(mockMvc.perform(get("/api/currencies/CACHED"))
+                .andReturn().getResponse().getContentAsString());
+
+        //then
+        assertThat(currency.get("marketCap").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    public void testImport_csvHeaderWithoutMarketCap_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/api/currencies/import")
+                .contentType(TEXT_CSV).content("ticker,name,numberOfCoins\nNOCAP,No cap,1\n")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(repository.findById("NOCAP")).isEmpty();
+    }
+
+    @Test
+    public void testImport_jsonArray_shouldGiveUnsupportedMediaTypeStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/api/currencies/import")
+                .contentType(MediaType.APPLICATION_JSON).content("[]")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+    }
+
+    @Test
+    public void testRunningImports_noImportRunning_shouldGiveEmptyList() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/imports")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    private static Currency currency(String ticker, String name, long numberOfCoins, long marketCap) {
+        return new Currency.Builder()
+                .ticker(ticker)
+                .name(name)
+                .numberOfCoins(numberOfCoins)
+                .marketCap(marketCap)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.RollupInterval;
+import com.anhu.cryptoCurrencyInfoStorage.service.CurrencyBatchService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ohlctest")
+@AutoConfigureMockMvc
+public class CurrencyControllerOhlcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CurrencyBatchService currencyBatchService;
+
+    @Test
+    public void testOhlc_afterCreateAndUpdates_shouldRollUpTheCommittedMarketCaps() throws Exception {
+        //given
+        long from = System.currentTimeMillis();
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency("ADA", 500).toJson()));
+        for (long marketCap : new long[]{900, 100, 300}) {
+            mockMvc.perform(put("/api/currencies/ADA").contentType(MediaType.APPLICATION_JSON)
+                    .content(currency("ADA", marketCap).toJson()));
+        }
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/ADA/ohlc?interval=1h")).andReturn().getResponse();
+
+        //then
+        JsonNode buckets = objectMapper.readTree(response.getContentAsString());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        // the writes may span the start of an hour
+        assertThat(buckets.size()).isBetween(1, 2);
+        JsonNode first = buckets.get(0);
+        JsonNode last = buckets.get(buckets.size() - 1);
+        assertThat(first.get("bucketStart").asLong()).isEqualTo(RollupInterval.HOUR.bucketStart(from));
+        assertThat(first.get("open").asLong()).isEqualTo(500);
+        assertThat(last.get("close").asLong()).isEqualTo(300);
+        long high = 0;
+        long low = Long.MAX_VALUE;
+        long count = 0;
+        for (JsonNode bucket : buckets) {
+            high = Math.max(high, bucket.get("high").asLong());
+            low = Math.min(low, bucket.get("low").asLong());
+            count += bucket.get("count").asLong();
+        }
+        assertThat(high).isEqualTo(900);
+        assertThat(low).isEqualTo(100);
+        assertThat(count).isEqualTo(4);
+    }
+
+    @Test
+    public void testOhlc_afterBatchWithSeveralSamplesOfATicker_shouldRollUpTheBatchInOrder() throws Exception {
+        //given
+        currencyBatchService.upsertAll(List.of(currency("XRP", 500), currency("XRP", 900), currency("XRP", 100)));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/XRP/ohlc?interval=1d")).andReturn().getResponse();
+
+        //then
+        JsonNode buckets = objectMapper.readTree(response.getContentAsString());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).get("open").asLong()).isEqualTo(500);
+        assertThat(buckets.get(0).get("high").asLong()).isEqualTo(900);
+        assertThat(buckets.get(0).get("low").asLong()).isEqualTo(100);
+        assertThat(buckets.get(0).get("close").asLong()).isEqualTo(100);
+        assertThat(buckets.get(0).get("count").asLong()).isEqualTo(3);
+    }
+
+    @Test
+    public void testOhlc_unknownInterval_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/BTC/ohlc?interval=5m")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testOhlc_noBuckets_shouldGiveNoContentStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/BTC/ohlc?interval=1d&from=0&to=1")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NO_CONTENT.value());
+    }
+}
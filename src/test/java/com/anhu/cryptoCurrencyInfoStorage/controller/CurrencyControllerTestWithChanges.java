@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -103,6 +104,72 @@ public class CurrencyControllerTestWithChanges {
         assertThat(response.getContentAsString()).isEmpty();
     }
 
+    @Test
+    public void testPatch_marketCapOnly_shouldKeepOtherFieldsAndGiveETag() throws Exception {
+        //given
+        Currency oldCurrency = StandardData.getStandardCurrencies()[2];
+        Currency patchedCurrency = new Currency.Builder()
+                .ticker(oldCurrency.getTicker())
+                .name(oldCurrency.getName())
+                .numberOfCoins(oldCurrency.getNumberOfCoins())
+                .marketCap(42)
+                .build();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                patch("/api/currencies/" + oldCurrency.getTicker()).contentType("application/merge-patch+json")
+                        .content("{\"marketCap\":42}")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(patchedCurrency.toJson());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+    }
+
+    @Test
+    public void testPatch_removedOrUnknownField_shouldGiveBadRequestStatus() throws Exception {
+        //given
+        String ticker = StandardData.getStandardCurrencies()[2].getTicker();
+
+        //when
+        MockHttpServletResponse removed = mockMvc.perform(
+                patch("/api/currencies/" + ticker).contentType("application/merge-patch+json")
+                        .content("{\"name\":null}")).andReturn().getResponse();
+        MockHttpServletResponse unknown = mockMvc.perform(
+                patch("/api/currencies/" + ticker).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":1}")).andReturn().getResponse();
+
+        //then
+        assertThat(removed.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(unknown.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testPatch_nameLongerThanColumn_shouldGiveBadRequestStatus() throws Exception {
+        //given
+        String ticker = StandardData.getStandardCurrencies()[2].getTicker();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                patch("/api/currencies/" + ticker).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + "n".repeat(Currency.MAX_NAME_LENGTH + 1) + "\"}")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testPatch_idNotPresent_shouldGiveNotFoundStatusAndEmptyBody() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                patch("/api/currencies/DOGE").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"marketCap\":1}")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(response.getContentAsString()).isEmpty();
+    }
+
     @Test
     public void testDelete_idPresent_shouldGiveNoContentStatusAndEmptyBody() throws Exception {
         //given
@@ -2,6 +2,8 @@ package com.anhu.cryptoCurrencyInfoStorage.controller;
 
 import com.anhu.cryptoCurrencyInfoStorage.StandardData;
 import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Comparator;
 import java.util.List;
@@ -26,6 +29,9 @@ public class CurrencyControllerTestWithoutChanges {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     public void testRetrieveById_idNotPresent_shouldGiveNotFoundStatusAndEmptyBody() throws Exception {
         //given
@@ -185,4 +191,87 @@ public class CurrencyControllerTestWithoutChanges {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(response.getContentAsString()).isEqualTo(expectedContent.toString());
     }
+
+    @Test
+    public void testStream_sortOnMarketCap_shouldGiveOneRecordPerLine() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/stream?sort=marketCap").accept(MediaType.APPLICATION_NDJSON)).andReturn().getResponse();
+
+        //then
+        StringBuilder expectedContent = new StringBuilder();
+        stream(StandardData.getStandardCurrencies()).sorted(Comparator.comparingLong(Currency::getMarketCap))
+                .forEach(currency -> expectedContent.append(currency.toJson()).append("\n"));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(response.getContentAsString()).isEqualTo(expectedContent.toString());
+    }
+
+    @Test
+    public void testGetAll_cursorPagingWithSort_shouldWalkAllEntriesInOrder() throws Exception {
+        //when
+        MockHttpServletResponse firstResponse = mockMvc.perform(
+                get("/api/currencies?after=&size=3&sort=marketCap&sortDirection=desc")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        JsonNode firstPage = objectMapper.readTree(firstResponse.getContentAsString());
+        MockHttpServletResponse lastResponse = mockMvc.perform(
+                get("/api/currencies?size=3&sort=marketCap&sortDirection=desc")
+                        .param("after", firstPage.get("nextCursor").asText())
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        JsonNode lastPage = objectMapper.readTree(lastResponse.getContentAsString());
+
+        //then
+        List<Currency> standardOrder = stream(StandardData.getStandardCurrencies()).
+                sorted(Comparator.comparingLong(Currency::getMarketCap).reversed()).collect(Collectors.toList());
+        assertThat(firstResponse.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(firstPage.has("totalItems")).isFalse();
+        assertThat(firstPage.get("currencies")).hasSize(3);
+        for(int index = 0; index < 3; index++){
+            assertThat(firstPage.get("currencies").get(index).toString()).isEqualTo(standardOrder.get(index).toJson());
+        }
+        assertThat(lastResponse.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(lastPage.get("currencies")).hasSize(1);
+        assertThat(lastPage.get("currencies").get(0).toString()).isEqualTo(standardOrder.get(3).toJson());
+        assertThat(lastPage.has("nextCursor")).isFalse();
+    }
+
+    @Test
+    public void testGetAll_cursorForOtherSort_shouldGiveBadRequestStatus() throws Exception {
+        //given
+        MockHttpServletResponse firstResponse = mockMvc.perform(
+                get("/api/currencies?after=&size=1&sort=marketCap").accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        String cursor = objectMapper.readTree(firstResponse.getContentAsString()).get("nextCursor").asText();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies?size=1&sort=name").param("after", cursor)
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testChanges_resumeAfterChangeOfAnotherStart_shouldGiveResetEventAndEnd() throws Exception {
+        //given
+        MvcResult subscription = mockMvc.perform(get("/api/currencies/changes")
+                .header("Last-Event-ID", "0-12").accept(MediaType.TEXT_EVENT_STREAM)).andReturn();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(subscription)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).contains("event:reset").contains("\"sequence\":");
+    }
+
+    @Test
+    public void testChanges_fromIsNoChangeId_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/changes?from=last")
+                .accept(MediaType.TEXT_EVENT_STREAM)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
 }
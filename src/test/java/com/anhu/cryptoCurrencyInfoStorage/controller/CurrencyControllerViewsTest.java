@@ -0,0 +1,195 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Tests the endpoints served from the in-memory views, on a data base of their own, as every write changes the views.
+ * Tests restore the standard data they change.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:viewtest")
+@AutoConfigureMockMvc
+public class CurrencyControllerViewsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testStats_standardData_shouldGiveAggregatesBuiltAtStartup() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/stats")).andReturn().getResponse();
+
+        //then
+        JsonNode stats = objectMapper.readTree(response.getContentAsString());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(stats.get("count").asLong()).isEqualTo(4);
+        assertThat(stats.get("totalMarketCap").asLong()).isEqualTo(392630000000L);
+        assertThat(stats.get("medianMarketCap").asLong()).isEqualTo(69150000000L);
+        assertThat(stats.has("shares")).isFalse();
+    }
+
+    @Test
+    public void testStats_afterCreateAndDelete_shouldFollowTheWrites() throws Exception {
+        //given
+        mockMvc.perform(post("/api/currencies").contentType(MediaType.APPLICATION_JSON).content(currency("AVAX", 7370000000L).toJson()));
+
+        //when
+        JsonNode afterCreate = objectMapper.readTree(mockMvc.perform(get("/api/currencies/stats?shares=true"))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(delete("/api/currencies/AVAX"));
+        JsonNode afterDelete = objectMapper.readTree(mockMvc.perform(get("/api/currencies/stats"))
+                .andReturn().getResponse().getContentAsString());
+
+        //then
+        assertThat(afterCreate.get("count").asLong()).isEqualTo(5);
+        assertThat(afterCreate.get("totalMarketCap").asLong()).isEqualTo(400000000000L);
+        assertThat(afterCreate.get("shares").get("AVAX").decimalValue()).isEqualByComparingTo("0.018425");
+        assertThat(afterDelete.get("count").asLong()).isEqualTo(4);
+        assertThat(afterDelete.get("totalMarketCap").asLong()).isEqualTo(392630000000L);
+    }
+
+    @Test
+    public void testTop_standardData_shouldGiveHighestFirst() throws Exception {
+        //when
+        MockHttpServletResponse byMarketCap = mockMvc.perform(get("/api/currencies/top?n=3")).andReturn().getResponse();
+        MockHttpServletResponse byNumberOfCoins = mockMvc.perform(get("/api/currencies/top?by=numberOfCoins&n=1")).andReturn().getResponse();
+
+        //then
+        assertThat(byMarketCap.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(tickers(byMarketCap)).containsExactly("BTC", "ETH", "BCH");
+        assertThat(tickers(byNumberOfCoins)).containsExactly("XRP");
+    }
+
+    @Test
+    public void testTop_unknownProperty_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/top?by=name")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testRank_afterUpdate_shouldFollowTheWrite() throws Exception {
+        //given
+        mockMvc.perform(put("/api/currencies/XRP").contentType(MediaType.APPLICATION_JSON)
+                .content(currency("XRP", 300000000000L).toJson()));
+
+        //when
+        JsonNode rank = objectMapper.readTree(mockMvc.perform(get("/api/currencies/XRP/rank"))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(put("/api/currencies/XRP").contentType(MediaType.APPLICATION_JSON).content(new Currency.Builder()
+                .ticker("XRP").name("Ripple").numberOfCoins(38590000000L).marketCap(64750000000L).build().toJson()));
+        JsonNode restoredRank = objectMapper.readTree(mockMvc.perform(get("/api/currencies/XRP/rank"))
+                .andReturn().getResponse().getContentAsString());
+
+        //then
+        assertThat(rank.get("rank").asInt()).isEqualTo(1);
+        assertThat(rank.get("of").asInt()).isEqualTo(4);
+        assertThat(restoredRank.get("rank").asInt()).isEqualTo(4);
+    }
+
+    @Test
+    public void testRank_notExistingTicker_shouldGiveNotFoundStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/NONE/rank")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    public void testSearch_prefixAndTypingError_shouldGiveMatchesBestFirst() throws Exception {
+        //when
+        MockHttpServletResponse prefix = mockMvc.perform(get("/api/currencies/search?q=BIT")).andReturn().getResponse();
+        MockHttpServletResponse fuzzy = mockMvc.perform(get("/api/currencies/search?q=etherium&fuzzy=true")).andReturn().getResponse();
+
+        //then
+        assertThat(prefix.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(tickers(prefix)).containsExactly("BTC", "BCH");
+        assertThat(tickers(fuzzy)).containsExactly("ETH");
+    }
+
+    @Test
+    public void testTopAndSearch_moreThanMaximumResults_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse top = mockMvc.perform(get("/api/currencies/top?n=101")).andReturn().getResponse();
+        MockHttpServletResponse search = mockMvc.perform(get("/api/currencies/search?q=bit&limit=" + Integer.MAX_VALUE))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(top.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(search.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testSearch_blankQuery_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/currencies/search?q=%20")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testAnalytics_rangeOfMarketCaps_shouldAggregateMatchingRecords() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/analytics?minMarketCap=65000000000&maxMarketCap=70000000000&tickers=10")).andReturn().getResponse();
+
+        //then
+        JsonNode scan = objectMapper.readTree(response.getContentAsString());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(scan.get("count").asLong()).isEqualTo(2);
+        assertThat(scan.get("totalMarketCap").asLong()).isEqualTo(138300000000L);
+        assertThat(scan.get("minMarketCap").asLong()).isEqualTo(69020000000L);
+        assertThat(scan.get("tickers")).extracting(JsonNode::asText).containsExactlyInAnyOrder("ETH", "BCH");
+    }
+
+    @Test
+    public void testAnalytics_minimumAboveMaximum_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/analytics?minNumberOfCoins=10&maxNumberOfCoins=5")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void testAnalytics_moreTickersThanMaximum_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                get("/api/currencies/analytics?tickers=" + Integer.MAX_VALUE)).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private List<String> tickers(MockHttpServletResponse response) throws Exception {
+        List<String> tickers = new ArrayList<>();
+        for (JsonNode currency : objectMapper.readTree(response.getContentAsString()).get("currencies")) {
+            tickers.add(currency.get("ticker").asText());
+        }
+        return tickers;
+    }
+}
@@ -0,0 +1,168 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.storage.CurrencyWriteBehindBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * The flush interval is longer than the tests, so the buffer is only written when a test flushes it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehindtest",
+        "currency.write-behind.enabled=true",
+        "currency.write-behind.flush-interval-millis=600000"})
+@AutoConfigureMockMvc
+public class CurrencyControllerWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrencyWriteBehindBuffer currencyWriteBehindBuffer;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Test
+    public void testUpdateCurrency_writeBehind_shouldBufferLatestUpdateUntilFlush() throws Exception {
+        //given
+        long versionBefore = currencyRepository.findById("XRP").orElseThrow().getVersion();
+        mockMvc.perform(put("/api/currencies/XRP").contentType(MediaType.APPLICATION_JSON).content(ripple(1).toJson()));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/XRP")
+                .contentType(MediaType.APPLICATION_JSON).content(ripple(2).toJson())).andReturn().getResponse();
+        MockHttpServletResponse buffered = mockMvc.perform(get("/api/currencies/XRP")).andReturn().getResponse();
+        long versionBuffered = currencyRepository.findById("XRP").orElseThrow().getVersion();
+        int written = currencyWriteBehindBuffer.flush();
+        MockHttpServletResponse flushed = mockMvc.perform(get("/api/currencies/XRP")).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(buffered.getContentAsString()).isEqualTo(ripple(2).toJson());
+        assertThat(buffered.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(versionBuffered).isEqualTo(versionBefore);
+        assertThat(written).isEqualTo(1);
+        assertThat(currencyWriteBehindBuffer.size()).isZero();
+        assertThat(flushed.getHeader(HttpHeaders.ETAG)).isNotNull();
+        Currency stored = currencyRepository.findById("XRP").orElseThrow();
+        assertThat(stored.getMarketCap()).isEqualTo(2);
+        assertThat(stored.getVersion()).isEqualTo(versionBefore + 1);
+    }
+
+    @Test
+    public void testUpdateCurrency_writeBehindUnknownTicker_shouldGiveNotFoundStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/NONE")
+                .contentType(MediaType.APPLICATION_JSON).content(ripple(1).toJson())).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(currencyWriteBehindBuffer.get("NONE")).isEmpty();
+    }
+
+    @Test
+    public void testUpdateCurrency_ifMatchAfterBufferedUpdate_shouldCompareWithFlushedVersion() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/currencies/ETH")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/api/currencies/ETH").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"ETH\",\"name\":\"Ethereum\",\"numberOfCoins\":96710001,\"marketCap\":1}"));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/ETH")
+                .header(HttpHeaders.IF_MATCH, eTag).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"ETH\",\"name\":\"Ethereum\",\"numberOfCoins\":96710001,\"marketCap\":2}"))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+        assertThat(currencyWriteBehindBuffer.get("ETH")).isEmpty();
+        assertThat(currencyRepository.findById("ETH").orElseThrow().getMarketCap()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateCurrency_ifMatchOfOtherTicker_shouldKeepBufferedUpdate() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/currencies/BCH")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/api/currencies/XRP").contentType(MediaType.APPLICATION_JSON).content(ripple(3).toJson()));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/BCH")
+                .header(HttpHeaders.IF_MATCH, eTag).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticker\":\"BCH\",\"name\":\"BitcoinCash\",\"numberOfCoins\":16670000,\"marketCap\":3}"))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(currencyWriteBehindBuffer.get("XRP")).contains(ripple(3));
+        currencyWriteBehindBuffer.flush();
+    }
+
+    @Test
+    public void testUpdateCurrency_writeBehindNameLongerThanColumn_shouldGiveBadRequestStatus() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/XRP")
+                .contentType(MediaType.APPLICATION_JSON).content(new Currency.Builder()
+                        .name("n".repeat(Currency.MAX_NAME_LENGTH + 1)).numberOfCoins(1).marketCap(1).build().toJson()))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(currencyWriteBehindBuffer.get("XRP")).isEmpty();
+    }
+
+    @Test
+    public void testFlush_updateRejectedByDataBase_shouldDropItAndWriteTheOthers() throws Exception {
+        //given
+        currencyWriteBehindBuffer.put(new Currency.Builder().ticker("BCH").name("n".repeat(Currency.MAX_NAME_LENGTH + 1))
+                .numberOfCoins(1).marketCap(1).build());
+        mockMvc.perform(put("/api/currencies/XRP").contentType(MediaType.APPLICATION_JSON).content(ripple(5).toJson()));
+
+        //when
+        int written = currencyWriteBehindBuffer.flush();
+
+        //then
+        assertThat(written).isEqualTo(1);
+        assertThat(currencyWriteBehindBuffer.size()).isZero();
+        assertThat(currencyRepository.findById("XRP").orElseThrow().getMarketCap()).isEqualTo(5);
+        assertThat(currencyRepository.findById("BCH").orElseThrow().getName()).isEqualTo("BitcoinCash");
+    }
+
+    @Test
+    @DirtiesContext
+    public void testUpdateCurrency_afterDrain_shouldWriteThrough() throws Exception {
+        //given
+        currencyWriteBehindBuffer.drain();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(put("/api/currencies/XRP")
+                .contentType(MediaType.APPLICATION_JSON).content(ripple(4).toJson())).andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(currencyWriteBehindBuffer.size()).isZero();
+        assertThat(currencyRepository.findById("XRP").orElseThrow().getMarketCap()).isEqualTo(4);
+    }
+
+    private static Currency ripple(long marketCap) {
+        return new Currency.Builder()
+                .ticker("XRP")
+                .name("Ripple")
+                .numberOfCoins(38590000000L)
+                .marketCap(marketCap)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.anhu.cryptoCurrencyInfoStorage.controller;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactivetest;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest;DB_CLOSE_DELAY=-1"})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class CurrencyHandlerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testGetCurrency_idPresent_shouldGiveOkStatusAndCurrencyBody() {
+        webTestClient.get().uri("/api/currencies/BTC").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.ticker").isEqualTo("BTC")
+                .jsonPath("$.name").isEqualTo("Bitcoin");
+    }
+
+    @Test
+    public void testGetCurrency_idNotPresent_shouldGiveNotFoundStatus() {
+        webTestClient.get().uri("/api/currencies/NONE").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testCreate_twiceTheSameTicker_shouldGiveCreatedThenConflictStatus() {
+        //given
+        Currency currency = currency("ATOM", 100);
+
+        //then
+        webTestClient.post().uri("/api/currencies").contentType(MediaType.APPLICATION_JSON).bodyValue(currency.toJson())
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.post().uri("/api/currencies").contentType(MediaType.APPLICATION_JSON).bodyValue(currency.toJson())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void testUpdate_staleIfMatch_shouldGivePreconditionFailedStatus() {
+        //given
+        webTestClient.post().uri("/api/currencies").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(currency("LINK", 1).toJson()).exchange();
+        String eTag = webTestClient.get().uri("/api/currencies/LINK").exchange()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        webTestClient.put().uri("/api/currencies/LINK").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(currency("LINK", 2).toJson()).exchange()
+                .expectStatus().isOk();
+
+        //then
+        webTestClient.put().uri("/api/currencies/LINK").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(currency("LINK", 3).toJson()).exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    public void testPatch_marketCapOnly_shouldGiveRecordWithNewVersion() {
+        //given
+        webTestClient.post().uri("/api/currencies").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(currency("UNI", 1).toJson()).exchange();
+        String eTag = webTestClient.get().uri("/api/currencies/UNI").exchange()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        //then
+        webTestClient.patch().uri("/api/currencies/UNI").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"marketCap\":2}").exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, newETag -> assertThat(newETag).isNotEqualTo(eTag))
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(currency("UNI", 1).getName())
+                .jsonPath("$.marketCap").isEqualTo(2);
+        webTestClient.patch().uri("/api/currencies/UNI").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"marketCap\":3}").exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    public void testGetAllCurrencies_firstPage_shouldGivePageOfRecords() {
+        webTestClient.get().uri("/api/currencies?page=0&size=2&sort=marketCap&sortDirection=desc").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.currentPage").isEqualTo(0)
+                .jsonPath("$.currencies.length()").isEqualTo(2)
+                .jsonPath("$.currencies[0].ticker").isEqualTo("BTC");
+    }
+
+    @Test
+    public void testGetAllCurrencies_unknownSortField_shouldGiveBadRequestStatus() {
+        webTestClient.get().uri("/api/currencies?sort=unknown").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testStream_shouldGiveOneRecordPerLine() {
+        //when
+        List<Currency> currencies = webTestClient.get().uri("/api/currencies/stream").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Currency.class).getResponseBody().collectList().block();
+
+        //then
+        assertThat(currencies).extracting(Currency::getTicker).contains("BTC", "ETH", "XRP", "BCH");
+    }
+
+    @Test
+    public void testImport_ndjsonBody_shouldWriteValidLinesAndRejectOthers() {
+        //given
+        String body = currency("NEAR", 300).toJson() + "\n{\"ticker\":\"\"}\n" + currency("ALGO", 400).toJson() + "\n";
+
+        //then
+        webTestClient.post().uri("/api/currencies/import").contentType(MediaType.APPLICATION_NDJSON).bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("COMPLETED")
+                .jsonPath("$.created").isEqualTo(2)
+                .jsonPath("$.rejected").isEqualTo(1)
+                .jsonPath("$.rejectedLines[0].lineNumber").isEqualTo(2);
+        webTestClient.get().uri("/api/currencies/ALGO").exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,99 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyJsonWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // small buffer, so the tests also cover flushing in the middle of a value
+    private final CurrencyJsonWriter writer = new CurrencyJsonWriter(64);
+
+    @Test
+    public void testWriteCurrency_shouldEqualJacksonAndToJson() throws Exception {
+        //given
+        Currency currency = StandardData.getStandardCurrencies()[0];
+
+        //when
+        String json = write(currency);
+
+        //then
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(currency));
+        assertThat(json).isEqualTo(currency.toJson());
+    }
+
+    @Test
+    public void testWriteCurrency_charactersToEscape_shouldEqualJacksonAndToJson() throws Exception {
+        //given
+        Currency currency = new Currency.Builder()
+                .ticker("Q\"\\")
+                .name("line\nbreak\ttab \u0001 é € 🚀 /")
+                .numberOfCoins(Long.MIN_VALUE)
+                .marketCap(-42)
+                .build();
+
+        //when
+        String json = write(currency);
+
+        //then
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(currency));
+        assertThat(json).isEqualTo(currency.toJson());
+    }
+
+    @Test
+    public void testWriteListing_page_shouldEqualJackson() throws Exception {
+        //given
+        List<Currency> currencies = List.of(StandardData.getStandardCurrencies());
+        CurrencyListing listing = CurrencyListing.ofPage(new PageImpl<>(currencies.subList(0, 3), PageRequest.of(0, 3), 4));
+
+        //when
+        String json = write(listing);
+
+        //then
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(listing));
+        assertThat(json).startsWith("{\"totalItems\":4,\"totalPages\":2,\"currentPage\":0,\"currencies\":[");
+    }
+
+    @Test
+    public void testWriteListing_largerThanBuffer_shouldEqualJackson() throws Exception {
+        //given
+        List<Currency> currencies = new ArrayList<>();
+        for (int index = 0; index < 1000; index++) {
+            currencies.add(new Currency.Builder().ticker("T" + index).name("Coin " + index)
+                    .numberOfCoins(index).marketCap(index * 1000L).build());
+        }
+        CurrencyListing listing = CurrencyListing.ofCursor(currencies, "abc", null);
+
+        //when
+        String json = write(listing);
+
+        //then
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(listing));
+    }
+
+    private String write(Currency currency) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(currency, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String write(CurrencyListing listing) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(listing, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
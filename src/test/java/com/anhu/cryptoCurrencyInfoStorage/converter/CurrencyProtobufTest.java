@@ -0,0 +1,66 @@
+package com.anhu.cryptoCurrencyInfoStorage.converter;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencyListing;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyProtobufTest {
+
+    @Test
+    public void testWriteCurrency_shouldGiveWireFormatOfSchema() throws Exception {
+        //given
+        Currency currency = new Currency.Builder().ticker("A").name("B").numberOfCoins(1).marketCap(150).build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        CurrencyProtobuf.write(currency, out);
+
+        //then
+        assertThat(out.toByteArray()).containsExactly(
+                0x0A, 0x01, 'A', 0x12, 0x01, 'B', 0x18, 0x01, 0x20, 0x96 - 256, 0x01);
+    }
+
+    @Test
+    public void testReadCurrency_writtenCurrency_shouldGiveSameRecord() throws Exception {
+        //given
+        Currency currency = new Currency.Builder()
+                .ticker("Q€")
+                .name("name with 🚀")
+                .numberOfCoins(Long.MAX_VALUE)
+                .marketCap(0)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CurrencyProtobuf.write(currency, out);
+
+        //when
+        Currency read = CurrencyProtobuf.readCurrency(new ByteArrayInputStream(out.toByteArray())).build();
+
+        //then
+        assertThat(read).isEqualTo(currency);
+    }
+
+    @Test
+    public void testReadCurrencies_writtenListing_shouldGiveRecordsAndSkipPagingInfo() throws Exception {
+        //given
+        List<Currency> currencies = Arrays.asList(StandardData.getStandardCurrencies());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CurrencyProtobuf.write(CurrencyListing.ofCursor(currencies, "next", 4L), out);
+
+        //when
+        List<Currency> read = CurrencyProtobuf.readCurrencies(new ByteArrayInputStream(out.toByteArray())).stream()
+                .map(Currency.Builder::build)
+                .collect(Collectors.toList());
+
+        //then
+        assertThat(read).isEqualTo(currencies);
+    }
+}
@@ -0,0 +1,238 @@
+package com.anhu.cryptoCurrencyInfoStorage.event;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CurrencyChangeFeedTest {
+
+    private CurrencyChangeFeed feed;
+
+    @BeforeEach
+    public void createFeed() {
+        feed = new CurrencyChangeFeed();
+        feed.currencyChangeGeneration = new CurrencyChangeGeneration();
+        feed.historySize = 5;
+        feed.subscriberBufferSize = 3;
+        // deliver on the publishing thread, so the tests see the deliveries at once
+        feed.scheduler = Schedulers.immediate();
+        feed.createHistory();
+    }
+
+    @Test
+    public void testSubscribe_changesPublished_shouldDeliverThemInOrder() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, Long.MAX_VALUE);
+
+        //when
+        feed.changed(updated("BTC", 1));
+        feed.changed(updated("ETH", 2));
+        feed.changed(deleted("BTC"));
+
+        //then
+        assertThat(subscriber.sequences()).containsExactly(1L, 2L, 3L);
+        assertThat(subscriber.changes.get(2).getType()).isEqualTo(CurrencyChangeEvent.Type.DELETED);
+    }
+
+    @Test
+    public void testSubscribe_slowSubscriber_shouldReceiveLatestChangePerTicker() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, 0);
+        feed.changed(updated("BTC", 1));
+        feed.changed(updated("ETH", 2));
+        feed.changed(updated("BTC", 3));
+
+        //when
+        subscriber.request(10);
+
+        //then
+        assertThat(subscriber.sequences()).containsExactly(2L, 3L);
+        assertThat(subscriber.changes.get(1).getCurrency().getMarketCap()).isEqualTo(3);
+    }
+
+    @Test
+    public void testSubscribe_olderVersionReportedLater_shouldKeepHigherVersion() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, 0);
+        feed.changed(updated("BTC", 20, 2));
+
+        //when
+        feed.changed(updated("BTC", 10, 1));
+        subscriber.request(10);
+
+        //then
+        assertThat(subscriber.sequences()).containsExactly(1L);
+        assertThat(subscriber.changes.get(0).getVersion()).isEqualTo(2);
+        assertThat(subscriber.changes.get(0).getCurrency().getMarketCap()).isEqualTo(20);
+    }
+
+    @Test
+    public void testSubscribe_updateReportedAfterDelete_shouldKeepDelete() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, 0);
+        feed.changed(deleted("BTC"));
+
+        //when
+        feed.changed(updated("BTC", 10, 5));
+        subscriber.request(10);
+
+        //then
+        assertThat(subscriber.changes).extracting(CurrencyChange::getType).containsExactly(CurrencyChangeEvent.Type.DELETED);
+    }
+
+    @Test
+    public void testSubscribe_moreTickersThanTheBufferHolds_shouldEndWithGap() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, 0);
+
+        //when
+        for (int ticker = 0; ticker < 4; ticker++) {
+            feed.changed(updated("T" + ticker, ticker));
+        }
+
+        //then
+        assertThat(subscriber.changes).isEmpty();
+        assertThat(subscriber.error).isInstanceOf(ChangeFeedGapException.class);
+        assertThat(((ChangeFeedGapException) subscriber.error).getSequence()).isEqualTo(4);
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void testSubscribe_publishingToSlowSubscriber_shouldNotWaitForIt() {
+        //given
+        ChangeSubscriber slow = subscribe(null, 0);
+        ChangeSubscriber fast = subscribe(null, Long.MAX_VALUE);
+
+        //when
+        for (int change = 0; change < 1000; change++) {
+            feed.changed(updated("BTC", change));
+        }
+
+        //then
+        assertThat(fast.changes).hasSize(1000);
+        assertThat(slow.changes).isEmpty();
+        slow.request(10);
+        assertThat(slow.sequences()).containsExactly(1000L);
+    }
+
+    @Test
+    public void testSubscribe_resumeAfterKeptChange_shouldDeliverTheLaterChanges() {
+        //given
+        for (int change = 1; change <= 6; change++) {
+            feed.changed(updated("T" + change, change));
+        }
+
+        //when
+        ChangeSubscriber subscriber = subscribe(feed.eventId(3), Long.MAX_VALUE);
+        feed.changed(updated("T7", 7));
+
+        //then
+        assertThat(subscriber.sequences()).containsExactly(4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    public void testSubscribe_resumeAfterChangeNoLongerKept_shouldEndWithGap() {
+        //given
+        for (int change = 1; change <= 7; change++) {
+            feed.changed(updated("T" + change, change));
+        }
+
+        //when
+        ChangeSubscriber subscriber = subscribe(feed.eventId(1), Long.MAX_VALUE);
+
+        //then
+        assertThat(subscriber.changes).isEmpty();
+        assertThat(((ChangeFeedGapException) subscriber.error).getSequence()).isEqualTo(7);
+    }
+
+    @Test
+    public void testSubscribe_resumeAfterChangeOfAnotherStart_shouldEndWithGap() {
+        //when
+        ChangeSubscriber subscriber = subscribe("1-0", Long.MAX_VALUE);
+
+        //then
+        assertThat(subscriber.error).isInstanceOf(ChangeFeedGapException.class);
+    }
+
+    @Test
+    public void testSubscribe_invalidId_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> feed.subscribe("12")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> feed.subscribe("x-1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSubscribe_cancelled_shouldRemoveSubscriber() {
+        //given
+        ChangeSubscriber subscriber = subscribe(null, Long.MAX_VALUE);
+
+        //when
+        subscriber.cancel();
+
+        //then
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    private ChangeSubscriber subscribe(String lastEventId, long initialRequest) {
+        ChangeSubscriber subscriber = new ChangeSubscriber(initialRequest);
+        feed.subscribe(lastEventId).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private static CurrencyChangeEvent updated(String ticker, long marketCap) {
+        return updated(ticker, marketCap, marketCap);
+    }
+
+    private static CurrencyChangeEvent updated(String ticker, long marketCap, long version) {
+        Currency currency = new Currency.Builder().ticker(ticker).name(ticker).numberOfCoins(1).marketCap(marketCap)
+                .version(version).build();
+        return new CurrencyChangeEvent(CurrencyChangeEvent.Type.UPDATED, ticker, currency, 0);
+    }
+
+    private static CurrencyChangeEvent deleted(String ticker) {
+        return new CurrencyChangeEvent(CurrencyChangeEvent.Type.DELETED, ticker, null, 0);
+    }
+
+    private static class ChangeSubscriber extends BaseSubscriber<CurrencyChange> {
+        private final long initialRequest;
+        private final List<CurrencyChange> changes = new ArrayList<>();
+        private Throwable error;
+
+        ChangeSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(CurrencyChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+
+        List<Long> sequences() {
+            List<Long> sequences = new ArrayList<>();
+            for (CurrencyChange change : changes) {
+                sequences.add(change.getSequence());
+            }
+            return sequences;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.anhu.cryptoCurrencyInfoStorage.metrics;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPrometheus_afterRequest_shouldExposeLatencyRepositoryAndPayloadMetrics() throws Exception {
+        //given
+        String ticker = StandardData.getStandardTickers()[0];
+        mockMvc.perform(get("/api/currencies/" + ticker).accept(MediaType.APPLICATION_JSON));
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/actuator/prometheus")).andReturn().getResponse();
+
+        //then
+        String metrics = response.getContentAsString();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(metrics).contains("http_server_requests_seconds_bucket{");
+        assertThat(metrics).contains("uri=\"/api/currencies/{ticker}\"");
+        assertThat(metrics).contains("quantile=\"0.999\"");
+        assertThat(metrics).contains("spring_data_repository_invocations_seconds");
+        assertThat(metrics).contains("hikaricp_connections_acquire_seconds");
+        assertThat(metrics).contains("currency_api_response_size_bytes");
+        assertThat(metrics).contains("cache_gets_total{cache=\"currencies\"");
+    }
+}
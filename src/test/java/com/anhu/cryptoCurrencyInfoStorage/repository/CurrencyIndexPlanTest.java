@@ -0,0 +1,43 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class CurrencyIndexPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSortOnMarketCap_shouldUseMarketCapIndex() {
+        assertThat(explain("SELECT * FROM currencies ORDER BY market_cap, ticker"))
+                .containsIgnoringCase("idx_currencies_market_cap");
+    }
+
+    @Test
+    public void testSortOnNumberOfCoins_shouldUseNumberOfCoinsIndex() {
+        assertThat(explain("SELECT * FROM currencies ORDER BY number_of_coins, ticker"))
+                .containsIgnoringCase("idx_currencies_number_of_coins");
+    }
+
+    @Test
+    public void testSortOnName_shouldUseNameIndex() {
+        assertThat(explain("SELECT * FROM currencies ORDER BY name, ticker"))
+                .containsIgnoringCase("idx_currencies_name");
+    }
+
+    @Test
+    public void testKeysetOnMarketCap_shouldUseMarketCapIndex() {
+        assertThat(explain("SELECT * FROM currencies WHERE market_cap > 69020000000 ORDER BY market_cap, ticker"))
+                .containsIgnoringCase("idx_currencies_market_cap");
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+public class CurrencyRepositoryCustomTest {
+
+    @Autowired
+    private CurrencyRepository repository;
+
+    @Test
+    public void testFindAllAfter_afterSecondEntry_shouldGiveRemainingEntriesInOrder(){
+        //given
+        Sort sort = Sort.by(Sort.Direction.ASC, "numberOfCoins", "ticker");
+        List<Currency> firstTwo = repository.findAllAfter(sort, null, 2);
+        Currency last = firstTwo.get(1);
+
+        //when
+        List<Currency> remaining = repository.findAllAfter(sort, List.of(last.getNumberOfCoins(), last.getTicker()), 10);
+
+        //then
+        assertThat(firstTwo).hasSize(2);
+        assertThat(remaining).hasSize(2).doesNotContainAnyElementsOf(firstTwo);
+        assertThat(remaining).extracting(Currency::getNumberOfCoins)
+                .isSorted()
+                .allMatch(numberOfCoins -> numberOfCoins >= last.getNumberOfCoins());
+    }
+
+    @Test
+    public void testInsert_newTicker_repositoryContainsCurrency() {
+        //given
+        Currency currency = new Currency.Builder()
+                .ticker("DOGE")
+                .name("Dogecoin")
+                .numberOfCoins(129400000)
+                .marketCap(5310000)
+                .build();
+
+        //when
+        repository.insert(currency);
+
+        //then
+        assertThat(repository.findAll()).hasSize(5).contains(currency);
+    }
+
+    @Test
+    public void testInsert_existingTicker_shouldThrowDuplicateKey() {
+        //given
+        Currency existing = StandardData.getStandardCurrencies()[0];
+        Currency currency = new Currency.Builder()
+                .ticker(existing.getTicker())
+                .name("other " + existing.getName())
+                .numberOfCoins(1)
+                .marketCap(1)
+                .build();
+
+        //then
+        assertThatThrownBy(() -> repository.insert(currency)).isInstanceOf(DuplicateKeyException.class);
+    }
+}
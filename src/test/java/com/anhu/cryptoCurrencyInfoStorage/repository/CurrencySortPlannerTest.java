@@ -0,0 +1,50 @@
+package com.anhu.cryptoCurrencyInfoStorage.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CurrencySortPlannerTest {
+
+    private final CurrencySortPlanner planner = new CurrencySortPlanner();
+
+    @Test
+    public void testPlan_sortableField_shouldEndInTicker() {
+        //when
+        Sort sort = planner.plan(new String[]{"marketCap"}, "desc");
+
+        //then
+        assertThat(sort.toList()).containsExactly(
+                Sort.Order.desc("marketCap"),
+                Sort.Order.desc("ticker"));
+    }
+
+    @Test
+    public void testPlan_tickerAndDuplicates_shouldNotRepeatProperties() {
+        //when
+        Sort sort = planner.plan(new String[]{"ticker", "name", "name"}, "asc");
+
+        //then
+        assertThat(sort.toList()).containsExactly(
+                Sort.Order.asc("ticker"),
+                Sort.Order.asc("name"));
+    }
+
+    @Test
+    public void testPlan_sameRequest_shouldReuseCachedPlan() {
+        //when
+        Sort first = planner.plan(new String[]{"numberOfCoins"}, "asc");
+        Sort second = planner.plan(new String[]{"numberOfCoins"}, "asc");
+
+        //then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testPlan_unknownField_shouldThrow() {
+        assertThatThrownBy(() -> planner.plan(new String[]{"market_cap; drop table currencies"}, "asc"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
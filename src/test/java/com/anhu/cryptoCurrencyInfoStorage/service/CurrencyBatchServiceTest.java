@@ -0,0 +1,125 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.StandardData;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchtest",
+        "spring.jpa.show-sql=false"})
+public class CurrencyBatchServiceTest {
+
+    @Autowired
+    private CurrencyBatchService batchService;
+
+    @Autowired
+    private CurrencyRepository repository;
+
+    @Test
+    public void testCreateAll_newAndExistingTickers_shouldCreateNewAndReportConflicts() {
+        //given
+        Currency existing = StandardData.getStandardCurrencies()[0];
+        Currency newCurrency = currency("ADA", 100);
+
+        //when
+        List<BatchItemResult> results = batchService.createAll(List.of(existing, newCurrency));
+
+        //then
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CONFLICT, BatchItemStatus.CREATED);
+        assertThat(repository.findById("ADA")).contains(newCurrency);
+        assertThat(repository.findById(existing.getTicker())).contains(existing);
+        repository.deleteById("ADA");
+    }
+
+    @Test
+    public void testUpsertAll_newAndExistingTickers_shouldCreateAndUpdate() {
+        //given
+        Currency original = StandardData.getStandardCurrencies()[1];
+        Currency updated = currency(original.getTicker(), original.getMarketCap() + 1);
+        Currency newCurrency = currency("DOT", 200);
+
+        //when
+        List<BatchItemResult> results = batchService.upsertAll(List.of(updated, newCurrency));
+
+        //then
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.UPDATED, BatchItemStatus.CREATED);
+        assertThat(repository.findById(original.getTicker())).contains(updated);
+        assertThat(repository.findById("DOT")).contains(newCurrency);
+        batchService.upsertAll(List.of(original));
+        repository.deleteById("DOT");
+    }
+
+    @Test
+    public void testCreateAll_missingTicker_shouldReportInvalid() {
+        //given
+        Currency invalid = new Currency.Builder().name("No ticker").build();
+
+        //when
+        List<BatchItemResult> results = batchService.createAll(List.of(invalid));
+
+        //then
+        assertThat(results).extracting(BatchItemResult::getStatus).containsExactly(BatchItemStatus.INVALID);
+    }
+
+    @Test
+    public void testUpsertAll_tooLongTickerOrName_shouldReportInvalidAndWriteTheOthers() {
+        //given
+        Currency longTicker = currency("T".repeat(Currency.MAX_TICKER_LENGTH + 1), 100);
+        Currency longName = new Currency.Builder().ticker("LNG").name("n".repeat(Currency.MAX_NAME_LENGTH + 1)).build();
+        Currency valid = currency("SOL", 300);
+
+        //when
+        List<BatchItemResult> results = batchService.upsertAll(List.of(longTicker, longName, valid));
+
+        //then
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.INVALID, BatchItemStatus.INVALID, BatchItemStatus.CREATED);
+        assertThat(repository.findById("SOL")).contains(valid);
+        assertThat(repository.existsById("LNG")).isFalse();
+        repository.deleteById("SOL");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    public void testUpsertAll_100kRows_throughput() {
+        //given
+        int rows = 100_000;
+        List<Currency> currencies = new ArrayList<>(rows);
+        for (int index = 0; index < rows; index++) {
+            currencies.add(currency("T" + index, index));
+        }
+
+        //when
+        long start = System.nanoTime();
+        List<BatchItemResult> created = batchService.upsertAll(currencies);
+        long createNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<BatchItemResult> updated = batchService.upsertAll(currencies);
+        long updateNanos = System.nanoTime() - start;
+
+        //then
+        System.out.printf("batch insert: %d rows in %d ms, %.0f rows/s%n",
+                rows, createNanos / 1_000_000, rows / (createNanos / 1e9));
+        System.out.printf("batch update: %d rows in %d ms, %.0f rows/s%n",
+                rows, updateNanos / 1_000_000, rows / (updateNanos / 1e9));
+        assertThat(created).allMatch(result -> result.getStatus() == BatchItemStatus.CREATED);
+        assertThat(updated).allMatch(result -> result.getStatus() == BatchItemStatus.UPDATED);
+        assertThat(repository.count()).isEqualTo(rows + StandardData.getStandardCurrencies().length);
+
+        // restore the standard data for the other tests in this context
+        repository.deleteAllInBatch();
+        batchService.createAll(List.of(StandardData.getStandardCurrencies()));
+    }
+}
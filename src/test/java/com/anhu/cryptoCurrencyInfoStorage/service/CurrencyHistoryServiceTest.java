@@ -0,0 +1,53 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.CurrencySnapshot;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencySnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:historyfailuretest")
+public class CurrencyHistoryServiceTest {
+
+    @Autowired
+    private CurrencyBatchService batchService;
+
+    @Autowired
+    private CurrencyRepository repository;
+
+    @MockBean
+    private CurrencySnapshotRepository currencySnapshotRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecord_snapshotsCanNotBeWritten_shouldKeepTheCommittedChanges() {
+        //given
+        when(currencySnapshotRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("disk full"));
+        Currency first = new Currency.Builder().ticker("ADA").name("Cardano").numberOfCoins(10).marketCap(20).build();
+        Currency second = new Currency.Builder().ticker("DOT").name("Polkadot").numberOfCoins(30).marketCap(40).build();
+
+        //when
+        List<BatchItemResult> results = batchService.createAll(List.of(first, second));
+
+        //then
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.CREATED);
+        assertThat(repository.findAllById(List.of("ADA", "DOT"))).hasSize(2);
+        // the snapshots of the transaction are written together
+        ArgumentCaptor<List<CurrencySnapshot>> snapshots = ArgumentCaptor.forClass(List.class);
+        verify(currencySnapshotRepository).saveAll(snapshots.capture());
+        assertThat(snapshots.getValue()).extracting(CurrencySnapshot::getTicker).containsExactly("ADA", "DOT");
+    }
+}
@@ -0,0 +1,125 @@
+package com.anhu.cryptoCurrencyInfoStorage.service;
+
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the import with a single parser and writer and batches of three records, against a batch service that
+ * fails the batches holding the ticker BAD.
+ */
+public class CurrencyImportServiceTest {
+
+    private CurrencyImportService currencyImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        currencyImportService = new CurrencyImportService();
+        currencyImportService.currencyBatchService = mock(CurrencyBatchService.class);
+        currencyImportService.currencyCache = new CurrencyCache(10, 1000);
+        currencyImportService.objectMapper = new ObjectMapper();
+        currencyImportService.parsers = 1;
+        currencyImportService.writers = 1;
+        currencyImportService.chunkSize = 3;
+        currencyImportService.maxRejectedLines = 10;
+        when(currencyImportService.currencyBatchService.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<BatchItemResult> results = new ArrayList<>();
+            for (Currency currency : (List<Currency>) invocation.getArgument(0)) {
+                if (currency.getTicker().equals("BAD")) {
+                    throw new DataIntegrityViolationException("constraint violated by BAD");
+                }
+                results.add(new BatchItemResult(currency.getTicker(), BatchItemStatus.CREATED));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    public void testImport_valuesLongerThanTheirColumn_shouldRejectTheirLines() throws Exception {
+        //given
+        String csv = "ABCDEFGHIJ,Ten characters,1,2\n" +
+                "ABCDEFGHIJK,Eleven characters,1,2\n" +
+                "LONG," + "n".repeat(Currency.MAX_NAME_LENGTH + 1) + ",1,2\n";
+
+        //when
+        ImportProgress report = currencyImportService.importCurrencies(input(csv), ImportFormat.CSV);
+
+        //then
+        assertThat(report.getState()).isEqualTo(ImportProgress.State.COMPLETED);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getRejectedLines()).extracting(RejectedLine::getLineNumber).containsExactly(2L, 3L);
+        assertThat(report.getRejectedLines().get(0).getReason()).contains("ticker is longer than 10");
+        assertThat(report.getRejectedLines().get(1).getReason()).contains("name is longer than 250");
+    }
+
+    @Test
+    public void testImport_ndjsonLineNull_shouldRejectIt() throws Exception {
+        //given
+        String ndjson = "{\"ticker\":\"AAA\",\"name\":\"Coin A\",\"numberOfCoins\":1,\"marketCap\":2}\n" +
+                "null\n";
+
+        //when
+        ImportProgress report = currencyImportService.importCurrencies(input(ndjson), ImportFormat.NDJSON);
+
+        //then
+        assertThat(report.getState()).isEqualTo(ImportProgress.State.COMPLETED);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getRejectedLines()).extracting(RejectedLine::getLineNumber).containsExactly(2L);
+        assertThat(report.getRejectedLines().get(0).getReason()).isEqualTo("not a record");
+    }
+
+    @Test
+    public void testImport_batchFails_shouldWriteItsRecordsOneByOneAndRejectTheFailingLine() throws Exception {
+        //given
+        String csv = "AAA,Coin A,1,2\n" +
+                "BAD,Coin B,1,2\n" +
+                "CCC,Coin C,1,2\n" +
+                "DDD,Coin D,1,2\n";
+
+        //when
+        ImportProgress report = currencyImportService.importCurrencies(input(csv), ImportFormat.CSV);
+
+        //then
+        assertThat(report.getState()).isEqualTo(ImportProgress.State.COMPLETED);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getRejectedLines()).extracting(RejectedLine::getLineNumber).containsExactly(2L);
+        assertThat(report.getRejectedLines().get(0).getReason()).contains("constraint violated by BAD");
+    }
+
+    @Test
+    public void testImport_dataBaseFails_shouldReportFailureWithWhatWasWritten() throws Exception {
+        //given
+        when(currencyImportService.currencyBatchService.upsertAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        String csv = "AAA,Coin A,1,2\n" +
+                "BBB,Coin B,1,2\n";
+
+        //when
+        ImportProgress report = currencyImportService.importCurrencies(input(csv), ImportFormat.CSV);
+
+        //then
+        assertThat(report.getState()).isEqualTo(ImportProgress.State.FAILED);
+        assertThat(report.getCreated()).isZero();
+        assertThat(report.getError()).contains("connection refused");
+        assertThat(report.getRejectedLines()).extracting(RejectedLine::getLineNumber).containsExactly(1L, 2L);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.anhu.cryptoCurrencyInfoStorage.storage;
+
+import com.anhu.cryptoCurrencyInfoStorage.CryptoCurrencyInfoStorageApplication;
+import com.anhu.cryptoCurrencyInfoStorage.cache.CurrencyCache;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.repository.CurrencyRepository;
+import com.anhu.cryptoCurrencyInfoStorage.view.CurrencyAggregates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restarts the application with the persistent profile on a data base file of its own.
+ */
+public class PersistentRestartTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRestart_afterWrites_shouldKeepRecordsAndWarmUpFromTableImage() {
+        //given
+        try (ConfigurableApplicationContext context = start()) {
+            CurrencyRepository repository = context.getBean(CurrencyRepository.class);
+            repository.save(new Currency.Builder()
+                    .ticker("BTC").name("Bitcoin").numberOfCoins(16770000).marketCap(1000).build());
+            repository.deleteById("XRP");
+        }
+
+        //when
+        assertThat(directory.resolve("currencies.image")).exists();
+        try (ConfigurableApplicationContext context = start()) {
+
+            //then
+            assertThat(context.getBean(CurrencyRepository.class).findById("BTC")).get()
+                    .extracting(Currency::getMarketCap).isEqualTo(1000L);
+            assertThat(context.getBean(CurrencyRepository.class).count()).isEqualTo(3);
+            assertThat(context.getBean(CurrencyAggregates.class).getStats().getCount()).isEqualTo(3);
+            assertThat(context.getBean(CurrencyCache.class).get("ETH")).isPresent();
+            assertThat(directory.resolve("currencies.image")).doesNotExist();
+        }
+    }
+
+    @Test
+    public void testRestart_corruptTableImage_shouldWarmUpFromDataBase() throws Exception {
+        //given
+        start().close();
+        Path image = directory.resolve("currencies.image");
+        byte[] bytes = Files.readAllBytes(image);
+        bytes[10] ^= 1;
+        Files.write(image, bytes);
+
+        //when
+        try (ConfigurableApplicationContext context = start()) {
+
+            //then
+            assertThat(context.getBean(CurrencyAggregates.class).getStats().getCount()).isEqualTo(4);
+            assertThat(image).doesNotExist();
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CryptoCurrencyInfoStorageApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .properties("currency.storage.directory=" + directory.toAbsolutePath())
+                .run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyAggregatesTest {
+
+    @Test
+    public void testGetStats_noRecords_shouldGiveZeroCountAndNoMedian() {
+        //when
+        MarketStats stats = new CurrencyAggregates().getStats();
+
+        //then
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getTotalMarketCap()).isEqualTo(BigInteger.ZERO);
+        assertThat(stats.getMeanMarketCap()).isNull();
+        assertThat(stats.getMedianMarketCap()).isNull();
+    }
+
+    @Test
+    public void testPut_oddAndEvenNumberOfRecords_shouldGiveMiddleAndMeanOfMiddleTwo() {
+        //given
+        CurrencyAggregates aggregates = new CurrencyAggregates();
+        aggregates.put(currency("A", 10));
+        aggregates.put(currency("B", 40));
+        aggregates.put(currency("C", 20));
+
+        //then
+        assertThat(aggregates.getStats().getMedianMarketCap()).isEqualByComparingTo("20");
+        aggregates.put(currency("D", 30));
+        assertThat(aggregates.getStats().getMedianMarketCap()).isEqualByComparingTo("25");
+        assertThat(aggregates.getStats().getMeanMarketCap()).isEqualByComparingTo("25");
+        assertThat(aggregates.getStats().getTotalMarketCap()).isEqualTo(BigInteger.valueOf(100));
+    }
+
+    @Test
+    public void testPut_updateAndRemove_shouldReplaceTheOldValues() {
+        //given
+        CurrencyAggregates aggregates = new CurrencyAggregates();
+        aggregates.put(currency("A", 10));
+        aggregates.put(currency("B", 20));
+        aggregates.put(currency("C", 30));
+
+        //when
+        aggregates.put(currency("C", 1));
+        aggregates.remove("A");
+
+        //then
+        MarketStats stats = aggregates.getStats();
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getTotalMarketCap()).isEqualTo(BigInteger.valueOf(21));
+        assertThat(stats.getMedianMarketCap()).isEqualByComparingTo("10.5");
+    }
+
+    @Test
+    public void testPut_marketCapsAddingUpBeyondLong_shouldNotOverflow() {
+        //given
+        CurrencyAggregates aggregates = new CurrencyAggregates();
+
+        //when
+        aggregates.put(currency("A", Long.MAX_VALUE));
+        aggregates.put(currency("B", Long.MAX_VALUE));
+
+        //then
+        assertThat(aggregates.getStats().getTotalMarketCap())
+                .isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TWO));
+        assertThat(aggregates.getStats().getMedianMarketCap()).isEqualByComparingTo(BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetStatsWithShares_shouldGiveFractionOfTotalPerTicker() {
+        //given
+        CurrencyAggregates aggregates = new CurrencyAggregates();
+        aggregates.put(currency("A", 25));
+        aggregates.put(currency("B", 75));
+
+        //when
+        MarketStats stats = aggregates.getStatsWithShares();
+
+        //then
+        assertThat(stats.getShares().get("A")).isEqualByComparingTo("0.25");
+        assertThat(stats.getShares().get("B")).isEqualByComparingTo("0.75");
+    }
+}
@@ -0,0 +1,111 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import com.anhu.cryptoCurrencyInfoStorage.model.MarketScan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyColumnsTest {
+
+    @Test
+    public void testScan_noRecords_shouldGiveZeroCountAndNoMinimum() {
+        //when
+        MarketScan scan = new CurrencyColumns().scan(ColumnFilter.all());
+
+        //then
+        assertThat(scan.getCount()).isZero();
+        assertThat(scan.getMinMarketCap()).isNull();
+        assertThat(scan.getMeanMarketCap()).isNull();
+    }
+
+    @Test
+    public void testScan_filter_shouldAggregateMatchingRecordsOnly() {
+        //given
+        CurrencyColumns columns = new CurrencyColumns();
+        columns.put(currency("A", 10, 100));
+        columns.put(currency("B", 20, 200));
+        columns.put(currency("C", 30, 300));
+
+        //when
+        MarketScan scan = columns.scan(new ColumnFilter(15, Long.MAX_VALUE, Long.MIN_VALUE, 250));
+
+        //then
+        assertThat(scan.getCount()).isEqualTo(1);
+        assertThat(scan.getTotalMarketCap()).isEqualTo(BigInteger.valueOf(20));
+        assertThat(columns.tickers(new ColumnFilter(15, 30, 0, 300), 10)).containsExactlyInAnyOrder("B", "C");
+    }
+
+    @Test
+    public void testScan_sumsBeyondLong_shouldNotOverflow() {
+        //given
+        CurrencyColumns columns = new CurrencyColumns();
+        columns.put(currency("A", Long.MAX_VALUE, 1));
+        columns.put(currency("B", Long.MAX_VALUE, 1));
+
+        //when
+        MarketScan scan = columns.scan(ColumnFilter.all());
+
+        //then
+        assertThat(scan.getTotalMarketCap()).isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TWO));
+    }
+
+    @Test
+    public void testRemove_tickersComingAndGoing_shouldReuseTheirCodes() {
+        //given
+        CurrencyColumns columns = new CurrencyColumns();
+        columns.put(currency("KEEP", 1, 1));
+
+        //when
+        for (int ticker = 0; ticker < 10000; ticker++) {
+            columns.put(currency("T" + ticker, ticker, ticker));
+            columns.remove("T" + ticker);
+        }
+        columns.put(currency("LAST", 2, 2));
+
+        //then
+        assertThat(columns.codeCount()).isEqualTo(2);
+        assertThat(columns.tickers(ColumnFilter.all(), 10)).containsExactlyInAnyOrder("KEEP", "LAST");
+    }
+
+    @Test
+    public void testScan_randomWritesOverParallelChunks_shouldMatchSummingAllRecords() {
+        //given
+        CurrencyColumns columns = new CurrencyColumns();
+        Map<String, Currency> currencies = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int write = 0; write < 400000; write++) {
+            String ticker = "T" + random.nextInt(200000);
+            if (random.nextInt(5) == 0) {
+                columns.remove(ticker);
+                currencies.remove(ticker);
+            } else {
+                Currency currency = currency(ticker, random.nextInt(1000) - 100, random.nextInt(1000));
+                columns.put(currency);
+                currencies.put(ticker, currency);
+            }
+        }
+
+        //then
+        MarketScan scan = columns.scan(new ColumnFilter(0, 500, 250, Long.MAX_VALUE));
+        long count = 0;
+        long total = 0;
+        for (Currency currency : currencies.values()) {
+            if (currency.getMarketCap() >= 0 && currency.getMarketCap() <= 500 && currency.getNumberOfCoins() >= 250) {
+                count++;
+                total += currency.getMarketCap();
+            }
+        }
+        assertThat(columns.size()).isEqualTo(currencies.size());
+        assertThat(scan.getCount()).isEqualTo(count);
+        assertThat(scan.getTotalMarketCap()).isEqualTo(BigInteger.valueOf(total));
+    }
+}
@@ -0,0 +1,82 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyLeaderboardTest {
+
+    @Test
+    public void testTop_equalValues_shouldGiveHighestFirstThenByTicker() {
+        //given
+        CurrencyLeaderboard leaderboard = new CurrencyLeaderboard();
+        leaderboard.put(currency("C", 10, 30));
+        leaderboard.put(currency("A", 20, 10));
+        leaderboard.put(currency("B", 20, 20));
+
+        //when
+        List<Currency> byMarketCap = leaderboard.top(RankedBy.MARKET_CAP, 10);
+        List<Currency> byNumberOfCoins = leaderboard.top(RankedBy.NUMBER_OF_COINS, 2);
+
+        //then
+        assertThat(byMarketCap).extracting(Currency::getTicker).containsExactly("A", "B", "C");
+        assertThat(byNumberOfCoins).extracting(Currency::getTicker).containsExactly("C", "B");
+    }
+
+    @Test
+    public void testRank_afterUpdateAndRemove_shouldFollowTheWrites() {
+        //given
+        CurrencyLeaderboard leaderboard = new CurrencyLeaderboard();
+        leaderboard.put(currency("A", 30, 1));
+        leaderboard.put(currency("B", 20, 1));
+        leaderboard.put(currency("C", 10, 1));
+
+        //when
+        leaderboard.put(currency("C", 40, 1));
+        leaderboard.remove("A");
+
+        //then
+        assertThat(leaderboard.rank(RankedBy.MARKET_CAP, "C")).hasValue(1);
+        assertThat(leaderboard.rank(RankedBy.MARKET_CAP, "B")).hasValue(2);
+        assertThat(leaderboard.rank(RankedBy.MARKET_CAP, "A")).isEmpty();
+        assertThat(leaderboard.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRankAndTop_randomWrites_shouldMatchSortingAllRecords() {
+        //given
+        CurrencyLeaderboard leaderboard = new CurrencyLeaderboard();
+        Map<String, Currency> currencies = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int write = 0; write < 5000; write++) {
+            String ticker = "T" + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                leaderboard.remove(ticker);
+                currencies.remove(ticker);
+            } else {
+                Currency currency = currency(ticker, random.nextInt(100), random.nextInt(100));
+                leaderboard.put(currency);
+                currencies.put(ticker, currency);
+            }
+        }
+
+        //then
+        List<Currency> sorted = new ArrayList<>(currencies.values());
+        sorted.sort(Comparator.comparingLong(Currency::getMarketCap).reversed().thenComparing(Currency::getTicker));
+        assertThat(leaderboard.top(RankedBy.MARKET_CAP, Integer.MAX_VALUE)).containsExactlyElementsOf(sorted);
+        for (int index = 0; index < sorted.size(); index++) {
+            assertThat(leaderboard.rank(RankedBy.MARKET_CAP, sorted.get(index).getTicker())).hasValue(index + 1);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencySearchIndexTest {
+
+    private CurrencySearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CurrencySearchIndex();
+        index.put(currency("BTC", "Bitcoin", 189580000000L));
+        index.put(currency("ETH", "Ethereum", 69280000000L));
+        index.put(currency("XRP", "Ripple", 64750000000L));
+        index.put(currency("BCH", "BitcoinCash", 69020000000L));
+        index.put(currency("WBTC", "Wrapped Bitcoin", 6000000000L));
+    }
+
+    @Test
+    public void testSearch_prefix_shouldRankTickerMatchesFirstIgnoringCase() {
+        //when
+        List<Currency> found = index.search("Bit", 10, false);
+        List<Currency> exactTicker = index.search("bch", 10, false);
+
+        //then
+        assertThat(found).extracting(Currency::getTicker).containsExactly("BTC", "WBTC", "BCH");
+        assertThat(exactTicker).extracting(Currency::getTicker).containsExactly("BCH");
+    }
+
+    @Test
+    public void testSearch_wordOfName_shouldFindRecord() {
+        //when
+        List<Currency> found = index.search("wrapped", 10, false);
+
+        //then
+        assertThat(found).extracting(Currency::getTicker).containsExactly("WBTC");
+    }
+
+    @Test
+    public void testSearch_typingError_shouldOnlyMatchWhenFuzzy() {
+        //when
+        List<Currency> exact = index.search("etherium", 10, false);
+        List<Currency> fuzzy = index.search("etherium", 10, true);
+        List<Currency> fuzzyTicker = index.search("btx", 10, true);
+
+        //then
+        assertThat(exact).isEmpty();
+        assertThat(fuzzy).extracting(Currency::getTicker).containsExactly("ETH");
+        assertThat(fuzzyTicker).extracting(Currency::getTicker).containsExactly("BTC");
+    }
+
+    @Test
+    public void testSearch_afterRenameAndRemove_shouldFollowTheWrites() {
+        //when
+        index.put(currency("XRP", "Ledger", 64750000000L));
+        index.remove("ETH");
+
+        //then
+        assertThat(index.search("ripple", 10, false)).isEmpty();
+        assertThat(index.search("ledger", 10, false)).extracting(Currency::getTicker).containsExactly("XRP");
+        assertThat(index.search("eth", 10, false)).isEmpty();
+    }
+
+    @Test
+    public void testSearch_limit_shouldGiveBestMatchesOnly() {
+        //when
+        List<Currency> found = index.search("b", 2, false);
+
+        //then
+        assertThat(found).extracting(Currency::getTicker).containsExactly("BTC", "BCH");
+    }
+
+    @Test
+    public void testSearch_largestLimit_shouldGiveAllMatches() {
+        //when
+        List<Currency> found = index.search("b", Integer.MAX_VALUE, false);
+
+        //then
+        assertThat(found).extracting(Currency::getTicker).containsExactly("BTC", "BCH", "WBTC");
+    }
+
+    private static Currency currency(String ticker, String name, long marketCap) {
+        return new Currency.Builder()
+                .ticker(ticker)
+                .name(name)
+                .numberOfCoins(1000)
+                .marketCap(marketCap)
+                .build();
+    }
+}
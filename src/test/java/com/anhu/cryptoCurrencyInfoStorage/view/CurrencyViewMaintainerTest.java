@@ -0,0 +1,66 @@
+package com.anhu.cryptoCurrencyInfoStorage.view;
+
+import com.anhu.cryptoCurrencyInfoStorage.event.CurrencyChangeEvent;
+import com.anhu.cryptoCurrencyInfoStorage.model.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.anhu.cryptoCurrencyInfoStorage.StandardData.currency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CurrencyViewMaintainerTest {
+
+    private CurrencyLeaderboard leaderboard;
+    private CurrencyViewMaintainer currencyViewMaintainer;
+
+    @BeforeEach
+    public void setUp() {
+        leaderboard = new CurrencyLeaderboard();
+        currencyViewMaintainer = new CurrencyViewMaintainer();
+        currencyViewMaintainer.currencyViews = List.of(leaderboard);
+    }
+
+    @Test
+    public void testApply_olderVersionAfterNewer_shouldKeepNewer() {
+        //given
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.UPDATED, currency("BTC", 20).withVersion(2)));
+
+        //when
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.UPDATED, currency("BTC", 10).withVersion(1)));
+
+        //then
+        assertThat(leaderboard.top(RankedBy.MARKET_CAP, 1)).extracting(Currency::getMarketCap).containsExactly(20L);
+    }
+
+    @Test
+    public void testApply_updateAfterDelete_shouldNotRestoreRecord() {
+        //given
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.CREATED, currency("BTC", 10).withVersion(0)));
+        currencyViewMaintainer.apply(new CurrencyChangeEvent(CurrencyChangeEvent.Type.DELETED, "BTC", null, 0));
+
+        //when
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.UPDATED, currency("BTC", 20).withVersion(1)));
+
+        //then
+        assertThat(leaderboard.size()).isZero();
+    }
+
+    @Test
+    public void testApply_createAfterDelete_shouldAddRecord() {
+        //given
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.UPDATED, currency("BTC", 10).withVersion(3)));
+        currencyViewMaintainer.apply(new CurrencyChangeEvent(CurrencyChangeEvent.Type.DELETED, "BTC", null, 0));
+
+        //when
+        currencyViewMaintainer.apply(event(CurrencyChangeEvent.Type.CREATED, currency("BTC", 30).withVersion(0)));
+
+        //then
+        assertThat(leaderboard.top(RankedBy.MARKET_CAP, 1)).extracting(Currency::getMarketCap).containsExactly(30L);
+    }
+
+    private static CurrencyChangeEvent event(CurrencyChangeEvent.Type type, Currency currency) {
+        return new CurrencyChangeEvent(type, currency.getTicker(), currency, 0);
+    }
+}